@@ -0,0 +1,55 @@
+package com.example.backend_spring.dto;
+
+import com.example.backend_spring.dto.note.NoteResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteResponseSerializationBenchmark {
+
+    // 50000 is the @Size limit on Note.contentMd
+    @Param({"1000", "10000", "50000"})
+    private int contentLength;
+
+    private ObjectMapper objectMapper;
+    private NoteResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        StringBuilder content = new StringBuilder(contentLength);
+        String line = "- item with **bold** text, \"quotes\" and a [link](https://example.com)\n";
+        while (content.length() < contentLength) {
+            content.append(line);
+        }
+        content.setLength(contentLength);
+
+        response = NoteResponse.builder()
+                .id(42L)
+                .title("Benchmark note")
+                .contentMd(content.toString())
+                .visibility("PRIVATE")
+                .tags(Set.of("work", "ideas", "draft"))
+                .ownerId(1L)
+                .ownerEmail("bench@example.com")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
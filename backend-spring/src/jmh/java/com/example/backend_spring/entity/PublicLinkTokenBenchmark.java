@@ -0,0 +1,29 @@
+package com.example.backend_spring.entity;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicLinkTokenBenchmark {
+
+    @Benchmark
+    public String generateToken() {
+        PublicLink link = new PublicLink();
+        link.generateToken();
+        return link.getUrlToken();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateTokenContended() {
+        PublicLink link = new PublicLink();
+        link.generateToken();
+        return link.getUrlToken();
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.repository.NoteRepositoryCustom.IndexedNote;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of one owner's notes under a tag filter: the SQL join approach (one EXISTS per label,
+ * the same joins NoteRepository.searchNotes makes for a single tag, plus the count query of the
+ * Page) against UserNotes bitmaps followed by the fetch of the page by id, and the bitmaps alone
+ * with and without facets. Both run against the same data in an in-memory H2 database, so the SQL
+ * side is only indicative of PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagFilterBenchmark {
+
+    private static final long OWNER_ID = 1L;
+    private static final int LABELS = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final LocalDateTime FACETS_AT = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Param({"1000", "20000"})
+    private int noteCount;
+
+    // tag-0 is the most used label, labels follow a Zipf law
+    @Param({"tag-0", "tag-0 tag-1 -tag-2", "(tag-3 OR tag-4) AND NOT tag-0"})
+    private String filter;
+
+    private Connection connection;
+    private PreparedStatement sqlPage;
+    private PreparedStatement sqlCount;
+    private PreparedStatement[] fetchById;
+    private List<String> sqlLabels;
+    private UserNotes notes;
+    private TagFilter parsed;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:tagfilter-" + noteCount + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE notes (id BIGINT PRIMARY KEY, owner_id BIGINT NOT NULL, "
+                    + "title VARCHAR(255) NOT NULL, visibility VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6) NOT NULL)");
+            statement.execute("CREATE TABLE tags (id BIGINT PRIMARY KEY, label VARCHAR(255) NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE note_tags (note_id BIGINT NOT NULL, tag_id BIGINT NOT NULL, "
+                    + "PRIMARY KEY (note_id, tag_id))");
+            statement.execute("CREATE INDEX idx_notes_owner_updated ON notes (owner_id, updated_at DESC)");
+            statement.execute("CREATE INDEX idx_note_tags_tag ON note_tags (tag_id)");
+        }
+        List<IndexedNote> indexed = insertNotes();
+        notes = UserNotes.of(indexed);
+        parsed = TagFilter.parse(filter);
+
+        sqlLabels = new ArrayList<>();
+        String condition = toSql(parsed);
+        sqlPage = connection.prepareStatement("SELECT n.id FROM notes n WHERE n.owner_id = ? AND " + condition
+                + " ORDER BY n.updated_at DESC, n.id DESC LIMIT " + PAGE_SIZE);
+        sqlCount = connection.prepareStatement("SELECT COUNT(*) FROM notes n WHERE n.owner_id = ? AND " + condition);
+        fetchById = new PreparedStatement[PAGE_SIZE + 1];
+        for (int size = 1; size <= PAGE_SIZE; size++) {
+            fetchById[size] = connection.prepareStatement("SELECT n.id, n.title, t.label FROM notes n "
+                    + "LEFT JOIN note_tags nt ON nt.note_id = n.id LEFT JOIN tags t ON t.id = nt.tag_id "
+                    + "WHERE n.id IN (" + String.join(", ", Collections.nCopies(size, "?")) + ")");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long sqlJoin() throws SQLException {
+        long checksum = 0;
+        bindLabels(sqlPage);
+        try (ResultSet rs = sqlPage.executeQuery()) {
+            List<Long> ids = new ArrayList<>(PAGE_SIZE);
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+            checksum += fetch(ids);
+        }
+        bindLabels(sqlCount);
+        try (ResultSet rs = sqlCount.executeQuery()) {
+            rs.next();
+            checksum += rs.getLong(1);
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long bitmap() throws SQLException {
+        NoteIndex.Hits hits = notes.search(parsed, null, null, 0, PAGE_SIZE, null);
+        return fetch(hits.noteIds()) + hits.total();
+    }
+
+    @Benchmark
+    public NoteIndex.Hits bitmapWithoutFetch() {
+        return notes.search(parsed, null, null, 0, PAGE_SIZE, null);
+    }
+
+    // Same as bitmapWithoutFetch, plus the facets of the matches
+    @Benchmark
+    public NoteIndex.Hits bitmapWithFacets() {
+        return notes.search(parsed, null, null, 0, PAGE_SIZE, FACETS_AT);
+    }
+
+    private long fetch(List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        PreparedStatement statement = fetchById[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setLong(i + 1, ids.get(i));
+        }
+        long checksum = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                checksum += rs.getLong(1);
+            }
+        }
+        return checksum;
+    }
+
+    private void bindLabels(PreparedStatement statement) throws SQLException {
+        statement.setLong(1, OWNER_ID);
+        for (int i = 0; i < sqlLabels.size(); i++) {
+            statement.setString(i + 2, sqlLabels.get(i));
+        }
+    }
+
+    private String toSql(TagFilter filter) {
+        if (filter instanceof TagFilter.Label label) {
+            sqlLabels.add(label.label());
+            return "EXISTS (SELECT 1 FROM note_tags nt JOIN tags t ON t.id = nt.tag_id "
+                    + "WHERE nt.note_id = n.id AND t.label = ?)";
+        }
+        if (filter instanceof TagFilter.Not not) {
+            return "NOT " + toSql(not.operand());
+        }
+        boolean and = filter instanceof TagFilter.And;
+        List<TagFilter> operands = and ? ((TagFilter.And) filter).operands() : ((TagFilter.Or) filter).operands();
+        List<String> conditions = new ArrayList<>();
+        for (TagFilter operand : operands) {
+            conditions.add(toSql(operand));
+        }
+        return "(" + String.join(and ? " AND " : " OR ", conditions) + ")";
+    }
+
+    // Fixed seed; 1 to 5 labels per note, drawn from a Zipf law over LABELS labels
+    private List<IndexedNote> insertNotes() throws SQLException {
+        double[] cumulative = new double[LABELS];
+        double sum = 0;
+        for (int i = 0; i < LABELS; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        try (PreparedStatement tag = connection.prepareStatement("INSERT INTO tags VALUES (?, ?)")) {
+            for (int i = 0; i < LABELS; i++) {
+                tag.setLong(1, i);
+                tag.setString(2, "tag-" + i);
+                tag.addBatch();
+            }
+            tag.executeBatch();
+        }
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<IndexedNote> indexed = new ArrayList<>(noteCount);
+        try (PreparedStatement note = connection.prepareStatement("INSERT INTO notes VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement noteTag = connection.prepareStatement("INSERT INTO note_tags VALUES (?, ?)")) {
+            for (long id = 1; id <= noteCount; id++) {
+                LocalDateTime updatedAt = start.plusSeconds(random.nextInt(365 * 24 * 3600));
+                Note.Visibility visibility = Note.Visibility.values()[random.nextInt(3)];
+                note.setLong(1, id);
+                note.setLong(2, OWNER_ID);
+                note.setString(3, "Note " + id);
+                note.setString(4, visibility.name());
+                note.setTimestamp(5, Timestamp.valueOf(updatedAt));
+                note.addBatch();
+
+                List<String> labels = new ArrayList<>();
+                int labelCount = 1 + random.nextInt(5);
+                for (int i = 0; i < labelCount; i++) {
+                    double draw = random.nextDouble() * sum;
+                    int label = 0;
+                    while (cumulative[label] < draw) {
+                        label++;
+                    }
+                    if (!labels.contains("tag-" + label)) {
+                        labels.add("tag-" + label);
+                        noteTag.setLong(1, id);
+                        noteTag.setLong(2, label);
+                        noteTag.addBatch();
+                    }
+                }
+                indexed.add(new IndexedNote(id, OWNER_ID, "Note " + id, visibility, updatedAt, labels));
+            }
+            note.executeBatch();
+            noteTag.executeBatch();
+        }
+        return indexed;
+    }
+}
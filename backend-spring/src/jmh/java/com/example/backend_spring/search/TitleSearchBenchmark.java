@@ -0,0 +1,153 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.repository.NoteRepositoryCustom.IndexedNote;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search as you type on one owner's titles: the LIKE '%query%' of NoteRepository.searchNotes,
+ * first page plus count, against UserNotes.suggest, which also forgives typos. The query is a word
+ * being typed, the same word with two letters swapped, or two words. Both run against the same
+ * data in an in-memory H2 database, so the SQL side is only indicative of PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TitleSearchBenchmark {
+
+    private static final long OWNER_ID = 1L;
+    private static final int WORDS = 5000;
+    private static final int LIMIT = 10;
+    private static final String[] SYLLABLES = {
+            "ba", "ra", "lo", "mi", "ne", "tu", "sa", "co", "pe", "di", "ver", "gen", "bud", "pla", "ti",
+            "on", "re", "ma", "que", "ri"};
+
+    @Param({"1000", "20000"})
+    private int noteCount;
+
+    @Param({"prefix", "typo", "twoWords"})
+    private String kind;
+
+    private Connection connection;
+    private PreparedStatement sqlPage;
+    private PreparedStatement sqlCount;
+    private UserNotes notes;
+    private String query;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:titlesearch-" + noteCount + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE notes (id BIGINT PRIMARY KEY, owner_id BIGINT NOT NULL, "
+                    + "title VARCHAR(255) NOT NULL, visibility VARCHAR(255) NOT NULL, updated_at TIMESTAMP(6) NOT NULL)");
+            statement.execute("CREATE INDEX idx_notes_owner_updated ON notes (owner_id, updated_at DESC)");
+        }
+        Random random = new Random(42);
+        String[] words = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int syllables = 2 + random.nextInt(3); syllables > 0; syllables--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.toString();
+        }
+        notes = UserNotes.of(insertNotes(random, words));
+
+        // Words of rank 10 and 11, used in a few percent of the titles
+        String word = words[10];
+        query = switch (kind) {
+            case "prefix" -> word.substring(0, 4);
+            case "typo" -> word.charAt(1) + "" + word.charAt(0) + word.substring(2);
+            default -> word + " " + words[11].substring(0, 3);
+        };
+        String like = "%" + (kind.equals("twoWords") ? word : query) + "%";
+        sqlPage = connection.prepareStatement("SELECT n.id, n.title FROM notes n WHERE n.owner_id = ? "
+                + "AND LOWER(n.title) LIKE LOWER(?) ORDER BY n.updated_at DESC, n.id DESC LIMIT " + LIMIT);
+        sqlCount = connection.prepareStatement("SELECT COUNT(*) FROM notes n WHERE n.owner_id = ? "
+                + "AND LOWER(n.title) LIKE LOWER(?)");
+        for (PreparedStatement statement : List.of(sqlPage, sqlCount)) {
+            statement.setLong(1, OWNER_ID);
+            statement.setString(2, like);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long sqlLike() throws SQLException {
+        long checksum = 0;
+        try (ResultSet rs = sqlPage.executeQuery()) {
+            while (rs.next()) {
+                checksum += rs.getLong(1);
+            }
+        }
+        try (ResultSet rs = sqlCount.executeQuery()) {
+            rs.next();
+            checksum += rs.getLong(1);
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public List<NoteIndex.Suggestion> suggest() {
+        return notes.suggest(query, LIMIT);
+    }
+
+    // Fixed seed; 2 to 6 words per title, drawn from a Zipf law over WORDS words
+    private List<IndexedNote> insertNotes(Random random, String[] words) throws SQLException {
+        double[] cumulative = new double[WORDS];
+        double sum = 0;
+        for (int i = 0; i < WORDS; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<IndexedNote> indexed = new ArrayList<>(noteCount);
+        try (PreparedStatement note = connection.prepareStatement("INSERT INTO notes VALUES (?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= noteCount; id++) {
+                List<String> title = new ArrayList<>();
+                for (int count = 2 + random.nextInt(5); count > 0; count--) {
+                    double draw = random.nextDouble() * sum;
+                    int rank = 0;
+                    while (cumulative[rank] < draw) {
+                        rank++;
+                    }
+                    title.add(words[rank]);
+                }
+                LocalDateTime updatedAt = start.plusSeconds(random.nextInt(365 * 24 * 3600));
+                note.setLong(1, id);
+                note.setLong(2, OWNER_ID);
+                note.setString(3, String.join(" ", title));
+                note.setString(4, Note.Visibility.PRIVATE.name());
+                note.setTimestamp(5, Timestamp.valueOf(updatedAt));
+                note.addBatch();
+                indexed.add(new IndexedNote(id, OWNER_ID, String.join(" ", title), Note.Visibility.PRIVATE,
+                        updatedAt, List.of("notes")));
+            }
+            note.executeBatch();
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.dto.note.NoteListResponse;
+import com.example.backend_spring.dto.note.NoteResponse;
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.Tag;
+import com.example.backend_spring.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteMappingBenchmark {
+
+    @Param({"0", "5", "20"})
+    private int tagCount;
+
+    private NoteService noteService;
+    private Note note;
+
+    @Setup
+    public void setUp() {
+        noteService = new NoteService(null, null, null, null, null, null, null, null, null, null, null, null);
+
+        User owner = User.builder()
+                .id(1L)
+                .email("bench@example.com")
+                .build();
+
+        Set<Tag> tags = new HashSet<>();
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(Tag.builder().id((long) i).label("tag-" + i).build());
+        }
+
+        note = Note.builder()
+                .id(42L)
+                .title("Benchmark note")
+                .contentMd("# Title\n" + "lorem ipsum ".repeat(1000))
+                .owner(owner)
+                .visibility(Note.Visibility.SHARED)
+                .tags(tags)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public NoteListResponse toListResponse() {
+        return noteService.toListResponse(note);
+    }
+
+    @Benchmark
+    public NoteResponse toDetailResponse() {
+        return noteService.toDetailResponse(note);
+    }
+}
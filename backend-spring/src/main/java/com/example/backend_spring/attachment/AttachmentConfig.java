@@ -0,0 +1,25 @@
+package com.example.backend_spring.attachment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class AttachmentConfig {
+
+    /**
+     * app.attachments.store: filesystem (default). Another store, such as an object storage
+     * bucket, only has to implement BlobStore and be added here.
+     */
+    @Bean
+    public BlobStore blobStore(
+            @Value("${app.attachments.store:filesystem}") String store,
+            @Value("${app.attachments.filesystem.root:./data/attachments}") Path root) {
+        return switch (store) {
+            case "filesystem" -> new FileSystemBlobStore(root);
+            default -> throw new IllegalStateException("Unknown app.attachments.store: " + store);
+        };
+    }
+}
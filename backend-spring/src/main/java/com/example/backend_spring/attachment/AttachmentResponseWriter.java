@@ -0,0 +1,188 @@
+package com.example.backend_spring.attachment;
+
+import com.example.backend_spring.entity.Attachment;
+import com.example.backend_spring.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.DisconnectedClientHelper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sends an attachment with its ETag (the SHA-256 of the bytes, so conditional requests get a
+ * 304) and honours a single byte range, for resumed downloads and media seeking. The bytes go
+ * from the blob to the socket without passing through the heap: handed to Tomcat's sendfile when
+ * the blob is a local file, otherwise FileChannel.transferTo or a fixed buffer, so memory use does
+ * not depend on the file size.
+ */
+@Slf4j
+@Component
+public class AttachmentResponseWriter {
+
+    // Tomcat's request attributes for sendfile, see org.apache.catalina.Globals
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Same threshold as Tomcat's DefaultServlet: below it a plain write is cheaper
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DisconnectedClientHelper DISCONNECTED_CLIENT = new DisconnectedClientHelper(
+            AttachmentResponseWriter.class.getName());
+
+    private final BlobStore blobStore;
+    private final boolean sendfile;
+
+    public AttachmentResponseWriter(
+            BlobStore blobStore,
+            @Value("${app.attachments.sendfile:true}") boolean sendfile) {
+        this.blobStore = blobStore;
+        this.sendfile = sendfile;
+    }
+
+    public void write(Attachment attachment, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String etag = "\"" + attachment.getSha256() + "\"";
+        // Revalidated on every use: access to the note, or the public link, may be gone
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        long size = attachment.getSize();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && size > 0 && rangeApplies(request, etag)) {
+            List<HttpRange> ranges = parseRanges(range);
+            // Several ranges would need a multipart/byteranges body, the whole file is sent instead
+            if (ranges.size() == 1) {
+                HttpRange requested = ranges.get(0);
+                start = requested.getRangeStart(size);
+                end = requested.getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setContentLength(0);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        long length = end - start + 1;
+
+        try (SeekableByteChannel channel = open(attachment)) {
+            response.setContentType(attachment.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(attachment).toString());
+            response.setContentLengthLong(length);
+            if (length == 0 || "HEAD".equals(request.getMethod())) {
+                return;
+            }
+
+            Optional<Path> file = blobStore.localFile(attachment.getStorageKey());
+            if (sendfile && file.isPresent() && length >= SENDFILE_MIN_SIZE
+                    && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                // Tomcat sends the file itself once the request returns, end is exclusive
+                request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            copy(channel, start, length, Channels.newChannel(response.getOutputStream()));
+        } catch (IOException e) {
+            if (DISCONNECTED_CLIENT.checkAndLogClientDisconnectedException(e)) {
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private SeekableByteChannel open(Attachment attachment) throws IOException {
+        try {
+            return blobStore.open(attachment.getStorageKey());
+        } catch (NoSuchFileException e) {
+            log.error("Blob {} of attachment {} is missing", attachment.getStorageKey(), attachment.getId());
+            throw new ResourceNotFoundException("Attachment content not found");
+        }
+    }
+
+    private static void copy(SeekableByteChannel channel, long start, long length, WritableByteChannel out)
+            throws IOException {
+        long position = start;
+        long remaining = length;
+        if (channel instanceof FileChannel file) {
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new EOFException("Attachment blob shorter than recorded");
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            return;
+        }
+        channel.position(position);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (remaining > 0) {
+            buffer.clear().limit((int) Math.min(BUFFER_SIZE, remaining));
+            int read = channel.read(buffer);
+            if (read < 0) {
+                throw new EOFException("Attachment blob shorter than recorded");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            remaining -= read;
+        }
+    }
+
+    // If-Range: the range only applies to the version the client already has part of
+    private static boolean rangeApplies(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.equals(etag);
+    }
+
+    // A malformed Range header is ignored, as RFC 9110 allows
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    // Types a browser displays without running anything; everything else is downloaded
+    private static ContentDisposition contentDisposition(Attachment attachment) {
+        MediaType type = MediaType.parseMediaType(attachment.getContentType());
+        boolean inline = (type.getType().equals("image") && !type.getSubtype().startsWith("svg"))
+                || type.getType().equals("audio")
+                || type.getType().equals("video")
+                || type.isCompatibleWith(MediaType.APPLICATION_PDF);
+        return (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(attachment.getFileName(), StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.backend_spring.attachment;
+
+import com.example.backend_spring.dto.attachment.AttachmentDto;
+import com.example.backend_spring.entity.*;
+import com.example.backend_spring.exception.*;
+import com.example.backend_spring.repository.*;
+import com.example.backend_spring.service.NoteAccessCache;
+import com.example.backend_spring.service.NoteAccessService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Files attached to notes: metadata in the attachments table, bytes in the BlobStore.
+ * An upload is streamed into the store between two short transactions, one checking access and
+ * one inserting the row, so no database connection is held while the body arrives. Blobs are
+ * deleted after the transaction deleting their rows commits.
+ */
+@Slf4j
+@Service
+public class AttachmentService {
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final int MAX_CONTENT_TYPE_LENGTH = 255;
+
+    private final AttachmentRepository attachmentRepository;
+    private final NoteRepository noteRepository;
+    private final UserRepository userRepository;
+    private final PublicLinkRepository publicLinkRepository;
+    private final NoteAccessService noteAccessService;
+    private final NoteAccessCache noteAccessCache;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long maxSize;
+    private final DistributionSummary uploadedBytes;
+
+    public AttachmentService(
+            AttachmentRepository attachmentRepository,
+            NoteRepository noteRepository,
+            UserRepository userRepository,
+            PublicLinkRepository publicLinkRepository,
+            NoteAccessService noteAccessService,
+            NoteAccessCache noteAccessCache,
+            BlobStore blobStore,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${app.attachments.max-size:5GB}") DataSize maxSize) {
+        this.attachmentRepository = attachmentRepository;
+        this.noteRepository = noteRepository;
+        this.userRepository = userRepository;
+        this.publicLinkRepository = publicLinkRepository;
+        this.noteAccessService = noteAccessService;
+        this.noteAccessCache = noteAccessCache;
+        this.blobStore = blobStore;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxSize = maxSize.toBytes();
+        this.uploadedBytes = DistributionSummary.builder("attachments.uploaded")
+                .description("Size of the attachments uploaded")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores body as a new attachment of the note. contentLength is the declared size, -1 when
+     * unknown: a body over the limit is refused before it is read when it is declared.
+     */
+    public AttachmentDto upload(Long noteId, String fileName, String contentType, long contentLength,
+                                InputStream body, String userEmail) throws IOException {
+        String name = sanitizeFileName(fileName);
+        String type = normalizeContentType(contentType);
+        if (contentLength > maxSize) {
+            throw new PayloadTooLargeException("Attachment larger than " + maxSize + " bytes");
+        }
+
+        Long userId = transactionTemplate.execute(status -> {
+            User user = getUserByEmail(userEmail);
+            Note note = noteRepository.findById(noteId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+            if (!noteAccessService.hasPermission(note, user, Share.Permission.WRITE)) {
+                throw new ForbiddenException("You don't have permission to add attachments to this note");
+            }
+            return user.getId();
+        });
+
+        BlobStore.StoredBlob blob = blobStore.write(body, maxSize);
+        try {
+            // The note may have been deleted meanwhile: the foreign key fails and the blob is dropped
+            Attachment attachment = transactionTemplate.execute(status -> attachmentRepository.save(
+                    Attachment.builder()
+                            .note(noteRepository.getReferenceById(noteId))
+                            .fileName(name)
+                            .contentType(type)
+                            .size(blob.size())
+                            .sha256(blob.sha256())
+                            .storageKey(blob.key())
+                            .uploadedBy(userRepository.getReferenceById(userId))
+                            .createdAt(LocalDateTime.now())
+                            .build()));
+            uploadedBytes.record(blob.size());
+            return toDto(attachment);
+        } catch (RuntimeException e) {
+            deleteBlob(blob.key());
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<AttachmentDto> list(Long noteId, String userEmail) {
+        checkReadAccess(noteId, userEmail);
+        return attachmentRepository.findByNoteIdOrderById(noteId).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    /** The attachment to send; its bytes are read from the BlobStore after this returns. */
+    @Transactional(readOnly = true)
+    public Attachment get(Long noteId, Long attachmentId, String userEmail) {
+        checkReadAccess(noteId, userEmail);
+        return attachmentRepository.findByIdAndNoteId(attachmentId, noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment not found"));
+    }
+
+    /** An attachment of the note a public link was created for, as long as the link is valid. */
+    @Transactional(readOnly = true)
+    public Attachment getByToken(String urlToken, Long attachmentId) {
+        PublicLink publicLink = publicLinkRepository.findLinkByUrlToken(urlToken)
+                .orElseThrow(() -> new ResourceNotFoundException("Lien public non trouvé"));
+        if (publicLink.isExpired()) {
+            throw new BadRequestException("Le lien public a expiré");
+        }
+        return attachmentRepository.findByIdAndNoteId(attachmentId, publicLink.getNote().getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment not found"));
+    }
+
+    @Transactional
+    public void delete(Long noteId, Long attachmentId, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        if (!noteAccessService.hasPermission(note, user, Share.Permission.WRITE)) {
+            throw new ForbiddenException("You don't have permission to delete attachments of this note");
+        }
+        Attachment attachment = attachmentRepository.findByIdAndNoteId(attachmentId, noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment not found"));
+        attachmentRepository.delete(attachment);
+        eventPublisher.publishEvent(new AttachmentsDeletedEvent(List.of(attachment.getStorageKey())));
+    }
+
+    /** Call before deleting the note: its rows go with it, its blobs once the deletion commits. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void noteDeleted(Long noteId) {
+        List<String> keys = attachmentRepository.findStorageKeysByNoteId(noteId);
+        if (!keys.isEmpty()) {
+            eventPublisher.publishEvent(new AttachmentsDeletedEvent(keys));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAttachmentsDeleted(AttachmentsDeletedEvent event) {
+        event.storageKeys().forEach(this::deleteBlob);
+    }
+
+    private void deleteBlob(String key) {
+        try {
+            blobStore.delete(key);
+        } catch (IOException e) {
+            log.warn("Could not delete attachment blob {}: {}", key, e.getMessage());
+        }
+    }
+
+    // Same rule as reading the note itself, see NoteService
+    private void checkReadAccess(Long noteId, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        if (note.getOwner().getId().equals(user.getId()) || note.getVisibility() == Note.Visibility.PUBLIC) {
+            return;
+        }
+        if (!noteAccessCache.isSharedWith(noteId, user.getId())) {
+            throw new ForbiddenException("You don't have access to this note");
+        }
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    // Browsers may send a full client path; only the last segment is kept
+    private static String sanitizeFileName(String fileName) {
+        if (fileName == null) {
+            throw new BadRequestException("fileName is required");
+        }
+        String name = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1).strip();
+        if (name.isEmpty() || name.equals(".") || name.equals("..")
+                || name.length() > MAX_FILE_NAME_LENGTH || name.chars().anyMatch(Character::isISOControl)) {
+            throw new BadRequestException("Invalid file name");
+        }
+        return name;
+    }
+
+    private static String normalizeContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        String type;
+        try {
+            type = MediaType.parseMediaType(contentType).toString();
+        } catch (InvalidMediaTypeException e) {
+            throw new BadRequestException("Invalid content type");
+        }
+        if (type.length() > MAX_CONTENT_TYPE_LENGTH) {
+            throw new BadRequestException("Invalid content type");
+        }
+        return type;
+    }
+
+    private AttachmentDto toDto(Attachment attachment) {
+        Long noteId = attachment.getNote().getId();
+        return AttachmentDto.builder()
+                .id(attachment.getId())
+                .noteId(noteId)
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .size(attachment.getSize())
+                .sha256(attachment.getSha256())
+                .url("/api/v1/notes/" + noteId + "/attachments/" + attachment.getId())
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+}
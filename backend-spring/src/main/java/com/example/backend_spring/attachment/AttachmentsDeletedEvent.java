@@ -0,0 +1,7 @@
+package com.example.backend_spring.attachment;
+
+import java.util.Collection;
+
+/** Published when attachment rows are deleted; their blobs are deleted once that commits. */
+public record AttachmentsDeletedEvent(Collection<String> storageKeys) {
+}
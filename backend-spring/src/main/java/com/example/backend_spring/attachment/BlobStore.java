@@ -0,0 +1,34 @@
+package com.example.backend_spring.attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where attachment bytes are kept, by a key the store picks. Blobs are written once and never
+ * modified, so a key always names the same bytes. Selected by app.attachments.store, see
+ * AttachmentConfig.
+ */
+public interface BlobStore {
+
+    /**
+     * Copies in into a new blob as it is read, never holding more than a buffer of it in memory.
+     * Fails with PayloadTooLargeException past maxSize bytes; nothing is left behind on failure.
+     */
+    StoredBlob write(InputStream in, long maxSize) throws IOException;
+
+    /** Reads a blob from any position; NoSuchFileException when there is no such blob. */
+    SeekableByteChannel open(String key) throws IOException;
+
+    /** The blob as a local file, for stores that have one: it can then be sent with sendfile. */
+    Optional<Path> localFile(String key);
+
+    /** Does nothing when the blob is already gone. */
+    void delete(String key) throws IOException;
+
+    /** sha256 is the hex digest of the bytes. */
+    record StoredBlob(String key, long size, String sha256) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backend_spring.collab;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Live copy of a note's content shared by its editing sessions. Every accepted operation
+ * bumps the revision; the last maxHistory ones are kept so an operation written against an
+ * older revision can be transformed past what the server applied since.
+ * Callers hold the document's monitor around submit and broadcast, so every session sees the
+ * operations in revision order.
+ */
+final class CollabDocument {
+
+    final Long noteId;
+    final List<CollabSession> sessions = new CopyOnWriteArrayList<>();
+    // Serializes snapshots of this document, so an older content never overwrites a newer one
+    final Object snapshotLock = new Object();
+
+    private final int maxHistory;
+    private final int maxLength;
+    private final Deque<TextOperation> history = new ArrayDeque<>();
+    private String content;
+    private int revision;
+    private int savedRevision;
+    // Author of the note revision the next snapshot records
+    private Long lastEditorId;
+
+    CollabDocument(Long noteId, String content, int maxHistory, int maxLength) {
+        this.noteId = noteId;
+        this.content = content != null ? content : "";
+        this.maxHistory = maxHistory;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Applies an operation written against baseRevision and returns it as applied, transformed
+     * past the operations accepted in the meantime.
+     * Throws IllegalArgumentException when it cannot apply: the client should reload.
+     */
+    synchronized TextOperation submit(int baseRevision, TextOperation operation, Long userId) {
+        if (baseRevision > revision || baseRevision < revision - history.size()) {
+            throw new IllegalArgumentException("Unknown revision " + baseRevision + ", current is " + revision);
+        }
+        Iterator<TextOperation> concurrent = history.iterator();
+        for (int skip = history.size() - (revision - baseRevision); skip > 0; skip--) {
+            concurrent.next();
+        }
+        while (concurrent.hasNext()) {
+            operation = TextOperation.transform(operation, concurrent.next())[0];
+        }
+        if (operation.targetLength() > maxLength) {
+            throw new IllegalArgumentException("Content is limited to " + maxLength + " characters");
+        }
+        content = operation.apply(content);
+        history.addLast(operation);
+        if (history.size() > maxHistory) {
+            history.removeFirst();
+        }
+        revision++;
+        lastEditorId = userId;
+        return operation;
+    }
+
+    synchronized String content() {
+        return content;
+    }
+
+    synchronized int revision() {
+        return revision;
+    }
+
+    synchronized Long lastEditorId() {
+        return lastEditorId;
+    }
+
+    synchronized boolean isDirty() {
+        return revision != savedRevision;
+    }
+
+    /** Records that the content at this revision is in the notes table. */
+    synchronized void saved(int revision) {
+        savedRevision = Math.max(savedRevision, revision);
+    }
+}
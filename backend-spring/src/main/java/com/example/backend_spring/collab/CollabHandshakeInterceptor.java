@@ -0,0 +1,92 @@
+package com.example.backend_spring.collab;
+
+import com.example.backend_spring.exception.ForbiddenException;
+import com.example.backend_spring.exception.ResourceNotFoundException;
+import com.example.backend_spring.security.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriTemplate;
+
+import java.util.Map;
+
+/**
+ * Authenticates the WebSocket handshake and checks the share model before upgrading.
+ * Browsers cannot set headers on a WebSocket, so the access token is also accepted as the
+ * access_token query parameter (the path is permitted in SecurityConfig and checked here).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CollabHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String NOTE_ID_ATTRIBUTE = "noteId";
+    static final String ACCESS_ATTRIBUTE = "access";
+    private static final UriTemplate PATH = new UriTemplate("/api/v1/notes/{noteId}/collab");
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final CollabService collabService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        Long noteId;
+        try {
+            noteId = Long.valueOf(PATH.match(request.getURI().getPath()).get("noteId"));
+        } catch (NumberFormatException e) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+
+        String email = authenticate(request);
+        if (email == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            attributes.put(ACCESS_ATTRIBUTE, collabService.authorize(noteId, email));
+        } catch (ResourceNotFoundException e) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        } catch (ForbiddenException e) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+        attributes.put(NOTE_ID_ATTRIBUTE, noteId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    // Same checks as JwtAuthenticationFilter: signature, expiry, subject and not a refresh token
+    private String authenticate(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst("Authorization");
+        String token = header != null && header.startsWith("Bearer ")
+                ? header.substring(7)
+                : UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("access_token");
+        if (token == null) {
+            return null;
+        }
+        try {
+            String email = jwtUtil.extractEmail(token);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            return jwtUtil.validateToken(token, userDetails) ? email : null;
+        } catch (Exception e) {
+            log.debug("Rejected collaborative session token", e);
+            return null;
+        }
+    }
+}
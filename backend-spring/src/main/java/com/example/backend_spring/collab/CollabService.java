@@ -0,0 +1,393 @@
+package com.example.backend_spring.collab;
+
+import com.example.backend_spring.dto.note.CollabMessage;
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.Share;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.exception.ForbiddenException;
+import com.example.backend_spring.exception.ResourceNotFoundException;
+import com.example.backend_spring.repository.NoteRepository;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.revision.NoteRevisionService;
+import com.example.backend_spring.service.NoteAccessService;
+import com.example.backend_spring.service.NoteChangedEvent;
+import com.example.backend_spring.service.NoteContentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collaborative editing sessions on /api/v1/notes/{id}/collab. Each note being edited has one
+ * in-memory CollabDocument on this instance: clients send small operations against the revision
+ * they know, the server transforms them past concurrent ones, applies them and broadcasts the
+ * result. The notes table is only written every snapshot-interval, and when the last client leaves.
+ */
+@Slf4j
+@Component
+public class CollabService {
+
+    static final String SESSION_ATTRIBUTE = "collab";
+    // The client's copy diverged (unknown revision, operation that does not fit): it reconnects
+    static final CloseStatus RESYNC = new CloseStatus(4000, "Reload the document");
+    static final CloseStatus NOTE_DELETED = new CloseStatus(4004, "Note deleted");
+    static final CloseStatus ACCESS_REVOKED = new CloseStatus(4003, "Access revoked");
+    // Same limit as Note.contentMd
+    private static final int MAX_CONTENT_LENGTH = 50000;
+
+    private final NoteRepository noteRepository;
+    private final UserRepository userRepository;
+    private final NoteAccessService noteAccessService;
+    private final NoteRevisionService noteRevisionService;
+    private final NoteContentService noteContentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<Long, CollabDocument> documents = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final Counter operations;
+    private final Counter rejected;
+    private final Counter snapshots;
+
+    private final int maxSessionsPerNote;
+    private final int history;
+    private final int sendTimeLimit;
+    private final int sendBufferLimit;
+
+    public CollabService(
+            NoteRepository noteRepository,
+            UserRepository userRepository,
+            NoteAccessService noteAccessService,
+            NoteRevisionService noteRevisionService,
+            NoteContentService noteContentService,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.collab.max-sessions-per-note:20}") int maxSessionsPerNote,
+            @Value("${app.collab.history:1000}") int history,
+            @Value("${app.collab.snapshot-interval:5s}") Duration snapshotInterval,
+            @Value("${app.collab.heartbeat:25s}") Duration heartbeat,
+            @Value("${app.collab.send-time-limit:10s}") Duration sendTimeLimit,
+            @Value("${app.collab.send-buffer-limit:1MB}") DataSize sendBufferLimit) {
+        this.noteRepository = noteRepository;
+        this.userRepository = userRepository;
+        this.noteAccessService = noteAccessService;
+        this.noteRevisionService = noteRevisionService;
+        this.noteContentService = noteContentService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.maxSessionsPerNote = maxSessionsPerNote;
+        this.history = history;
+        this.sendTimeLimit = (int) sendTimeLimit.toMillis();
+        this.sendBufferLimit = (int) sendBufferLimit.toBytes();
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "collab-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::snapshotAll,
+                snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        timer.scheduleWithFixedDelay(this::sendHeartbeats,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("collab.documents", documents, Map::size)
+                .description("Notes with an open collaborative session on this instance")
+                .register(meterRegistry);
+        Gauge.builder("collab.sessions", documents,
+                        docs -> docs.values().stream().mapToInt(doc -> doc.sessions.size()).sum())
+                .description("Clients connected to collaborative sessions")
+                .register(meterRegistry);
+        this.operations = Counter.builder("collab.operations")
+                .description("Editing operations applied")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("collab.operations.rejected")
+                .description("Editing operations refused, the client was told to reload")
+                .register(meterRegistry);
+        this.snapshots = Counter.builder("collab.snapshots")
+                .description("Live documents written back to the notes table")
+                .register(meterRegistry);
+    }
+
+    /** Who may join: any user holding a share (or the owner), writers are those with WRITE. */
+    @Transactional(readOnly = true)
+    public Access authorize(Long noteId, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        if (!noteAccessService.hasPermission(note, user, Share.Permission.READ)) {
+            throw new ForbiddenException("You don't have access to this note");
+        }
+        return new Access(user.getId(), noteAccessService.hasPermission(note, user, Share.Permission.WRITE));
+    }
+
+    public void join(WebSocketSession raw, Long noteId, Access access) throws IOException {
+        CollabSession session = new CollabSession(
+                new ConcurrentWebSocketSessionDecorator(raw, sendTimeLimit, sendBufferLimit),
+                access.userId(), access.canWrite());
+        raw.getAttributes().put(SESSION_ATTRIBUTE, session);
+
+        boolean[] full = {false};
+        CollabDocument document = documents.compute(noteId, (id, current) -> {
+            CollabDocument doc = current != null ? current : load(id);
+            if (doc == null) {
+                return null;
+            }
+            if (doc.sessions.size() >= maxSessionsPerNote) {
+                full[0] = true;
+                return current;
+            }
+            // Under the document's lock no operation is broadcast between the init and the subscription
+            synchronized (doc) {
+                send(session, CollabMessage.builder()
+                        .type("init")
+                        .revision(doc.revision())
+                        .content(doc.content())
+                        .canWrite(session.canWrite)
+                        .build());
+                doc.sessions.add(session);
+            }
+            return doc;
+        });
+        if (document == null) {
+            raw.close(NOTE_DELETED);
+        } else if (full[0]) {
+            raw.close(CloseStatus.SERVICE_OVERLOAD.withReason("Too many editors on this note"));
+        }
+    }
+
+    public void receive(WebSocketSession raw, Long noteId, String payload) {
+        CollabSession session = (CollabSession) raw.getAttributes().get(SESSION_ATTRIBUTE);
+        CollabDocument document = documents.get(noteId);
+        if (session == null || document == null) {
+            close(raw, RESYNC);
+            return;
+        }
+        if (!session.canWrite) {
+            send(session, error("You don't have permission to edit this note"));
+            return;
+        }
+        try {
+            JsonNode message = objectMapper.readTree(payload);
+            JsonNode revision = message.get("revision");
+            if (!"op".equals(message.path("type").asText()) || revision == null || !revision.isInt()) {
+                throw new IllegalArgumentException("Expected {\"type\": \"op\", \"revision\": n, \"ops\": [...]}");
+            }
+            TextOperation operation = TextOperation.fromJson(message.get("ops"));
+            synchronized (document) {
+                TextOperation applied = document.submit(revision.intValue(), operation, session.userId);
+                int current = document.revision();
+                CollabMessage broadcast = CollabMessage.builder()
+                        .type("op")
+                        .revision(current)
+                        .ops(applied.components())
+                        .userId(session.userId)
+                        .build();
+                for (CollabSession other : document.sessions) {
+                    send(other, other == session
+                            ? CollabMessage.builder().type("ack").revision(current).build()
+                            : broadcast);
+                }
+            }
+            operations.increment();
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            rejected.increment();
+            send(session, error(e.getMessage()));
+            close(raw, RESYNC);
+        }
+    }
+
+    public void leave(WebSocketSession raw, Long noteId) {
+        CollabSession session = (CollabSession) raw.getAttributes().get(SESSION_ATTRIBUTE);
+        documents.computeIfPresent(noteId, (id, doc) -> {
+            doc.sessions.remove(session);
+            if (!doc.sessions.isEmpty()) {
+                return doc;
+            }
+            // Written before the document goes, so the next editor loads this content
+            return snapshot(doc) ? null : doc;
+        });
+    }
+
+    /**
+     * A full-content update (PUT /api/v1/notes/{id}) while the note is being edited: it becomes
+     * an operation on the live document so editors see it, and their later edits are kept.
+     * Returns the content to store.
+     */
+    public String replaceContent(Long noteId, Long userId, String content) {
+        CollabDocument document = documents.get(noteId);
+        if (document == null) {
+            return content;
+        }
+        synchronized (document) {
+            TextOperation applied = document.submit(document.revision(),
+                    TextOperation.replace(document.content(), content), userId);
+            CollabMessage broadcast = CollabMessage.builder()
+                    .type("op")
+                    .revision(document.revision())
+                    .ops(applied.components())
+                    .userId(userId)
+                    .build();
+            document.sessions.forEach(session -> send(session, broadcast));
+            return document.content();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onNoteChanged(NoteChangedEvent event) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        if (event.type() == NoteChangedEvent.Type.DELETED) {
+            for (Long noteId : event.noteIds()) {
+                CollabDocument document = documents.remove(noteId);
+                if (document != null) {
+                    document.sessions.forEach(session -> close(session.session, NOTE_DELETED));
+                }
+            }
+        } else if (event.type() == NoteChangedEvent.Type.UNSHARED) {
+            // Off the committing thread: the check reads the shares in a transaction of its own
+            event.noteIds().stream()
+                    .filter(documents::containsKey)
+                    .forEach(noteId -> timer.execute(() -> recheckAccess(noteId)));
+        }
+    }
+
+    private void recheckAccess(Long noteId) {
+        CollabDocument document = documents.get(noteId);
+        if (document == null) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> noteRepository.findById(noteId).ifPresent(note -> {
+                for (CollabSession session : document.sessions) {
+                    User user = userRepository.getReferenceById(session.userId);
+                    if (!noteAccessService.hasPermission(note, user, Share.Permission.READ)) {
+                        close(session.session, ACCESS_REVOKED);
+                    } else {
+                        session.canWrite = noteAccessService.hasPermission(note, user, Share.Permission.WRITE);
+                    }
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Could not re-check access to collaborative session of note {}", noteId, e);
+        }
+    }
+
+    private CollabDocument load(Long noteId) {
+        return noteRepository.findWithContentById(noteId)
+                .map(note -> new CollabDocument(noteId, note.getContentMd(), history, MAX_CONTENT_LENGTH))
+                .orElse(null);
+    }
+
+    /** Writes the document to its note if it changed since the last snapshot; false if that failed. */
+    private boolean snapshot(CollabDocument document) {
+        synchronized (document.snapshotLock) {
+            String content;
+            int revision;
+            Long lastEditorId;
+            synchronized (document) {
+                if (!document.isDirty()) {
+                    return true;
+                }
+                content = document.content();
+                revision = document.revision();
+                lastEditorId = document.lastEditorId();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> noteRepository.findById(document.noteId)
+                        .ifPresent(note -> {
+                            noteContentService.setContent(note, content);
+                            // Flush so @UpdateTimestamp has run before copying updatedAt into note_access
+                            Note saved = noteRepository.saveAndFlush(note);
+                            noteAccessService.noteUpdated(saved);
+                            noteRevisionService.record(saved, lastEditorId);
+                        }));
+            } catch (RuntimeException e) {
+                log.warn("Could not save collaborative session of note {}, retrying later", document.noteId, e);
+                return false;
+            }
+            document.saved(revision);
+            snapshots.increment();
+            return true;
+        }
+    }
+
+    private void snapshotAll() {
+        for (CollabDocument document : documents.values()) {
+            snapshot(document);
+            // A document whose last snapshot failed when its last client left
+            documents.computeIfPresent(document.noteId, (id, doc) ->
+                    doc.sessions.isEmpty() && snapshot(doc) ? null : doc);
+        }
+    }
+
+    // Keeps idle connections open through proxies, and detects clients that went away
+    private void sendHeartbeats() {
+        documents.values().forEach(document -> document.sessions.forEach(session -> {
+            try {
+                session.session.sendMessage(new PingMessage());
+            } catch (IOException | RuntimeException e) {
+                close(session.session, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }));
+    }
+
+    private void send(CollabSession session, CollabMessage message) {
+        try {
+            session.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+        } catch (IOException | RuntimeException e) {
+            // The decorator closes sessions past their send time or buffer limit
+            log.debug("Could not send to collaborative session {}", session.session.getId(), e);
+        }
+    }
+
+    private static CollabMessage error(String message) {
+        return CollabMessage.builder().type("error").message(message).build();
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Could not close collaborative session {}", session.getId(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        documents.values().forEach(document -> {
+            snapshot(document);
+            document.sessions.forEach(session -> close(session.session, CloseStatus.GOING_AWAY));
+        });
+    }
+
+    public record Access(Long userId, boolean canWrite) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.backend_spring.collab;
+
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * A client connected to a document. The session is a ConcurrentWebSocketSessionDecorator:
+ * sends are buffered, and a client that stops reading is disconnected instead of blocking
+ * the broadcast to the others.
+ */
+final class CollabSession {
+
+    final WebSocketSession session;
+    final Long userId;
+    // Re-evaluated when a share of the note is removed
+    volatile boolean canWrite;
+
+    CollabSession(WebSocketSession session, Long userId, boolean canWrite) {
+        this.session = session;
+        this.userId = userId;
+        this.canWrite = canWrite;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.backend_spring.collab;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/** Text frames of /api/v1/notes/{id}/collab, see CollabService for the protocol. */
+@Component
+@RequiredArgsConstructor
+public class CollabWebSocketHandler extends TextWebSocketHandler {
+
+    private final CollabService collabService;
+
+    // Room for a full note pasted in one operation, with JSON escaping
+    @Value("${app.collab.max-message-size:256KB}")
+    private DataSize maxMessageSize;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        session.setTextMessageSizeLimit((int) maxMessageSize.toBytes());
+        collabService.join(session, noteId(session),
+                (CollabService.Access) session.getAttributes().get(CollabHandshakeInterceptor.ACCESS_ATTRIBUTE));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        collabService.receive(session, noteId(session), message.getPayload());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        collabService.leave(session, noteId(session));
+    }
+
+    private static Long noteId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(CollabHandshakeInterceptor.NOTE_ID_ATTRIBUTE);
+    }
+}
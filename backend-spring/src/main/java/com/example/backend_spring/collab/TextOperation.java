@@ -0,0 +1,259 @@
+package com.example.backend_spring.collab;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An edit of a whole document, in the JSON form used by ot.js and most OT clients: a list of
+ * components walking the document from start to end, a positive integer retains that many
+ * characters, a negative one deletes them and a string is inserted.
+ * Lengths count UTF-16 code units, like JavaScript strings.
+ */
+public final class TextOperation {
+
+    private final List<Object> components = new ArrayList<>();
+    private int baseLength;
+    private int targetLength;
+
+    public TextOperation retain(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("retain expects a positive count");
+        }
+        if (count == 0) {
+            return this;
+        }
+        baseLength += count;
+        targetLength += count;
+        if (!components.isEmpty() && isRetain(last(1))) {
+            components.set(components.size() - 1, (Integer) last(1) + count);
+        } else {
+            components.add(count);
+        }
+        return this;
+    }
+
+    public TextOperation insert(String text) {
+        if (text.isEmpty()) {
+            return this;
+        }
+        targetLength += text.length();
+        if (!components.isEmpty() && isInsert(last(1))) {
+            components.set(components.size() - 1, last(1) + text);
+        } else if (!components.isEmpty() && isDelete(last(1))) {
+            // Inserts go before deletes at the same position, so equal edits have one representation
+            if (components.size() > 1 && isInsert(last(2))) {
+                components.set(components.size() - 2, last(2) + text);
+            } else {
+                components.add(components.size() - 1, text);
+            }
+        } else {
+            components.add(text);
+        }
+        return this;
+    }
+
+    public TextOperation delete(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("delete expects a positive count");
+        }
+        if (count == 0) {
+            return this;
+        }
+        baseLength += count;
+        if (!components.isEmpty() && isDelete(last(1))) {
+            components.set(components.size() - 1, (Integer) last(1) - count);
+        } else {
+            components.add(-count);
+        }
+        return this;
+    }
+
+    /** Length of the document the operation applies to. */
+    public int baseLength() {
+        return baseLength;
+    }
+
+    /** Length of the document once the operation is applied. */
+    public int targetLength() {
+        return targetLength;
+    }
+
+    public boolean isNoop() {
+        return components.isEmpty() || (components.size() == 1 && isRetain(components.get(0)));
+    }
+
+    /** Components as serialized to JSON: Integer and String values. */
+    public List<Object> components() {
+        return Collections.unmodifiableList(components);
+    }
+
+    public String apply(String document) {
+        if (document.length() != baseLength) {
+            throw new IllegalArgumentException(
+                    "Operation expects a document of " + baseLength + " characters, got " + document.length());
+        }
+        StringBuilder out = new StringBuilder(targetLength);
+        int position = 0;
+        for (Object component : components) {
+            if (isInsert(component)) {
+                out.append((String) component);
+            } else if (isRetain(component)) {
+                int count = (Integer) component;
+                out.append(document, position, position + count);
+                position += count;
+            } else {
+                position -= (Integer) component;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Rewrites two operations made concurrently on the same document so that a then b' and
+     * b then a' give the same result. When both insert at the same position, a's text comes first.
+     */
+    public static TextOperation[] transform(TextOperation a, TextOperation b) {
+        if (a.baseLength != b.baseLength) {
+            throw new IllegalArgumentException("Concurrent operations must apply to the same document");
+        }
+        TextOperation aPrime = new TextOperation();
+        TextOperation bPrime = new TextOperation();
+        Cursor left = new Cursor(a.components);
+        Cursor right = new Cursor(b.components);
+
+        while (left.current != null || right.current != null) {
+            if (isInsert(left.current)) {
+                String text = (String) left.current;
+                aPrime.insert(text);
+                bPrime.retain(text.length());
+                left.next();
+                continue;
+            }
+            if (isInsert(right.current)) {
+                String text = (String) right.current;
+                aPrime.retain(text.length());
+                bPrime.insert(text);
+                right.next();
+                continue;
+            }
+            if (left.current == null || right.current == null) {
+                throw new IllegalArgumentException("Concurrent operations must apply to the same document");
+            }
+            int l = (Integer) left.current;
+            int r = (Integer) right.current;
+            int count = Math.min(Math.abs(l), Math.abs(r));
+            if (l > 0 && r > 0) {
+                aPrime.retain(count);
+                bPrime.retain(count);
+            } else if (l < 0 && r > 0) {
+                aPrime.delete(count);
+            } else if (l > 0) {
+                bPrime.delete(count);
+            }
+            // Both delete the same characters: nothing left to do on either side
+            left.consume(count);
+            right.consume(count);
+        }
+        return new TextOperation[] {aPrime, bPrime};
+    }
+
+    /** Smallest single edit turning before into after: common prefix and suffix are retained. */
+    public static TextOperation replace(String before, String after) {
+        int prefix = 0;
+        int max = Math.min(before.length(), after.length());
+        while (prefix < max && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new TextOperation()
+                .retain(prefix)
+                .delete(before.length() - prefix - suffix)
+                .insert(after.substring(prefix, after.length() - suffix))
+                .retain(suffix);
+    }
+
+    /** Parses and normalizes the JSON array form, e.g. [5, "abc", -2, 10]. */
+    public static TextOperation fromJson(JsonNode node) {
+        if (node == null || !node.isArray()) {
+            throw new IllegalArgumentException("Operation must be an array");
+        }
+        TextOperation operation = new TextOperation();
+        for (JsonNode component : node) {
+            if (component.isTextual()) {
+                operation.insert(component.textValue());
+            } else if (component.isInt() && component.intValue() > 0) {
+                operation.retain(component.intValue());
+            } else if (component.isInt() && component.intValue() < 0 && component.intValue() != Integer.MIN_VALUE) {
+                operation.delete(-component.intValue());
+            } else {
+                throw new IllegalArgumentException("Invalid operation component: " + component);
+            }
+        }
+        return operation;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TextOperation operation && components.equals(operation.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return components.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return components.toString();
+    }
+
+    private Object last(int offset) {
+        return components.get(components.size() - offset);
+    }
+
+    private static boolean isRetain(Object component) {
+        return component instanceof Integer count && count > 0;
+    }
+
+    private static boolean isDelete(Object component) {
+        return component instanceof Integer count && count < 0;
+    }
+
+    private static boolean isInsert(Object component) {
+        return component instanceof String;
+    }
+
+    // Walks retain and delete components, splitting them when the other side consumes less
+    private static final class Cursor {
+
+        private final List<Object> components;
+        private int index;
+        private Object current;
+
+        Cursor(List<Object> components) {
+            this.components = components;
+            next();
+        }
+
+        void next() {
+            current = index < components.size() ? components.get(index++) : null;
+        }
+
+        void consume(int count) {
+            int value = (Integer) current;
+            int remaining = Math.abs(value) - count;
+            if (remaining == 0) {
+                next();
+            } else {
+                current = value > 0 ? remaining : -remaining;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.backend_spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary/replica datasource setup. When app.datasource.replica.url is set, read-only
+ * transactions (searchNotes, getNoteById, getNoteByToken...) go to the replica; without it,
+ * every connection comes from the primary pool, as with Spring Boot's auto-configured one.
+ * <p>
+ * The url is checked at startup, not through a condition: AOT would fix a condition at build
+ * time, and an image built without a replica would ignore one configured when it runs.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties replicaProperties,
+            Environment environment,
+            MeterRegistry meterRegistry) {
+        if (!StringUtils.hasText(replicaProperties.getUrl())) {
+            return new ReplicaRoutingDataSource(primary, null);
+        }
+        HikariDataSource replica = replicaProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("app.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setReadOnly(true);
+        // Not a bean, so Spring Boot does not bind its hikaricp.* meters
+        replica.setMetricRegistry(meterRegistry);
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    /**
+     * The physical connection is fetched lazily, once the transaction has flagged it read-only,
+     * so readOnly = true transactions land on the replica pool. Closes the replica pool with the
+     * context, the primary one being a bean of its own.
+     */
+    static final class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+        private final HikariDataSource replica;
+
+        ReplicaRoutingDataSource(DataSource primary, HikariDataSource replica) {
+            super(primary);
+            this.replica = replica;
+            if (replica != null) {
+                setReadOnlyDataSource(replica);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (replica != null) {
+                replica.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.backend_spring.config;
+
+import com.example.backend_spring.dto.UserDto;
+import com.example.backend_spring.dto.attachment.AttachmentDto;
+import com.example.backend_spring.dto.auth.*;
+import com.example.backend_spring.dto.error.ErrorResponse;
+import com.example.backend_spring.dto.group.*;
+import com.example.backend_spring.dto.link.*;
+import com.example.backend_spring.dto.note.*;
+import com.example.backend_spring.dto.share.*;
+import com.example.backend_spring.dto.tag.TagCountDto;
+import com.example.backend_spring.entity.*;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Reachability hints for the native-image build (mvn -Pnative native:compile).
+ * Only needed for what Spring's own AOT processing cannot infer.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.AppRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class AppRuntimeHints implements RuntimeHintsRegistrar {
+
+        // jjwt-api instantiates its implementation classes by name
+        private static final List<String> JJWT_IMPL_CLASSES = List.of(
+                "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+                "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+                "io.jsonwebtoken.impl.security.JwksBridge",
+                "io.jsonwebtoken.impl.security.KeysBridge",
+                "io.jsonwebtoken.impl.security.StandardCurves",
+                "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyOperations",
+                "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        );
+
+        private static final List<Class<?>> ENTITY_CLASSES = List.of(
+                User.class, Note.class, Note.Visibility.class, NoteContent.class, Tag.class,
+                Share.class, Share.Permission.class, PublicLink.class,
+                NoteAccess.class, NoteAccess.Id.class, NoteAccess.Role.class,
+                UserGroup.class, GroupMembership.class, NoteGroupAccess.class, NoteGroupAccess.Id.class,
+                RefreshToken.class, NoteRevision.class, NoteRevision.Id.class, Attachment.class
+        );
+
+        private static final List<Class<?>> DTO_CLASSES = List.of(
+                UserDto.class, AuthResponse.class, LoginRequest.class, RegisterRequest.class,
+                RefreshTokenRequest.class, ErrorResponse.class, CreatePublicLinkRequest.class,
+                PublicLinkDto.class, CreateNoteRequest.class, UpdateNoteRequest.class,
+                NoteResponse.class, NoteListResponse.class, NoteFeedResponse.class, NoteEventDto.class, CollabMessage.class,
+                NoteSearchPage.class, NoteFacetsDto.class, NoteSuggestionDto.class,
+                NoteRevisionDto.class, AttachmentDto.class, TagCountDto.class, ShareDto.class,
+                ShareWithUserRequest.class, BulkShareRequest.class, BulkShareResponse.class,
+                ShareWithGroupRequest.class, GroupDto.class, CreateGroupRequest.class, AddGroupMemberRequest.class
+        );
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            JJWT_IMPL_CLASSES.forEach(className -> hints.reflection().registerType(
+                    TypeReference.of(className),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS));
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+            ENTITY_CLASSES.forEach(type -> hints.reflection().registerType(type, MemberCategory.values()));
+
+            BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+            DTO_CLASSES.forEach(type -> bindingRegistrar.registerReflectionHints(hints.reflection(), type));
+
+            // springdoc registers its own hints, the Swagger UI static files are served from the webjar
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+            hints.resources().registerPattern("db/migration/*.sql");
+        }
+    }
+}
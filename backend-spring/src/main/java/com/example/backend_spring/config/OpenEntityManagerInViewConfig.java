@@ -0,0 +1,32 @@
+package com.example.backend_spring.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Replaces Boot's open-in-view interceptor (spring.jpa.open-in-view: false) to leave out the
+ * server-sent events stream and attachment transfers: the request-scoped EntityManager keeps its
+ * JDBC connection until the request ends, and a stream stays open for up to app.push.timeout,
+ * a multi-gigabyte upload or download for as long as the client's bandwidth requires.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor)
+                .excludePathPatterns(
+                        "/api/v1/notes/events",
+                        "/api/v1/notes/*/attachments/**",
+                        "/p/*/attachments/*");
+    }
+}
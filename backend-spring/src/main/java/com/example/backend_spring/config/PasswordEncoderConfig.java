@@ -0,0 +1,53 @@
+package com.example.backend_spring.config;
+
+import com.example.backend_spring.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * New hashes are written as {id}hash with app.password.encoder; any supported id still verifies,
+     * and DaoAuthenticationProvider re-hashes on login when the id or the cost is out of date.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.password.encoder:bcrypt}") String encoderId,
+            @Value("${app.password.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${app.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${app.password.argon2.iterations:2}") int argon2Iterations,
+            @Value("${app.password.argon2.parallelism:1}") int argon2Parallelism,
+            @Value("${app.password.pbkdf2.iterations:310000}") int pbkdf2Iterations,
+            @Value("${app.password.hashing.threads:0}") int threads,
+            @Value("${app.password.hashing.queue-capacity:50}") int queueCapacity,
+            @Value("${app.password.hashing.timeout:5s}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations),
+                "pbkdf2", new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations,
+                        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalStateException("Unknown app.password.encoder: " + encoderId);
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encoderId, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, timeout, meterRegistry);
+    }
+}
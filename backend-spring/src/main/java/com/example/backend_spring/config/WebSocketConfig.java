@@ -0,0 +1,25 @@
+package com.example.backend_spring.config;
+
+import com.example.backend_spring.collab.CollabHandshakeInterceptor;
+import com.example.backend_spring.collab.CollabWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final CollabWebSocketHandler collabWebSocketHandler;
+    private final CollabHandshakeInterceptor collabHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(collabWebSocketHandler, "/api/v1/notes/{noteId}/collab")
+                .addInterceptors(collabHandshakeInterceptor)
+                .setAllowedOrigins(SecurityConfig.ALLOWED_ORIGINS.toArray(String[]::new));
+    }
+}
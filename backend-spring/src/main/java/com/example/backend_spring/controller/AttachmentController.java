@@ -0,0 +1,101 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.attachment.AttachmentResponseWriter;
+import com.example.backend_spring.attachment.AttachmentService;
+import com.example.backend_spring.dto.attachment.AttachmentDto;
+import com.example.backend_spring.exception.BadRequestException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Attachments", description = "Files attached to notes")
+public class AttachmentController {
+
+    private final AttachmentService attachmentService;
+    private final AttachmentResponseWriter attachmentResponseWriter;
+
+    /**
+     * The file is the raw request body, typed by Content-Type: it is streamed to the blob store
+     * as it arrives. Form and multipart bodies would be parsed by the container first.
+     */
+    @PostMapping("/api/v1/notes/{noteId}/attachments")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(summary = "Upload an attachment, sent as the raw request body")
+    public ResponseEntity<AttachmentDto> uploadAttachment(
+            @PathVariable Long noteId,
+            @RequestParam String fileName,
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) throws IOException {
+
+        String contentType = request.getContentType();
+        if (contentType != null && (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE))) {
+            throw new BadRequestException("Send the file as the request body, not as a form");
+        }
+
+        AttachmentDto attachment = attachmentService.upload(noteId, fileName, contentType,
+                request.getContentLengthLong(), request.getInputStream(), userDetails.getUsername());
+        return ResponseEntity.created(URI.create(attachment.getUrl())).body(attachment);
+    }
+
+    @GetMapping("/api/v1/notes/{noteId}/attachments")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(summary = "List the attachments of a note")
+    public ResponseEntity<List<AttachmentDto>> getAttachments(
+            @PathVariable Long noteId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(attachmentService.list(noteId, userDetails.getUsername()));
+    }
+
+    @GetMapping("/api/v1/notes/{noteId}/attachments/{attachmentId}")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(summary = "Download an attachment, with Range and If-None-Match support")
+    public void downloadAttachment(
+            @PathVariable Long noteId,
+            @PathVariable Long attachmentId,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            @AuthenticationPrincipal UserDetails userDetails) throws IOException {
+
+        attachmentResponseWriter.write(
+                attachmentService.get(noteId, attachmentId, userDetails.getUsername()), request, response);
+    }
+
+    @DeleteMapping("/api/v1/notes/{noteId}/attachments/{attachmentId}")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(summary = "Delete an attachment")
+    public ResponseEntity<Void> deleteAttachment(
+            @PathVariable Long noteId,
+            @PathVariable Long attachmentId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        attachmentService.delete(noteId, attachmentId, userDetails.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/p/{urlToken}/attachments/{attachmentId}")
+    @Operation(summary = "Download an attachment of a note through its public link")
+    public void downloadPublicAttachment(
+            @PathVariable String urlToken,
+            @PathVariable Long attachmentId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        attachmentResponseWriter.write(attachmentService.getByToken(urlToken, attachmentId), request, response);
+    }
+}
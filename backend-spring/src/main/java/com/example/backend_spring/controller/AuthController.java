@@ -8,6 +8,8 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -36,4 +38,11 @@ public class AuthController {
     public ResponseEntity<AuthResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
         return ResponseEntity.ok(authService.refreshToken(request));
     }
+
+    @PostMapping("/logout-all")
+    @Operation(summary = "Revoke the refresh tokens of every device")
+    public ResponseEntity<Void> logoutAll(@AuthenticationPrincipal UserDetails userDetails) {
+        authService.logoutAll(userDetails.getUsername());
+        return ResponseEntity.noContent().build();
+    }
 }
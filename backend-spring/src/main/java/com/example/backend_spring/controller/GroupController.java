@@ -0,0 +1,83 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.dto.group.*;
+import com.example.backend_spring.service.GroupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/groups")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearer-jwt")
+@Tag(name = "Groups", description = "Groups that notes can be shared with")
+public class GroupController {
+
+    private final GroupService groupService;
+
+    @PostMapping
+    @Operation(summary = "Create a group, the creator is its owner and first member")
+    public ResponseEntity<GroupDto> createGroup(
+            @Valid @RequestBody CreateGroupRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(groupService.createGroup(request, userDetails.getUsername()));
+    }
+
+    @GetMapping
+    @Operation(summary = "List the groups the current user belongs to")
+    public ResponseEntity<List<GroupDto>> getMyGroups(@AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(groupService.getMyGroups(userDetails.getUsername()));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a group and its members")
+    public ResponseEntity<GroupDto> getGroup(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(groupService.getGroup(id, userDetails.getUsername()));
+    }
+
+    @PostMapping("/{id}/members")
+    @Operation(summary = "Add a member to a group")
+    public ResponseEntity<GroupDto> addMember(
+            @PathVariable Long id,
+            @Valid @RequestBody AddGroupMemberRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(groupService.addMember(id, request, userDetails.getUsername()));
+    }
+
+    @DeleteMapping("/{id}/members/{userId}")
+    @Operation(summary = "Remove a member from a group, or leave it")
+    public ResponseEntity<Void> removeMember(
+            @PathVariable Long id,
+            @PathVariable Long userId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        groupService.removeMember(id, userId, userDetails.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a group and the shares made with it")
+    public ResponseEntity<Void> deleteGroup(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        groupService.deleteGroup(id, userDetails.getUsername());
+        return ResponseEntity.noContent().build();
+    }
+}
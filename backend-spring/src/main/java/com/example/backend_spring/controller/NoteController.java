@@ -9,10 +9,14 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/notes")
@@ -24,21 +28,53 @@ public class NoteController {
     private final NoteService noteService;
 
     @GetMapping
-    @Operation(summary = "Search and filter notes with pagination")
+    @Operation(summary = "Search and filter notes with pagination, tags being a boolean filter on labels; "
+            + "facets adds the counts of matches by tag, visibility and update time")
     public ResponseEntity<Page<NoteListResponse>> searchNotes(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String tags,
             @RequestParam(required = false) String visibility,
+            @RequestParam(defaultValue = "false") boolean facets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @AuthenticationPrincipal UserDetails userDetails) {
 
         Page<NoteListResponse> notes = noteService.searchNotes(
-                userDetails.getUsername(), query, tag, visibility, page, size);
+                userDetails.getUsername(), query, tag, tags, visibility, facets, page, size);
 
         return ResponseEntity.ok(notes);
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Search as you type: own notes whose title matches the query, typos allowed, "
+            + "closest matches first, then most recently updated")
+    public ResponseEntity<List<NoteSuggestionDto>> suggestNotes(
+            @RequestParam(defaultValue = "") String query,
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(noteService.suggestNotes(userDetails.getUsername(), query, limit));
+    }
+
+    @GetMapping("/accessible")
+    @Operation(summary = "List owned and shared notes, most recently updated first, with keyset pagination")
+    public ResponseEntity<NoteFeedResponse> getAccessibleNotes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includePublic,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(noteService.getAccessibleNotes(
+                userDetails.getUsername(), cursor, size, includePublic));
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream changes to owned and shared notes as server-sent events")
+    public SseEmitter streamNoteEvents(@AuthenticationPrincipal UserDetails userDetails) {
+        return noteService.subscribeToChanges(userDetails.getUsername());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get note by ID")
     public ResponseEntity<NoteResponse> getNoteById(
@@ -48,6 +84,27 @@ public class NoteController {
         return ResponseEntity.ok(noteService.getNoteById(id, userDetails.getUsername()));
     }
 
+    @GetMapping("/{id}/revisions")
+    @Operation(summary = "List saved versions of a note, newest first, paginated by revision number")
+    public ResponseEntity<List<NoteRevisionDto>> getRevisions(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(noteService.getRevisions(id, before, size, userDetails.getUsername()));
+    }
+
+    @GetMapping("/{id}/revisions/{revision}")
+    @Operation(summary = "Get the content of a note at a given revision")
+    public ResponseEntity<NoteRevisionDto> getRevision(
+            @PathVariable Long id,
+            @PathVariable int revision,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(noteService.getRevision(id, revision, userDetails.getUsername()));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new note")
     public ResponseEntity<NoteResponse> createNote(
@@ -33,6 +33,26 @@ public class ShareController {
                 .body(shareService.shareWithUser(noteId, request, userDetails.getUsername()));
     }
 
+    @PostMapping("/{noteId}/share/group")
+    @Operation(summary = "Share note with a group the current user belongs to")
+    public ResponseEntity<ShareDto> shareWithGroup(
+            @PathVariable Long noteId,
+            @Valid @RequestBody ShareWithGroupRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(shareService.shareWithGroup(noteId, request, userDetails.getUsername()));
+    }
+
+    @PostMapping("/share/bulk")
+    @Operation(summary = "Share many notes with many users at once, existing shares are skipped")
+    public ResponseEntity<BulkShareResponse> shareInBulk(
+            @Valid @RequestBody BulkShareRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(shareService.shareInBulk(request, userDetails.getUsername()));
+    }
+
     @DeleteMapping("/shares/{shareId}")
     @Operation(summary = "Remove user access to note")
     public ResponseEntity<Void> deleteShare(
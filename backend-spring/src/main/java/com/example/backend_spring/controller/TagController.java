@@ -0,0 +1,43 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.dto.tag.TagCountDto;
+import com.example.backend_spring.service.TagService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/tags")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearer-jwt")
+@Tag(name = "Tags", description = "Tags of the current user's notes")
+public class TagController {
+
+    private final TagService tagService;
+
+    @GetMapping
+    @Operation(summary = "Autocomplete: the most used tags starting with prefix, ignoring case")
+    public ResponseEntity<List<TagCountDto>> suggestTags(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(tagService.suggestTags(prefix, limit, userDetails.getUsername()));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Tag cloud: tags with the number of notes carrying each, most used first")
+    public ResponseEntity<List<TagCountDto>> getTagStats(
+            @RequestParam(defaultValue = "100") int limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(tagService.getTagStats(limit, userDetails.getUsername()));
+    }
+}
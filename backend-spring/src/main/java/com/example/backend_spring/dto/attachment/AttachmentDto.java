@@ -0,0 +1,20 @@
+package com.example.backend_spring.dto.attachment;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentDto {
+    private Long id;
+    private Long noteId;
+    private String fileName;
+    private String contentType;
+    private Long size;
+    private String sha256;
+    private String url;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package com.example.backend_spring.dto.group;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class AddGroupMemberRequest {
+    @Email
+    @NotBlank(message = "Email est requis")
+    private String email;
+}
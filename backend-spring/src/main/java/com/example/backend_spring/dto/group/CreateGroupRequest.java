@@ -0,0 +1,12 @@
+package com.example.backend_spring.dto.group;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CreateGroupRequest {
+    @NotBlank(message = "Le nom est requis")
+    @Size(max = 255)
+    private String name;
+}
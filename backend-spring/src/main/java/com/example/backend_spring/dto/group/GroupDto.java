@@ -0,0 +1,19 @@
+package com.example.backend_spring.dto.group;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupDto {
+    private Long id;
+    private String name;
+    private String ownerEmail;
+    private LocalDateTime createdAt;
+    // Only filled in by the endpoints returning a single group
+    private List<String> memberEmails;
+}
@@ -0,0 +1,28 @@
+package com.example.backend_spring.dto.note;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Server to client message on /api/v1/notes/{id}/collab: "init" (content and revision to start from),
+ * "ack" (the client's operation got this revision), "op" (someone else's operation) or "error".
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CollabMessage {
+    private String type;
+    private Integer revision;
+    private String content;
+    private List<Object> ops;
+    private Long userId;
+    private Boolean canWrite;
+    private String message;
+}
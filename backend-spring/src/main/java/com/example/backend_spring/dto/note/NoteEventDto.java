@@ -0,0 +1,16 @@
+package com.example.backend_spring.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Payload of a "note" server-sent event: clients refetch the note, or drop it on DELETED/UNSHARED
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NoteEventDto {
+    private String type;
+    private Long noteId;
+}
@@ -0,0 +1,19 @@
+package com.example.backend_spring.dto.note;
+
+import com.example.backend_spring.dto.tag.TagCountDto;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class NoteFacetsDto {
+    // Most used labels among the matching notes
+    private List<TagCountDto> tags;
+    // PRIVATE, SHARED, PUBLIC
+    private Map<String, Integer> visibility;
+    // Updated within DAY, WEEK, MONTH, YEAR, or OLDER; each range starts where the previous ends
+    private Map<String, Integer> updated;
+}
@@ -0,0 +1,14 @@
+package com.example.backend_spring.dto.note;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class NoteFeedResponse {
+    private List<NoteListResponse> content;
+    // Opaque, pass it back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+}
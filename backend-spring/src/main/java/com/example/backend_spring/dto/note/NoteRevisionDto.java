@@ -0,0 +1,24 @@
+package com.example.backend_spring.dto.note;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** A saved version of a note; contentMd is only filled in when a single revision is requested. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteRevisionDto {
+    private Integer revision;
+    private Long authorId;
+    private String authorEmail;
+    private Integer contentLength;
+    private LocalDateTime createdAt;
+    private String contentMd;
+}
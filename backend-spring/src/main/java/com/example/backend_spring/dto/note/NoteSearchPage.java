@@ -0,0 +1,23 @@
+package com.example.backend_spring.dto.note;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/** A page of the note list, with the facets of all the matches when they were asked for. */
+public class NoteSearchPage extends PageImpl<NoteListResponse> {
+
+    private final transient NoteFacetsDto facets;
+
+    public NoteSearchPage(List<NoteListResponse> content, Pageable pageable, long total, NoteFacetsDto facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public NoteFacetsDto getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.backend_spring.dto.note;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class NoteSuggestionDto {
+    private Long id;
+    private String title;
+    private String visibility;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.example.backend_spring.dto.share;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+public class BulkShareRequest {
+    @NotEmpty(message = "Au moins une note est requise")
+    @Size(max = 1000, message = "1000 notes maximum par requête")
+    private List<@NotNull Long> noteIds;
+
+    @NotEmpty(message = "Au moins un email est requis")
+    @Size(max = 500, message = "500 emails maximum par requête")
+    private List<@Email @NotBlank String> emails;
+
+    // READ (default), WRITE or ADMIN
+    @Pattern(regexp = "(?i)READ|WRITE|ADMIN", message = "La permission doit être READ, WRITE ou ADMIN")
+    private String permission;
+}
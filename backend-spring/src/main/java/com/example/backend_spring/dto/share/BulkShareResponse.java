@@ -0,0 +1,14 @@
+package com.example.backend_spring.dto.share;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkShareResponse {
+    private int notes;
+    private int users;
+    private int sharesCreated;
+    // Pairs that were already shared, or where the user is the note's owner
+    private int sharesSkipped;
+}
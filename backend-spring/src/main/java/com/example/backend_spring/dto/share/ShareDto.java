@@ -10,5 +10,7 @@ public class ShareDto {
     private Long id;
     private Long noteId;
     private String sharedWithEmail;
+    private Long groupId;
+    private String groupName;
     private String permission;
 }
\ No newline at end of file
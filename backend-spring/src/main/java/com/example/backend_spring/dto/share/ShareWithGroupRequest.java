@@ -0,0 +1,15 @@
+package com.example.backend_spring.dto.share;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.*;
+
+@Data
+public class ShareWithGroupRequest {
+    @NotNull(message = "Le groupe est requis")
+    private Long groupId;
+
+    // READ (default), WRITE or ADMIN
+    @Pattern(regexp = "(?i)READ|WRITE|ADMIN", message = "La permission doit être READ, WRITE ou ADMIN")
+    private String permission;
+}
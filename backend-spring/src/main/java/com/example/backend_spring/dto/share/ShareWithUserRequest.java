@@ -2,6 +2,7 @@ package com.example.backend_spring.dto.share;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import lombok.*;
 
 @Data
@@ -9,4 +10,8 @@ public class ShareWithUserRequest {
     @Email
     @NotBlank(message = "Email est requis")
     private String email;
+
+    // READ (default), WRITE or ADMIN
+    @Pattern(regexp = "(?i)READ|WRITE|ADMIN", message = "La permission doit être READ, WRITE ou ADMIN")
+    private String permission;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.backend_spring.dto.tag;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagCountDto {
+    private String label;
+    // Number of the user's notes carrying the tag
+    private Integer count;
+}
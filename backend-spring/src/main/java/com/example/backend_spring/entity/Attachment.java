@@ -0,0 +1,61 @@
+package com.example.backend_spring.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * A file attached to a note. Only its metadata is a row: the bytes are in the blob store under
+ * storageKey, see attachment/AttachmentService.
+ */
+@Entity
+@Table(name = "attachments", indexes = {
+    @Index(name = "idx_attachments_note", columnList = "note_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = {"note", "uploadedBy"})
+public class Attachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "note_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Note note;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    // In bytes
+    @Column(nullable = false)
+    private Long size;
+
+    // Hex SHA-256 of the bytes, also the ETag
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "storage_key", nullable = false, unique = true)
+    private String storageKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    private User uploadedBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
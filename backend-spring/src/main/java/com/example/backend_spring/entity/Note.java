@@ -12,14 +12,17 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+    @Index(name = "idx_notes_owner_updated", columnList = "owner_id, updated_at DESC"),
+    @Index(name = "idx_notes_content_hash", columnList = "content_hash")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@ToString(exclude = {"owner", "tags", "shares", "publicLinks"})
+@ToString(exclude = {"owner", "content", "contentMd", "tags", "shares", "publicLinks"})
 public class Note {
     
     @Id
@@ -36,8 +39,17 @@ public class Note {
     @Column(nullable = false, columnDefinition = "VARCHAR(255)")
     private String title;
     
-    @Column(columnDefinition = "TEXT")
+    // Set through NoteContentService, which stores each distinct body once
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_hash")
+    @Setter(AccessLevel.NONE)
+    private NoteContent content;
+    
+    // Text of content, kept once set or loaded
+    @Transient
     @Size(max = 50000)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private String contentMd;
     
     @Enumerated(EnumType.STRING)
@@ -56,7 +68,8 @@ public class Note {
     @JoinTable(
         name = "note_tags",
         joinColumns = @JoinColumn(name = "note_id"),
-        inverseJoinColumns = @JoinColumn(name = "tag_id")
+        inverseJoinColumns = @JoinColumn(name = "tag_id"),
+        indexes = @Index(name = "idx_note_tags_tag", columnList = "tag_id")
     )
     private Set<Tag> tags = new HashSet<>();
     
@@ -66,6 +79,18 @@ public class Note {
     @OneToMany(mappedBy = "note", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<PublicLink> publicLinks = new HashSet<>();
     
+    public String getContentMd() {
+        if (contentMd == null && content != null) {
+            contentMd = content.getText();
+        }
+        return contentMd;
+    }
+    
+    public void setContent(NoteContent content, String contentMd) {
+        this.content = content;
+        this.contentMd = contentMd;
+    }
+    
     public enum Visibility {
         PRIVATE, SHARED, PUBLIC
     }
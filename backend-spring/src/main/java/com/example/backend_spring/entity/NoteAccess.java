@@ -0,0 +1,65 @@
+package com.example.backend_spring.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One row per (user, note) the user can read, kept in sync by NoteAccessService.
+ * updatedAt is a copy of notes.updated_at so a user's feed is a single index range scan.
+ */
+@Entity
+@Table(name = "note_access", indexes = {
+    @Index(name = "idx_note_access_user_updated", columnList = "user_id, updated_at DESC, note_id DESC"),
+    @Index(name = "idx_note_access_note", columnList = "note_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = {"user", "note"})
+public class NoteAccess {
+
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private Id id;
+
+    @MapsId("userId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @MapsId("noteId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "note_id")
+    private Note note;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Role role;
+
+    public enum Role {
+        OWNER, SHARED
+    }
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Id implements Serializable {
+
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Column(name = "note_id")
+        private Long noteId;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.backend_spring.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A note body, stored once per distinct text and keyed by its hash (the first 128 bits of
+ * SHA-256 of the UTF-8 text), see service/NoteContentService. Notes reference it lazily so the
+ * notes rows, and every list query over them, stay narrow.
+ * Bodies written by the application are deflated; bodies moved out of notes.content_md by the
+ * V8 migration are the raw UTF-8 bytes.
+ */
+@Entity
+@Table(name = "note_contents")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = "data")
+public class NoteContent {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private UUID hash;
+
+    @Column(nullable = false, columnDefinition = "BYTEA")
+    private byte[] data;
+
+    @Column(nullable = false)
+    private Boolean compressed;
+
+    // Last time a note was set to this body; MaintenanceScheduler only deletes unreferenced bodies past a grace period
+    @Column(name = "referenced_at", nullable = false)
+    private LocalDateTime referencedAt;
+
+    public static NoteContent of(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return NoteContent.builder()
+                .hash(hash(bytes))
+                .data(deflate(bytes))
+                .compressed(true)
+                .referencedAt(LocalDateTime.now())
+                .build();
+    }
+
+    public String getText() {
+        if (!compressed) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        try (InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return new String(inflater.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt note content " + hash, e);
+        }
+    }
+
+    // Same digest as the V8 migration: encode(substr(sha256(convert_to(text, 'UTF8')), 1, 16), 'hex')::uuid
+    static UUID hash(byte[] bytes) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(bytes));
+            return new UUID(digest.getLong(), digest.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backend_spring.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * note_access counterpart for group shares: one row per (group, note), not per member,
+ * so sharing with or revoking a large group stays a single write.
+ */
+@Entity
+@Table(name = "note_group_access", indexes = {
+    @Index(name = "idx_note_group_access_group_updated", columnList = "group_id, updated_at DESC, note_id DESC"),
+    @Index(name = "idx_note_group_access_note", columnList = "note_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = {"group", "note"})
+public class NoteGroupAccess {
+
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private Id id;
+
+    @MapsId("groupId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id")
+    private UserGroup group;
+
+    @MapsId("noteId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "note_id")
+    private Note note;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Id implements Serializable {
+
+        @Column(name = "group_id")
+        private Long groupId;
+
+        @Column(name = "note_id")
+        private Long noteId;
+    }
+}
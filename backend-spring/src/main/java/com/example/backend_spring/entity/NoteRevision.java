@@ -0,0 +1,72 @@
+package com.example.backend_spring.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One saved version of a note's content, see revision/NoteRevisionService.
+ * A revision is either a snapshot (snapshotRevision == revision, data is the deflated content) or
+ * a delta against the previous revision; snapshotRevision is where its chain starts.
+ */
+@Entity
+@Table(name = "note_revisions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = {"note", "author", "data"})
+public class NoteRevision {
+
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private Id id;
+
+    @MapsId("noteId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "note_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Note note;
+
+    @Column(name = "snapshot_revision", nullable = false)
+    private Integer snapshotRevision;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "author_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    private User author;
+
+    // Length of the content at this revision, in characters
+    @Column(name = "content_length", nullable = false)
+    private Integer contentLength;
+
+    @Column(nullable = false, columnDefinition = "BYTEA")
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public boolean isSnapshot() {
+        return snapshotRevision.equals(id.getRevision());
+    }
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Id implements Serializable {
+
+        @Column(name = "note_id")
+        private Long noteId;
+
+        @Column(name = "revision")
+        private Integer revision;
+    }
+}
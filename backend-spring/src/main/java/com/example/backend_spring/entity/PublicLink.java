@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "public_links")
+@Table(name = "public_links", indexes = {
+    @Index(name = "idx_public_links_note", columnList = "note_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,7 +40,7 @@ public class PublicLink {
     private LocalDateTime expiresAt;
     
     @PrePersist
-    private void generateToken() {
+    void generateToken() {
         if (urlToken == null) {
             urlToken = UUID.randomUUID().toString().replace("-", "");
         }
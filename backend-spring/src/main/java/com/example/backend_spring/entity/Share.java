@@ -4,14 +4,23 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "shares")
+@Table(name = "shares",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_shares_note_user", columnNames = {"note_id", "shared_with_user_id"}),
+        @UniqueConstraint(name = "uk_shares_note_group", columnNames = {"note_id", "group_id"})
+    },
+    indexes = {
+        @Index(name = "idx_shares_shared_with_user", columnList = "shared_with_user_id"),
+        @Index(name = "idx_shares_group", columnList = "group_id")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@ToString(exclude = {"note", "sharedWithUser"})
+@ToString(exclude = {"note", "sharedWithUser", "group"})
 public class Share {
 
     @Id
@@ -23,15 +32,25 @@ public class Share {
     @JoinColumn(name = "note_id", nullable = false)
     private Note note;
     
+    // Exactly one of sharedWithUser and group is set
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "shared_with_user_id", nullable = false)
+    @JoinColumn(name = "shared_with_user_id")
     private User sharedWithUser;
     
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id")
+    private UserGroup group;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Permission permission = Permission.READ;
     
+    // Ordered: each permission includes the previous ones
     public enum Permission {
-        READ
+        READ, WRITE, ADMIN;
+
+        public boolean includes(Permission other) {
+            return compareTo(other) >= 0;
+        }
     }
 }
@@ -0,0 +1,7 @@
+package com.example.backend_spring.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.backend_spring.maintenance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes rows nothing reads any more, in batches of batchSize rows, each in its own short
+ * transaction so locks are held briefly and a run can stop after maxBatches.
+ * Rows locked by another instance (or a user transaction) are skipped, not waited for.
+ */
+@Slf4j
+@Component
+public class MaintenanceScheduler {
+
+    // getNoteByToken already refuses expired links, deleting them changes no behaviour
+    private static final String DELETE_EXPIRED_PUBLIC_LINKS =
+            "DELETE FROM public_links WHERE id IN (" +
+            "SELECT id FROM public_links WHERE expires_at < ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    // A tag being attached to a note is share-locked (TagRepository.lockByLabel), so skipped
+    private static final String DELETE_ORPHAN_TAGS =
+            "DELETE FROM tags WHERE id IN (" +
+            "SELECT t.id FROM tags t WHERE NOT EXISTS (SELECT 1 FROM note_tags nt WHERE nt.tag_id = t.id) " +
+            "ORDER BY t.id LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    // A bucket past full_at is full again, same as having no row (see ratelimit/JdbcRateLimitStore)
+    private static final String DELETE_FULL_RATE_LIMIT_BUCKETS =
+            "DELETE FROM rate_limit_buckets WHERE bucket_key IN (" +
+            "SELECT bucket_key FROM rate_limit_buckets WHERE full_at < ? " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    // Used tokens are kept for reuse detection only while they could still be presented
+    private static final String DELETE_EXPIRED_REFRESH_TOKENS =
+            "DELETE FROM refresh_tokens WHERE token_hash IN (" +
+            "SELECT token_hash FROM refresh_tokens WHERE expires_at < ? " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    // Everything before the newest snapshot older than the retention period: the revisions after it
+    // still replay from it, so every revision that is kept stays readable
+    private static final String DELETE_EXPIRED_NOTE_REVISIONS =
+            "DELETE FROM note_revisions WHERE (note_id, revision) IN (" +
+            "SELECT r.note_id, r.revision FROM note_revisions r JOIN (" +
+            "SELECT note_id, MAX(revision) AS keep_from FROM note_revisions " +
+            "WHERE revision = snapshot_revision AND created_at < ? GROUP BY note_id) k " +
+            "ON k.note_id = r.note_id WHERE r.revision < k.keep_from " +
+            "LIMIT ? FOR UPDATE OF r SKIP LOCKED)";
+
+    // Bodies set on a note within the grace period are kept: a transaction may be about to reference them
+    private static final String DELETE_ORPHAN_NOTE_CONTENTS =
+            "DELETE FROM note_contents WHERE hash IN (" +
+            "SELECT c.hash FROM note_contents c WHERE c.referenced_at < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM notes n WHERE n.content_hash = c.hash) " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration revisionRetention;
+    private final Duration orphanContentGrace;
+
+    public MaintenanceScheduler(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.maintenance.enabled:true}") boolean enabled,
+            @Value("${app.maintenance.batch-size:1000}") int batchSize,
+            @Value("${app.maintenance.max-batches:100}") int maxBatches,
+            @Value("${app.revisions.retention:90d}") Duration revisionRetention,
+            @Value("${app.maintenance.orphan-content-grace:1h}") Duration orphanContentGrace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.revisionRetention = revisionRetention;
+        this.orphanContentGrace = orphanContentGrace;
+    }
+
+    @Scheduled(initialDelayString = "${app.maintenance.initial-delay:PT1M}",
+               fixedDelayString = "${app.maintenance.interval:PT10M}")
+    public void purgeExpiredPublicLinks() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        runInBatches("expired_public_links", () -> jdbcTemplate.update(DELETE_EXPIRED_PUBLIC_LINKS, now, batchSize));
+    }
+
+    @Scheduled(initialDelayString = "${app.maintenance.initial-delay:PT1M}",
+               fixedDelayString = "${app.maintenance.interval:PT10M}")
+    public void purgeOrphanTags() {
+        runInBatches("orphan_tags", () -> jdbcTemplate.update(DELETE_ORPHAN_TAGS, batchSize));
+    }
+
+    @Scheduled(initialDelayString = "${app.maintenance.initial-delay:PT1M}",
+               fixedDelayString = "${app.maintenance.interval:PT10M}")
+    public void purgeFullRateLimitBuckets() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        runInBatches("full_rate_limit_buckets", () -> jdbcTemplate.update(DELETE_FULL_RATE_LIMIT_BUCKETS, now, batchSize));
+    }
+
+    @Scheduled(initialDelayString = "${app.maintenance.initial-delay:PT1M}",
+               fixedDelayString = "${app.maintenance.interval:PT10M}")
+    public void purgeExpiredRefreshTokens() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        runInBatches("expired_refresh_tokens", () -> jdbcTemplate.update(DELETE_EXPIRED_REFRESH_TOKENS, now, batchSize));
+    }
+
+    @Scheduled(initialDelayString = "${app.maintenance.initial-delay:PT1M}",
+               fixedDelayString = "${app.maintenance.interval:PT10M}")
+    public void purgeExpiredNoteRevisions() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(revisionRetention));
+        runInBatches("expired_note_revisions", () -> jdbcTemplate.update(DELETE_EXPIRED_NOTE_REVISIONS, cutoff, batchSize));
+    }
+
+    @Scheduled(initialDelayString = "${app.maintenance.initial-delay:PT1M}",
+               fixedDelayString = "${app.maintenance.interval:PT10M}")
+    public void purgeOrphanNoteContents() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(orphanContentGrace));
+        runInBatches("orphan_note_contents", () -> jdbcTemplate.update(DELETE_ORPHAN_NOTE_CONTENTS, cutoff, batchSize));
+    }
+
+    /**
+     * Runs batch until it deletes less than a full batch; returns the number of rows deleted.
+     * Does nothing when app.maintenance.enabled is false: the jobs stay scheduled, see SchedulingConfig.
+     */
+    int runInBatches(String task, Batch batch) {
+        if (!enabled) {
+            return 0;
+        }
+        Counter deleted = Counter.builder("maintenance.rows.deleted")
+                .description("Rows reclaimed by the maintenance jobs")
+                .tag("task", task)
+                .register(meterRegistry);
+        Timer timer = Timer.builder("maintenance.run")
+                .description("Duration of one maintenance job run")
+                .tag("task", task)
+                .register(meterRegistry);
+
+        return timer.record(() -> {
+            int total = 0;
+            for (int i = 0; i < maxBatches; i++) {
+                Integer rows = transactionTemplate.execute(status -> batch.deleteBatch());
+                int count = rows != null ? rows : 0;
+                total += count;
+                deleted.increment(count);
+                if (count < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("Maintenance {}: {} rows deleted", task, total);
+            }
+            return total;
+        });
+    }
+
+    @FunctionalInterface
+    interface Batch {
+        int deleteBatch();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.backend_spring.maintenance;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs, on by default. Every instance runs them: the jobs lock the rows they
+ * delete with SKIP LOCKED, so concurrent runs split the work instead of waiting on each other.
+ * app.maintenance.enabled is checked by MaintenanceScheduler when a job fires, not by a
+ * condition here, which AOT would fix at build time.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,47 @@
+package com.example.backend_spring.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Dev helper: adds the number of SQL statements run so far to every response body,
+ * written just before the body so the header is not already committed.
+ * <p>
+ * app.metrics.sql-count-header is read at startup rather than through a condition, which AOT
+ * would fix at build time, outside the prod profile.
+ */
+@RestControllerAdvice
+public class SqlStatementCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-SQL-Statement-Count";
+
+    private final boolean enabled;
+
+    public SqlStatementCountHeaderAdvice(@Value("${app.metrics.sql-count-header:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+
+        response.getHeaders().set(HEADER, String.valueOf(SqlStatementCounter.current()));
+        return body;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.backend_spring.push;
+
+import com.example.backend_spring.dto.note.NoteEventDto;
+import com.example.backend_spring.entity.NoteAccess;
+import com.example.backend_spring.entity.NoteGroupAccess;
+import com.example.backend_spring.exception.ServiceUnavailableException;
+import com.example.backend_spring.repository.GroupMembershipRepository;
+import com.example.backend_spring.repository.NoteAccessRepository;
+import com.example.backend_spring.repository.NoteGroupAccessRepository;
+import com.example.backend_spring.service.NoteChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed NoteChangedEvents to the users' open event streams.
+ * Idle streams cost no thread (async servlet requests on Tomcat's NIO connector). A single
+ * dispatcher thread resolves who is concerned, and only looks at the database when someone is
+ * connected; a small sender pool writes to the clients, one drain per connection at a time,
+ * so a slow client delays its own events only (see Subscription).
+ */
+@Slf4j
+@Component
+public class NoteEventBus {
+
+    private final NoteAccessRepository noteAccessRepository;
+    private final NoteGroupAccessRepository noteGroupAccessRepository;
+    private final GroupMembershipRepository groupMembershipRepository;
+
+    private final ConcurrentMap<Long, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ThreadPoolExecutor dispatcher;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final Counter resyncs;
+    private final Counter dropped;
+
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final int maxPendingEvents;
+    private final Duration timeout;
+
+    public NoteEventBus(
+            NoteAccessRepository noteAccessRepository,
+            NoteGroupAccessRepository noteGroupAccessRepository,
+            GroupMembershipRepository groupMembershipRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.push.max-connections:50000}") int maxConnections,
+            @Value("${app.push.max-connections-per-user:5}") int maxConnectionsPerUser,
+            @Value("${app.push.max-pending-events:100}") int maxPendingEvents,
+            @Value("${app.push.timeout:30m}") Duration timeout,
+            @Value("${app.push.heartbeat:25s}") Duration heartbeat,
+            @Value("${app.push.sender-threads:4}") int senderThreads,
+            @Value("${app.push.dispatch-queue-capacity:10000}") int dispatchQueueCapacity) {
+        this.noteAccessRepository = noteAccessRepository;
+        this.noteGroupAccessRepository = noteGroupAccessRepository;
+        this.groupMembershipRepository = groupMembershipRepository;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.maxPendingEvents = maxPendingEvents;
+        this.timeout = timeout;
+
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(dispatchQueueCapacity), daemon("push-dispatch"));
+        this.senders = Executors.newFixedThreadPool(senderThreads, daemon("push-send"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("push-heartbeat"));
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("push.connections", connections, AtomicInteger::get)
+                .description("Open note event streams")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("push.resync")
+                .description("Connections that fell behind and were told to reload")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("push.events.dropped")
+                .description("Note changes not pushed because the dispatch queue was full")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Opens a stream for the user; past maxConnectionsPerUser the user's oldest stream is closed. */
+    public SseEmitter subscribe(Long userId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open event streams, retry later");
+        }
+        SseEmitter emitter = newEmitter();
+        Subscription subscription = new Subscription(userId, emitter, maxPendingEvents, resyncs);
+
+        List<Subscription> evicted = new ArrayList<>();
+        subscriptions.compute(userId, (id, current) -> {
+            List<Subscription> next = new ArrayList<>(current != null ? current : List.of());
+            next.add(subscription);
+            while (next.size() > maxConnectionsPerUser) {
+                evicted.add(next.remove(0));
+            }
+            return List.copyOf(next);
+        });
+        // Already out of the map, so unsubscribe will not count them when their completion comes back
+        evicted.forEach(old -> {
+            old.close();
+            connections.decrementAndGet();
+            old.emitter.complete();
+        });
+
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(subscription));
+        if (subscription.resync()) {
+            senders.execute(() -> drain(subscription));
+        }
+        return emitter;
+    }
+
+    // Overridden by NoteEventBusTest to record what each stream is sent
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscription.close();
+        boolean[] removed = {false};
+        subscriptions.computeIfPresent(subscription.userId, (id, current) -> {
+            List<Subscription> next = new ArrayList<>(current);
+            removed[0] = next.remove(subscription);
+            return next.isEmpty() ? null : List.copyOf(next);
+        });
+        if (removed[0]) {
+            connections.decrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onNoteChanged(NoteChangedEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> dispatch(event));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    private void dispatch(NoteChangedEvent event) {
+        try {
+            String type = event.type().name();
+            Map<Long, List<Long>> members = new HashMap<>();
+            if (event.forReaders()) {
+                for (NoteAccess.Id id : noteAccessRepository.findIdsByNoteIdIn(event.noteIds())) {
+                    deliver(id.getUserId(), type, List.of(id.getNoteId()));
+                }
+                for (NoteGroupAccess.Id id : noteGroupAccessRepository.findIdsByNoteIdIn(event.noteIds())) {
+                    deliverToGroup(id.getGroupId(), type, List.of(id.getNoteId()), members);
+                }
+            } else {
+                event.userIds().forEach(userId -> deliver(userId, type, event.noteIds()));
+                event.groupIds().forEach(groupId -> deliverToGroup(groupId, type, event.noteIds(), members));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not push {} of notes {}", event.type(), event.noteIds(), e);
+        }
+    }
+
+    private void deliverToGroup(Long groupId, String type, Collection<Long> noteIds, Map<Long, List<Long>> members) {
+        for (Long userId : members.computeIfAbsent(groupId, groupMembershipRepository::findUserIdsByGroupId)) {
+            deliver(userId, type, noteIds);
+        }
+    }
+
+    private void deliver(Long userId, String type, Collection<Long> noteIds) {
+        List<Subscription> streams = subscriptions.get(userId);
+        if (streams == null) {
+            return;
+        }
+        for (Subscription subscription : streams) {
+            boolean schedule = false;
+            for (Long noteId : noteIds) {
+                schedule |= subscription.offer(new NoteEventDto(type, noteId));
+            }
+            if (schedule) {
+                senders.execute(() -> drain(subscription));
+            }
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        if (!subscription.drain()) {
+            unsubscribe(subscription);
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscriptions.values().forEach(streams -> streams.forEach(subscription -> {
+            if (subscription.heartbeat()) {
+                senders.execute(() -> drain(subscription));
+            }
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscriptions.values().forEach(streams -> streams.forEach(subscription -> subscription.emitter.complete()));
+    }
+}
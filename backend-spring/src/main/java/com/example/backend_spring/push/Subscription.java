@@ -0,0 +1,121 @@
+package com.example.backend_spring.push;
+
+import com.example.backend_spring.dto.note.NoteEventDto;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One open event stream. Events wait in a small per-connection map keyed by note id, so repeated
+ * changes to a note collapse into its latest event; when more than maxPending notes are waiting
+ * the client is behind, they are dropped and a single "resync" event asks it to reload its list.
+ * At most one drain per connection is queued on the sender pool at any time.
+ */
+final class Subscription {
+
+    final Long userId;
+    final SseEmitter emitter;
+    private final int maxPending;
+    private final Counter resyncs;
+
+    private final Map<Long, NoteEventDto> pending = new LinkedHashMap<>();
+    private boolean resync;
+    private boolean heartbeat;
+    private boolean scheduled;
+    private boolean closed;
+
+    Subscription(Long userId, SseEmitter emitter, int maxPending, Counter resyncs) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.maxPending = maxPending;
+        this.resyncs = resyncs;
+    }
+
+    /** First event of every stream: changes made while the client was disconnected are not replayed. */
+    synchronized boolean resync() {
+        resync = true;
+        return schedule();
+    }
+
+    /** Returns true when the caller must schedule drain(). */
+    synchronized boolean offer(NoteEventDto event) {
+        if (closed) {
+            return false;
+        }
+        if (!resync) {
+            pending.remove(event.getNoteId());
+            pending.put(event.getNoteId(), event);
+            if (pending.size() > maxPending) {
+                pending.clear();
+                resync = true;
+                resyncs.increment();
+            }
+        }
+        return schedule();
+    }
+
+    synchronized boolean heartbeat() {
+        if (closed) {
+            return false;
+        }
+        heartbeat = true;
+        return schedule();
+    }
+
+    private boolean schedule() {
+        if (scheduled) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+    synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    /** Runs on the sender pool; writes until nothing is left. Returns false once the client is gone. */
+    boolean drain() {
+        while (true) {
+            List<NoteEventDto> events;
+            boolean sendResync;
+            boolean sendHeartbeat;
+            synchronized (this) {
+                if (closed || (pending.isEmpty() && !resync && !heartbeat)) {
+                    scheduled = false;
+                    return !closed;
+                }
+                events = new ArrayList<>(pending.values());
+                pending.clear();
+                sendResync = resync;
+                sendHeartbeat = heartbeat;
+                resync = false;
+                heartbeat = false;
+            }
+            try {
+                if (sendResync) {
+                    emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+                }
+                for (NoteEventDto event : events) {
+                    emitter.send(SseEmitter.event().name("note").data(event, MediaType.APPLICATION_JSON));
+                }
+                if (sendHeartbeat && !sendResync && events.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                synchronized (this) {
+                    scheduled = false;
+                }
+                return false;
+            }
+        }
+    }
+}
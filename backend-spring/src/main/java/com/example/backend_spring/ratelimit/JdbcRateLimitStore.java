@@ -0,0 +1,74 @@
+package com.example.backend_spring.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * Buckets shared by every instance through the rate_limit_buckets table, so a limit holds
+ * across replicas. The refill and the take happen in one upsert on the primary, row-locked
+ * by PostgreSQL, and use the database clock.
+ * A local store with the same policies is checked first: one instance alone going over a
+ * limit means the cluster is over it too, so a flood is turned away without a round trip.
+ * When the database fails the request is let through, the local limit still applies.
+ */
+@Slf4j
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final String REFILLED =
+            "LEAST(:capacity, b.tokens + EXTRACT(EPOCH FROM LOCALTIMESTAMP - b.refilled_at) * :rate)";
+
+    // full_at: the bucket is full again from then on, MaintenanceScheduler deletes the row after it
+    private static final String TAKE = String.format(
+            "INSERT INTO rate_limit_buckets AS b (bucket_key, tokens, refilled_at, full_at, allowed) " +
+            "VALUES (:key, :capacity - 1, LOCALTIMESTAMP, LOCALTIMESTAMP + make_interval(secs => :period), true) " +
+            "ON CONFLICT (bucket_key) DO UPDATE SET " +
+            "allowed = %1$s >= 1, " +
+            "tokens = %1$s - CASE WHEN %1$s >= 1 THEN 1 ELSE 0 END, " +
+            "refilled_at = LOCALTIMESTAMP, " +
+            "full_at = LOCALTIMESTAMP + make_interval(secs => :period) " +
+            "RETURNING allowed, tokens", REFILLED);
+
+    private final LocalRateLimitStore local;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Counter errors;
+
+    public JdbcRateLimitStore(LocalRateLimitStore local, NamedParameterJdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry) {
+        this.local = local;
+        this.jdbcTemplate = jdbcTemplate;
+        this.errors = Counter.builder("ratelimit.store.errors")
+                .description("Shared rate limit lookups that failed and let the request through")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitPolicy policy) {
+        long wait = local.tryConsume(key, policy);
+        if (wait > 0) {
+            return wait;
+        }
+        double perSecond = policy.tokensPerNano() * 1_000_000_000L;
+        try {
+            Map<String, Object> row = jdbcTemplate.queryForMap(TAKE, new MapSqlParameterSource()
+                    .addValue("key", key)
+                    .addValue("capacity", (double) policy.capacity())
+                    .addValue("rate", perSecond)
+                    .addValue("period", (double) policy.period().toMillis() / 1000));
+            if (Boolean.TRUE.equals(row.get("allowed"))) {
+                return 0;
+            }
+            double tokens = ((Number) row.get("tokens")).doubleValue();
+            return Math.max(1, (long) Math.ceil((1 - tokens) / perSecond * 1000));
+        } catch (DataAccessException e) {
+            errors.increment();
+            log.warn("Shared rate limit store unavailable, falling back to the local limit: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend_spring.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory buckets split over 64 independently locked stripes, so concurrent requests only
+ * contend when their keys hash to the same stripe. Each stripe keeps its least recently used
+ * keys up to maxKeys / 64; an evicted bucket comes back full.
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier nanoClock;
+
+    public LocalRateLimitStore(int maxKeys) {
+        this(maxKeys, System::nanoTime);
+    }
+
+    LocalRateLimitStore(int maxKeys, LongSupplier nanoClock) {
+        int keysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitPolicy policy) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        long now = nanoClock.getAsLong();
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(policy.capacity(), now);
+                stripe.put(key, bucket);
+            }
+            return bucket.tryConsume(policy, now);
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        long tryConsume(RateLimitPolicy policy, long now) {
+            tokens = Math.min(policy.capacity(), tokens + (now - refilledAt) * policy.tokensPerNano());
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / policy.tokensPerNano() / 1_000_000));
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+
+        private final int maxKeys;
+
+        Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxKeys;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.backend_spring.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@Configuration
+public class RateLimitConfig {
+
+    /** app.rate-limit.store: memory (per instance, default) or jdbc (shared through PostgreSQL). */
+    @Bean
+    public RateLimitStore rateLimitStore(
+            @Value("${app.rate-limit.store:memory}") String store,
+            @Value("${app.rate-limit.max-keys:100000}") int maxKeys,
+            ObjectProvider<NamedParameterJdbcTemplate> jdbcTemplate,
+            MeterRegistry meterRegistry) {
+        LocalRateLimitStore local = new LocalRateLimitStore(maxKeys);
+        return switch (store) {
+            case "memory" -> local;
+            case "jdbc" -> new JdbcRateLimitStore(local, jdbcTemplate.getObject(), meterRegistry);
+            default -> throw new IllegalStateException("Unknown app.rate-limit.store: " + store);
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.backend_spring.ratelimit;
+
+import com.example.backend_spring.dto.error.ErrorResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Token-bucket limits on the unauthenticated endpoints: every /api/v1/auth/** request per client IP,
+ * login and register also per email (so one account cannot be brute-forced from many IPs), and /p/**
+ * per IP. Runs before JwtAuthenticationFilter, rejected requests get 429 with Retry-After.
+ * Behind a reverse proxy, getRemoteAddr must be the client's: the prod profile sets
+ * server.forward-headers-strategy to native for nginx.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/v1/auth/";
+    private static final String PUBLIC_PATH = "/p/";
+
+    private final RateLimitStore store;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final RateLimitPolicy authIp;
+    private final RateLimitPolicy authEmail;
+    private final RateLimitPolicy publicIp;
+    private final Map<String, Counter> rejected;
+
+    public RateLimitFilter(
+            RateLimitStore store,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.auth-ip.capacity:20}") int authIpCapacity,
+            @Value("${app.rate-limit.auth-ip.period:PT1M}") Duration authIpPeriod,
+            @Value("${app.rate-limit.auth-email.capacity:5}") int authEmailCapacity,
+            @Value("${app.rate-limit.auth-email.period:PT5M}") Duration authEmailPeriod,
+            @Value("${app.rate-limit.public-ip.capacity:120}") int publicIpCapacity,
+            @Value("${app.rate-limit.public-ip.period:PT1M}") Duration publicIpPeriod) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.authIp = new RateLimitPolicy("auth-ip", authIpCapacity, authIpPeriod);
+        this.authEmail = new RateLimitPolicy("auth-email", authEmailCapacity, authEmailPeriod);
+        this.publicIp = new RateLimitPolicy("public-ip", publicIpCapacity, publicIpPeriod);
+        this.rejected = Map.of(
+                authIp.name(), rejectedCounter(meterRegistry, authIp),
+                authEmail.name(), rejectedCounter(meterRegistry, authEmail),
+                publicIp.name(), rejectedCounter(meterRegistry, publicIp));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, RateLimitPolicy policy) {
+        return Counter.builder("ratelimit.rejected")
+                .description("Requests rejected with 429 by RateLimitFilter")
+                .tag("policy", policy.name())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !enabled || !(path.startsWith(AUTH_PATH) || path.startsWith(PUBLIC_PATH));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getServletPath();
+        String ip = request.getRemoteAddr();
+
+        if (path.startsWith(PUBLIC_PATH)) {
+            if (allowed(publicIp, ip, response)) {
+                filterChain.doFilter(request, response);
+            }
+            return;
+        }
+
+        if (!allowed(authIp, ip, response)) {
+            return;
+        }
+        if ("POST".equals(request.getMethod())
+                && (path.equals(AUTH_PATH + "login") || path.equals(AUTH_PATH + "register"))) {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            String email = cached.email(objectMapper);
+            if (email != null && !allowed(authEmail, email, response)) {
+                return;
+            }
+            request = cached;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean allowed(RateLimitPolicy policy, String key, HttpServletResponse response) throws IOException {
+        long waitMillis = store.tryConsume(policy.name() + ":" + key, policy);
+        if (waitMillis == 0) {
+            return true;
+        }
+        rejected.get(policy.name()).increment();
+        String retryAfter = String.valueOf((waitMillis + 999) / 1000);
+
+        ErrorResponse error = ErrorResponse.builder()
+                .code("TOO_MANY_REQUESTS")
+                .message("Too many requests, retry later")
+                .details(Map.of("retryAfterSeconds", retryAfter))
+                .timestamp(LocalDateTime.now())
+                .build();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+        return false;
+    }
+
+    /** Reads the JSON body once for the email, then replays it to the controller. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        // Malformed bodies give no email key, validation rejects them further down
+        String email(ObjectMapper objectMapper) {
+            try {
+                JsonNode email = objectMapper.readTree(body).path("email");
+                return email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is in memory: everything is available at once, so both callbacks run here
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.backend_spring.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Token bucket: holds up to capacity tokens and refills capacity tokens per period,
+ * so a client may burst capacity requests then continue at capacity / period.
+ */
+public record RateLimitPolicy(String name, int capacity, Duration period) {
+
+    public RateLimitPolicy {
+        if (capacity < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Invalid rate limit policy " + name);
+        }
+    }
+
+    public double tokensPerNano() {
+        return (double) capacity / period.toNanos();
+    }
+}
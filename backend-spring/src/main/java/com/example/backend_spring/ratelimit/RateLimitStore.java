@@ -0,0 +1,14 @@
+package com.example.backend_spring.ratelimit;
+
+/**
+ * Where the token buckets live. LocalRateLimitStore keeps them in memory, per instance;
+ * JdbcRateLimitStore shares them between replicas (app.rate-limit.store=jdbc).
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from the bucket of key under policy.
+     * Returns 0 when the request may proceed, otherwise the milliseconds until a token is available.
+     */
+    long tryConsume(String key, RateLimitPolicy policy);
+}
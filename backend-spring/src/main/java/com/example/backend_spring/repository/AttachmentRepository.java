@@ -0,0 +1,22 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    List<Attachment> findByNoteIdOrderById(Long noteId);
+
+    Optional<Attachment> findByIdAndNoteId(Long id, Long noteId);
+
+    // Blobs to delete once the note's rows are gone (ON DELETE CASCADE)
+    @Query("SELECT a.storageKey FROM Attachment a WHERE a.note.id = :noteId")
+    List<String> findStorageKeysByNoteId(@Param("noteId") Long noteId);
+}
@@ -0,0 +1,32 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.GroupMembership;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GroupMembershipRepository extends JpaRepository<GroupMembership, Long> {
+
+    boolean existsByGroupIdAndUserId(Long groupId, Long userId);
+
+    Optional<GroupMembership> findByGroupIdAndUserId(Long groupId, Long userId);
+
+    @Query("SELECT m FROM GroupMembership m JOIN FETCH m.user WHERE m.group.id = :groupId ORDER BY m.user.email")
+    List<GroupMembership> findByGroupIdWithUser(@Param("groupId") Long groupId);
+
+    @Query("SELECT m.group.id FROM GroupMembership m WHERE m.user.id = :userId")
+    List<Long> findGroupIdsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT m.user.id FROM GroupMembership m WHERE m.group.id = :groupId")
+    List<Long> findUserIdsByGroupId(@Param("groupId") Long groupId);
+
+    @Modifying
+    @Query("DELETE FROM GroupMembership m WHERE m.group.id = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+}
@@ -0,0 +1,49 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteAccess;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NoteAccessRepository extends JpaRepository<NoteAccess, NoteAccess.Id>, NoteAccessRepositoryCustom {
+
+    @Query("SELECT a FROM NoteAccess a WHERE a.id.userId = :userId " +
+           "ORDER BY a.updatedAt DESC, a.id.noteId DESC")
+    List<NoteAccess> findFirstPage(@Param("userId") Long userId, Limit limit);
+
+    // Keyset pagination: the row comparison lets PostgreSQL seek idx_note_access_user_updated to the cursor
+    @Query("SELECT a FROM NoteAccess a WHERE a.id.userId = :userId " +
+           "AND (a.updatedAt, a.id.noteId) < (:updatedAt, :noteId) " +
+           "ORDER BY a.updatedAt DESC, a.id.noteId DESC")
+    List<NoteAccess> findPageAfter(
+        @Param("userId") Long userId,
+        @Param("updatedAt") LocalDateTime updatedAt,
+        @Param("noteId") Long noteId,
+        Limit limit
+    );
+
+    @Query("SELECT a.id.noteId FROM NoteAccess a WHERE a.id.userId = :userId AND a.role = :role")
+    List<Long> findNoteIdsByUserIdAndRole(@Param("userId") Long userId, @Param("role") NoteAccess.Role role);
+
+    @Query("SELECT a.id.userId FROM NoteAccess a WHERE a.id.noteId = :noteId")
+    List<Long> findUserIdsByNoteId(@Param("noteId") Long noteId);
+
+    @Query("SELECT a.id FROM NoteAccess a WHERE a.id.noteId IN :noteIds")
+    List<NoteAccess.Id> findIdsByNoteIdIn(@Param("noteIds") Collection<Long> noteIds);
+
+    @Modifying
+    @Query("UPDATE NoteAccess a SET a.updatedAt = :updatedAt WHERE a.id.noteId IN :noteIds")
+    int updateNoteTimestamps(@Param("noteIds") Collection<Long> noteIds, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM NoteAccess a WHERE a.id.noteId = :noteId")
+    int deleteByNoteId(@Param("noteId") Long noteId);
+}
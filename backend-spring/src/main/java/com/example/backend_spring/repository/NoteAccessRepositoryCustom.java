@@ -0,0 +1,11 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteAccess;
+
+import java.util.List;
+
+public interface NoteAccessRepositoryCustom {
+
+    /** Plain JDBC batch insert, the rows are not attached to the persistence context. */
+    void insertBatch(List<NoteAccess> rows);
+}
@@ -0,0 +1,28 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteAccess;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+class NoteAccessRepositoryImpl implements NoteAccessRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<NoteAccess> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO note_access (user_id, note_id, updated_at, role) VALUES (?, ?, ?, ?)",
+                rows, BATCH_SIZE, (statement, row) -> {
+                    statement.setLong(1, row.getId().getUserId());
+                    statement.setLong(2, row.getId().getNoteId());
+                    statement.setTimestamp(3, Timestamp.valueOf(row.getUpdatedAt()));
+                    statement.setString(4, row.getRole().name());
+                });
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface NoteContentRepository extends JpaRepository<NoteContent, UUID>, NoteContentRepositoryCustom {
+}
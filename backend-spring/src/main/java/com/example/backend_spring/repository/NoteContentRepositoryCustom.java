@@ -0,0 +1,16 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteContent;
+
+import java.time.LocalDateTime;
+
+public interface NoteContentRepositoryCustom {
+
+    /**
+     * Inserts the body, or marks the existing row with the same hash as referenced now if it was
+     * last referenced before staleBefore, in one statement that concurrent writers of the same
+     * body cannot both fail. Rows referenced since are left alone, unlocked: a body shared by many
+     * notes (the empty one) is not a point where every save waits for the others to commit.
+     */
+    void upsert(NoteContent content, LocalDateTime staleBefore);
+}
@@ -0,0 +1,55 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteContent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+class NoteContentRepositoryImpl implements NoteContentRepositoryCustom {
+
+    // An existing row is only updated, and row-locked, once stale. A fresh one cannot be purged
+    // before the caller commits: MaintenanceScheduler waits for the whole grace period
+    private static final String UPSERT_POSTGRESQL =
+            "WITH inserted AS (" +
+            "INSERT INTO note_contents (hash, data, compressed, referenced_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (hash) DO NOTHING) " +
+            "UPDATE note_contents SET referenced_at = ? WHERE hash = ? AND referenced_at < ?";
+
+    // H2, used by the tests
+    private static final String UPSERT_OTHER =
+            "MERGE INTO note_contents c USING (VALUES (CAST(? AS UUID), CAST(? AS VARBINARY), " +
+            "CAST(? AS BOOLEAN), CAST(? AS TIMESTAMP))) v (hash, data, compressed, referenced_at) " +
+            "ON c.hash = v.hash " +
+            "WHEN MATCHED AND c.referenced_at < ? THEN UPDATE SET referenced_at = v.referenced_at " +
+            "WHEN NOT MATCHED THEN INSERT (hash, data, compressed, referenced_at) " +
+            "VALUES (v.hash, v.data, v.compressed, v.referenced_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsert(NoteContent content, LocalDateTime staleBefore) {
+        jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            boolean postgreSql = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            Timestamp referencedAt = Timestamp.valueOf(content.getReferencedAt());
+            try (PreparedStatement statement = connection.prepareStatement(postgreSql ? UPSERT_POSTGRESQL : UPSERT_OTHER)) {
+                statement.setObject(1, content.getHash());
+                statement.setBytes(2, content.getData());
+                statement.setBoolean(3, content.getCompressed());
+                statement.setTimestamp(4, referencedAt);
+                if (postgreSql) {
+                    statement.setTimestamp(5, referencedAt);
+                    statement.setObject(6, content.getHash());
+                    statement.setTimestamp(7, Timestamp.valueOf(staleBefore));
+                } else {
+                    statement.setTimestamp(5, Timestamp.valueOf(staleBefore));
+                }
+                return statement.executeUpdate();
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteGroupAccess;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NoteGroupAccessRepository extends JpaRepository<NoteGroupAccess, NoteGroupAccess.Id> {
+
+    // Same (updatedAt, noteId) keyset order as NoteAccessRepository; a note shared with
+    // several of the groups comes back once per group, see NoteAccessService.findAccessible
+    @Query("SELECT a FROM NoteGroupAccess a WHERE a.id.groupId IN :groupIds " +
+           "ORDER BY a.updatedAt DESC, a.id.noteId DESC")
+    List<NoteGroupAccess> findFirstPage(@Param("groupIds") Collection<Long> groupIds, Limit limit);
+
+    @Query("SELECT a FROM NoteGroupAccess a WHERE a.id.groupId IN :groupIds " +
+           "AND (a.updatedAt, a.id.noteId) < (:updatedAt, :noteId) " +
+           "ORDER BY a.updatedAt DESC, a.id.noteId DESC")
+    List<NoteGroupAccess> findPageAfter(
+        @Param("groupIds") Collection<Long> groupIds,
+        @Param("updatedAt") LocalDateTime updatedAt,
+        @Param("noteId") Long noteId,
+        Limit limit
+    );
+
+    @Query("SELECT a.id.noteId FROM NoteGroupAccess a WHERE a.id.groupId = :groupId")
+    List<Long> findNoteIdsByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT a.id.groupId FROM NoteGroupAccess a WHERE a.id.noteId = :noteId")
+    List<Long> findGroupIdsByNoteId(@Param("noteId") Long noteId);
+
+    @Query("SELECT a.id FROM NoteGroupAccess a WHERE a.id.noteId IN :noteIds")
+    List<NoteGroupAccess.Id> findIdsByNoteIdIn(@Param("noteIds") Collection<Long> noteIds);
+
+    @Modifying
+    @Query("UPDATE NoteGroupAccess a SET a.updatedAt = :updatedAt WHERE a.id.noteId IN :noteIds")
+    int updateNoteTimestamps(@Param("noteIds") Collection<Long> noteIds, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM NoteGroupAccess a WHERE a.id.noteId = :noteId")
+    int deleteByNoteId(@Param("noteId") Long noteId);
+
+    @Modifying
+    @Query("DELETE FROM NoteGroupAccess a WHERE a.id.groupId = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+}
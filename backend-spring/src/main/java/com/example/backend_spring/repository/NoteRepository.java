@@ -2,20 +2,29 @@ package com.example.backend_spring.repository;
 
 import com.example.backend_spring.entity.Note;
 import com.example.backend_spring.entity.Note.Visibility;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, Long> {
+public interface NoteRepository extends JpaRepository<Note, Long>, NoteRepositoryCustom {
     
     Page<Note> findByOwnerId(Long ownerId, Pageable pageable);
     
+    // The body lives in note_contents, fetched in the same query where it is shown
+    @Query("SELECT n FROM Note n LEFT JOIN FETCH n.content WHERE n.id = :id")
+    Optional<Note> findWithContentById(@Param("id") Long id);
+    
     @Query("SELECT n FROM Note n WHERE n.owner.id = :ownerId " +
            "AND LOWER(n.title) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Note> searchByOwnerAndTitle(
@@ -46,4 +55,34 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
         @Param("noteId") Long noteId,
         @Param("userId") Long userId
     );
-}
\ No newline at end of file
+    
+    // Public notes of other users, same (updatedAt, id) keyset order as NoteAccessRepository
+    @Query("SELECT n FROM Note n WHERE n.visibility = com.example.backend_spring.entity.Note.Visibility.PUBLIC " +
+           "AND n.owner.id <> :userId " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<Note> findPublicFirstPage(@Param("userId") Long userId, Limit limit);
+    
+    @Query("SELECT n FROM Note n WHERE n.visibility = com.example.backend_spring.entity.Note.Visibility.PUBLIC " +
+           "AND n.owner.id <> :userId " +
+           "AND (n.updatedAt, n.id) < (:updatedAt, :noteId) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<Note> findPublicPageAfter(
+        @Param("userId") Long userId,
+        @Param("updatedAt") LocalDateTime updatedAt,
+        @Param("noteId") Long noteId,
+        Limit limit
+    );
+    
+    @Query("SELECT DISTINCT n FROM Note n JOIN FETCH n.owner LEFT JOIN FETCH n.tags WHERE n.id IN :ids")
+    List<Note> findAllWithOwnerAndTagsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Bulk visibility flip for ShareService.shareInBulk, skips notes that are already SHARED
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Note n SET n.visibility = :visibility, n.updatedAt = :updatedAt " +
+           "WHERE n.id IN :ids AND n.visibility <> :visibility")
+    int updateVisibility(
+        @Param("ids") Collection<Long> ids,
+        @Param("visibility") Visibility visibility,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+}
@@ -0,0 +1,20 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.Note;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NoteRepositoryCustom {
+
+    /** What search/NoteIndex keeps of each of the owner's notes, body excluded. */
+    List<IndexedNote> findIndexedByOwnerId(Long ownerId);
+
+    /** Same as findIndexedByOwnerId for the given notes; deleted ones are missing. */
+    List<IndexedNote> findIndexedByIdIn(Collection<Long> ids);
+
+    record IndexedNote(long id, long ownerId, String title, Note.Visibility visibility,
+                       LocalDateTime updatedAt, List<String> labels) {
+    }
+}
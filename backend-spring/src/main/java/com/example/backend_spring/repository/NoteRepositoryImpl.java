@@ -0,0 +1,73 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.Note;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@RequiredArgsConstructor
+class NoteRepositoryImpl implements NoteRepositoryCustom {
+
+    // One row per note and tag, ordered by note so the labels of a note are consecutive
+    private static final String SELECT_INDEXED =
+            "SELECT n.id, n.owner_id, n.title, n.visibility, n.updated_at, t.label FROM notes n " +
+            "LEFT JOIN note_tags nt ON nt.note_id = n.id " +
+            "LEFT JOIN tags t ON t.id = nt.tag_id ";
+
+    private static final int IN_LIST_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<IndexedNote> findIndexedByOwnerId(Long ownerId) {
+        List<IndexedNote> notes = new ArrayList<>();
+        jdbcTemplate.query(SELECT_INDEXED + "WHERE n.owner_id = ? ORDER BY n.id",
+                new IndexedNoteCollector(notes), ownerId);
+        return notes;
+    }
+
+    @Override
+    public List<IndexedNote> findIndexedByIdIn(Collection<Long> ids) {
+        List<Long> all = List.copyOf(ids);
+        List<IndexedNote> notes = new ArrayList<>(all.size());
+        for (int from = 0; from < all.size(); from += IN_LIST_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(from + IN_LIST_SIZE, all.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(SELECT_INDEXED + "WHERE n.id IN (" + placeholders + ") ORDER BY n.id",
+                    new IndexedNoteCollector(notes), chunk.toArray());
+        }
+        return notes;
+    }
+
+    private static final class IndexedNoteCollector implements RowCallbackHandler {
+
+        private final List<IndexedNote> notes;
+        private IndexedNote current;
+
+        IndexedNoteCollector(List<IndexedNote> notes) {
+            this.notes = notes;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (current == null || current.id() != id) {
+                current = new IndexedNote(id, rs.getLong(2), rs.getString(3),
+                        Note.Visibility.valueOf(rs.getString(4)),
+                        rs.getTimestamp(5).toLocalDateTime(), new ArrayList<>(2));
+                notes.add(current);
+            }
+            String label = rs.getString(6);
+            if (label != null) {
+                current.labels().add(label);
+            }
+        }
+    }
+}
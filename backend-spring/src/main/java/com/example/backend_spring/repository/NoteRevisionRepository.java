@@ -0,0 +1,26 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.NoteRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NoteRevisionRepository extends JpaRepository<NoteRevision, NoteRevision.Id>, NoteRevisionRepositoryCustom {
+
+    Optional<NoteRevision> findFirstByIdNoteIdOrderByIdRevisionDesc(Long noteId);
+
+    // A snapshot and the deltas after it, in the order they apply
+    @Query("SELECT r FROM NoteRevision r WHERE r.id.noteId = :noteId " +
+           "AND r.id.revision BETWEEN :fromRevision AND :toRevision " +
+           "ORDER BY r.id.revision")
+    List<NoteRevision> findChain(
+        @Param("noteId") Long noteId,
+        @Param("fromRevision") int fromRevision,
+        @Param("toRevision") int toRevision
+    );
+}
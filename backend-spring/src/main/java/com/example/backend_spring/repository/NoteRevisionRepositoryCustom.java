@@ -0,0 +1,14 @@
+package com.example.backend_spring.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NoteRevisionRepositoryCustom {
+
+    /** Revisions of a note below beforeRevision, newest first, without their data. */
+    List<RevisionSummary> findSummaries(Long noteId, int beforeRevision, int limit);
+
+    record RevisionSummary(int revision, boolean snapshot, Long authorId, String authorEmail,
+                           int contentLength, LocalDateTime createdAt) {
+    }
+}
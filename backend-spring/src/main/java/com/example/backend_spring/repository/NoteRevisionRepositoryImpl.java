@@ -0,0 +1,32 @@
+package com.example.backend_spring.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class NoteRevisionRepositoryImpl implements NoteRevisionRepositoryCustom {
+
+    // Primary key range scan; the data column (up to a compressed note per row) is not read
+    private static final String FIND_SUMMARIES =
+            "SELECT r.revision, r.snapshot_revision, r.author_id, u.email, r.content_length, r.created_at " +
+            "FROM note_revisions r LEFT JOIN users u ON u.id = r.author_id " +
+            "WHERE r.note_id = ? AND r.revision < ? " +
+            "ORDER BY r.revision DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<RevisionSummary> findSummaries(Long noteId, int beforeRevision, int limit) {
+        return jdbcTemplate.query(FIND_SUMMARIES,
+                (rs, row) -> new RevisionSummary(
+                        rs.getInt(1),
+                        rs.getInt(1) == rs.getInt(2),
+                        rs.getObject(3, Long.class),
+                        rs.getString(4),
+                        rs.getInt(5),
+                        rs.getTimestamp(6).toLocalDateTime()),
+                noteId, beforeRevision, limit);
+    }
+}
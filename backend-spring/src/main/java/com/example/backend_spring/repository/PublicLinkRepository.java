@@ -2,12 +2,20 @@ package com.example.backend_spring.repository;
 
 import com.example.backend_spring.entity.PublicLink;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface PublicLinkRepository extends JpaRepository<PublicLink, Long> {
-    Optional<PublicLink> findByUrlToken(String urlToken);
+    @Query("SELECT pl FROM PublicLink pl JOIN FETCH pl.note n LEFT JOIN FETCH n.content WHERE pl.urlToken = :urlToken")
+    Optional<PublicLink> findByUrlToken(@Param("urlToken") String urlToken);
+
+    // The link alone, its note left unloaded
+    @Query("SELECT pl FROM PublicLink pl WHERE pl.urlToken = :urlToken")
+    Optional<PublicLink> findLinkByUrlToken(@Param("urlToken") String urlToken);
+
     Optional<PublicLink> findByNoteId(Long noteId);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.backend_spring.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepositoryCustom {
+
+    /**
+     * Marks the unused, unexpired token used and inserts its successor in the same family,
+     * in one statement. Empty when the token is unknown, expired or already used.
+     */
+    Optional<RotatedUser> rotate(UUID tokenHash, UUID nextTokenHash, LocalDateTime now, LocalDateTime nextExpiresAt);
+
+    record RotatedUser(Long id, String email, LocalDateTime createdAt) {
+    }
+}
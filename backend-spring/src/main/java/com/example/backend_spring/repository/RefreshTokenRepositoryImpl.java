@@ -0,0 +1,93 @@
+package com.example.backend_spring.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+class RefreshTokenRepositoryImpl implements RefreshTokenRepositoryCustom {
+
+    // The primary key lookup, the successor and the user columns of the response in one round trip
+    private static final String ROTATE_POSTGRESQL =
+            "WITH used AS (" +
+            "UPDATE refresh_tokens SET used_at = ? " +
+            "WHERE token_hash = ? AND used_at IS NULL AND expires_at > ? " +
+            "RETURNING user_id, family_id), " +
+            "issued AS (" +
+            "INSERT INTO refresh_tokens (token_hash, user_id, family_id, expires_at) " +
+            "SELECT ?, user_id, family_id, ? FROM used) " +
+            "SELECT u.id, u.email, u.created_at FROM used JOIN users u ON u.id = used.user_id";
+
+    // H2, used by the tests, has no data-modifying CTEs: the same steps one statement each,
+    // the UPDATE row lock keeping a concurrent rotation of the token out until commit
+    private static final String USE_OTHER =
+            "UPDATE refresh_tokens SET used_at = ? WHERE token_hash = ? AND used_at IS NULL AND expires_at > ?";
+
+    private static final String ISSUE_OTHER =
+            "INSERT INTO refresh_tokens (token_hash, user_id, family_id, expires_at) " +
+            "SELECT ?, user_id, family_id, ? FROM refresh_tokens WHERE token_hash = ?";
+
+    private static final String USER_OTHER =
+            "SELECT u.id, u.email, u.created_at FROM refresh_tokens t JOIN users u ON u.id = t.user_id " +
+            "WHERE t.token_hash = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<RotatedUser> rotate(UUID tokenHash, UUID nextTokenHash, LocalDateTime now,
+                                        LocalDateTime nextExpiresAt) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Timestamp nextTimestamp = Timestamp.valueOf(nextExpiresAt);
+        return jdbcTemplate.execute((ConnectionCallback<Optional<RotatedUser>>) connection -> {
+            if ("PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                try (PreparedStatement statement = connection.prepareStatement(ROTATE_POSTGRESQL)) {
+                    statement.setTimestamp(1, timestamp);
+                    statement.setObject(2, tokenHash);
+                    statement.setTimestamp(3, timestamp);
+                    statement.setObject(4, nextTokenHash);
+                    statement.setTimestamp(5, nextTimestamp);
+                    return user(statement);
+                }
+            }
+            try (PreparedStatement use = connection.prepareStatement(USE_OTHER)) {
+                use.setTimestamp(1, timestamp);
+                use.setObject(2, tokenHash);
+                use.setTimestamp(3, timestamp);
+                if (use.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+            }
+            try (PreparedStatement issue = connection.prepareStatement(ISSUE_OTHER)) {
+                issue.setObject(1, nextTokenHash);
+                issue.setTimestamp(2, nextTimestamp);
+                issue.setObject(3, tokenHash);
+                issue.executeUpdate();
+            }
+            return user(connection, tokenHash);
+        });
+    }
+
+    private static Optional<RotatedUser> user(Connection connection, UUID tokenHash) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(USER_OTHER)) {
+            statement.setObject(1, tokenHash);
+            return user(statement);
+        }
+    }
+
+    private static Optional<RotatedUser> user(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next()
+                    ? Optional.of(new RotatedUser(rs.getLong(1), rs.getString(2), rs.getTimestamp(3).toLocalDateTime()))
+                    : Optional.empty();
+        }
+    }
+}
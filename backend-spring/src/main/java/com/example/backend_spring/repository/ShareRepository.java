@@ -2,15 +2,17 @@ package com.example.backend_spring.repository;
 
 import com.example.backend_spring.entity.Share;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ShareRepository extends JpaRepository<Share, Long> {
+public interface ShareRepository extends JpaRepository<Share, Long>, ShareRepositoryCustom {
     
     List<Share> findByNoteId(Long noteId);
     
@@ -22,4 +24,36 @@ public interface ShareRepository extends JpaRepository<Share, Long> {
     );
     
     boolean existsByNoteIdAndSharedWithUserId(Long noteId, Long userId);
-}
\ No newline at end of file
+    
+    @Query("SELECT s FROM Share s WHERE s.note.id IN :noteIds AND s.sharedWithUser.id IN :userIds")
+    List<Share> findByNoteIdInAndSharedWithUserIdIn(
+        @Param("noteIds") Collection<Long> noteIds,
+        @Param("userIds") Collection<Long> userIds
+    );
+    
+    boolean existsByNoteIdAndGroupId(Long noteId, Long groupId);
+    
+    // Direct and group shares of one note for one user: both branches use an index starting
+    // with note_id (uk_shares_note_user, uk_shares_note_group)
+    @Query("SELECT s.permission FROM Share s WHERE s.note.id = :noteId " +
+           "AND (s.sharedWithUser.id = :userId OR s.group.id IN :groupIds)")
+    List<Share.Permission> findPermissions(
+        @Param("noteId") Long noteId,
+        @Param("userId") Long userId,
+        @Param("groupIds") Collection<Long> groupIds
+    );
+    
+    @Query("SELECT DISTINCT s.note.id FROM Share s WHERE s.note.id IN :noteIds " +
+           "AND (s.sharedWithUser.id = :userId OR s.group.id IN :groupIds) " +
+           "AND s.permission IN :permissions")
+    List<Long> findNoteIdsWithPermission(
+        @Param("noteIds") Collection<Long> noteIds,
+        @Param("userId") Long userId,
+        @Param("groupIds") Collection<Long> groupIds,
+        @Param("permissions") Collection<Share.Permission> permissions
+    );
+    
+    @Modifying
+    @Query("DELETE FROM Share s WHERE s.group.id = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+}
@@ -0,0 +1,11 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.Share;
+
+import java.util.List;
+
+public interface ShareRepositoryCustom {
+
+    /** Plain JDBC batch insert, the shares are not attached to the persistence context. */
+    void insertBatch(List<Share> shares);
+}
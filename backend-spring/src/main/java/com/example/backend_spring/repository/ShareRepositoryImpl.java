@@ -0,0 +1,26 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.Share;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class ShareRepositoryImpl implements ShareRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<Share> shares) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO shares (note_id, shared_with_user_id, permission) VALUES (?, ?, ?)",
+                shares, BATCH_SIZE, (statement, share) -> {
+                    statement.setLong(1, share.getNote().getId());
+                    statement.setLong(2, share.getSharedWithUser().getId());
+                    statement.setString(3, share.getPermission().name());
+                });
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backend_spring.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TagRepositoryCustom {
+
+    /** Labels used on the owner's notes, with the number of notes carrying each. */
+    List<TagCount> countByOwner(Long ownerId);
+
+    /**
+     * Id of the tag with this label, share-locked until the transaction ends, so that
+     * MaintenanceScheduler does not purge it as an orphan before the note using it commits.
+     */
+    Optional<Long> lockByLabel(String label);
+
+    record TagCount(String label, int count) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.backend_spring.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class TagRepositoryImpl implements TagRepositoryCustom {
+
+    private static final String COUNT_BY_OWNER =
+            "SELECT t.label, COUNT(*) FROM notes n " +
+            "JOIN note_tags nt ON nt.note_id = n.id " +
+            "JOIN tags t ON t.id = nt.tag_id " +
+            "WHERE n.owner_id = ? GROUP BY t.label";
+
+    // The purge locks its candidates FOR UPDATE SKIP LOCKED: it skips a share-locked tag, and a tag
+    // it has locked first is not returned once the purge commits, so the caller creates it again
+    private static final String LOCK_BY_LABEL_POSTGRESQL = "SELECT id FROM tags WHERE label = ? FOR SHARE";
+
+    // H2, used by the tests, has no shared row locks
+    private static final String LOCK_BY_LABEL_OTHER = "SELECT id FROM tags WHERE label = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<TagCount> countByOwner(Long ownerId) {
+        return jdbcTemplate.query(COUNT_BY_OWNER,
+                (rs, row) -> new TagCount(rs.getString(1), rs.getInt(2)),
+                ownerId);
+    }
+
+    @Override
+    public Optional<Long> lockByLabel(String label) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<Long>>) connection -> {
+            String sql = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+                    ? LOCK_BY_LABEL_POSTGRESQL : LOCK_BY_LABEL_OTHER;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, label);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? Optional.of(rs.getLong(1)) : Optional.empty();
+                }
+            }
+        });
+    }
+}
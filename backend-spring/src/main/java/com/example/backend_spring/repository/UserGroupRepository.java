@@ -0,0 +1,17 @@
+package com.example.backend_spring.repository;
+
+import com.example.backend_spring.entity.UserGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserGroupRepository extends JpaRepository<UserGroup, Long> {
+
+    @Query("SELECT g FROM GroupMembership m JOIN m.group g JOIN FETCH g.owner " +
+           "WHERE m.user.id = :userId ORDER BY g.name")
+    List<UserGroup> findByMemberId(@Param("userId") Long userId);
+}
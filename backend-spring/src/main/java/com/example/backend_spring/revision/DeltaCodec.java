@@ -0,0 +1,214 @@
+package com.example.backend_spring.revision;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Storage format of note revisions. A snapshot is the deflated UTF-8 content. A delta rebuilds
+ * the target from its base, in the spirit of xdelta: the target length, then COPY (offset and
+ * length in the base) and INSERT (literal bytes) instructions, all varint encoded and deflated
+ * together so inserted text is compressed too. Copies are found by indexing the base in BLOCK
+ * byte blocks and looking up a rolling hash of every BLOCK bytes of the target, so a diff is
+ * linear in the size of both versions.
+ */
+final class DeltaCodec {
+
+    private static final int BLOCK = 16;
+    private static final int PRIME = 31;
+    // PRIME^(BLOCK - 1), to roll the oldest byte out of the hash
+    private static final int OUT_FACTOR = pow(PRIME, BLOCK - 1);
+
+    private static final int COPY = 0;
+    private static final int INSERT = 1;
+
+    private DeltaCodec() {
+    }
+
+    static byte[] snapshot(String content) {
+        return deflate(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String restore(byte[] snapshot) {
+        return new String(inflate(snapshot), StandardCharsets.UTF_8);
+    }
+
+    static byte[] diff(String base, String target) {
+        byte[] source = base.getBytes(StandardCharsets.UTF_8);
+        byte[] result = target.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        writeVarint(out, result.length);
+
+        // First offset of each block of the base; later duplicates would only give the same copy
+        Map<Integer, Integer> blocks = new HashMap<>(Math.max(16, source.length / BLOCK * 2));
+        for (int offset = 0; offset + BLOCK <= source.length; offset += BLOCK) {
+            blocks.putIfAbsent(hash(source, offset), offset);
+        }
+
+        int literalStart = 0;
+        int position = 0;
+        int hash = result.length >= BLOCK ? hash(result, 0) : 0;
+        while (position + BLOCK <= result.length) {
+            Integer candidate = blocks.get(hash);
+            if (candidate != null
+                    && Arrays.equals(source, candidate, candidate + BLOCK, result, position, position + BLOCK)) {
+                int sourceStart = candidate;
+                int start = position;
+                // Grow the match backwards over the pending literal, then forwards past the block
+                while (sourceStart > 0 && start > literalStart && source[sourceStart - 1] == result[start - 1]) {
+                    sourceStart--;
+                    start--;
+                }
+                int sourceEnd = candidate + BLOCK;
+                int end = position + BLOCK;
+                while (sourceEnd < source.length && end < result.length && source[sourceEnd] == result[end]) {
+                    sourceEnd++;
+                    end++;
+                }
+                writeInsert(out, result, literalStart, start);
+                writeVarint(out, COPY);
+                writeVarint(out, sourceStart);
+                writeVarint(out, end - start);
+                literalStart = end;
+                position = end;
+                if (position + BLOCK <= result.length) {
+                    hash = hash(result, position);
+                }
+            } else {
+                if (position + BLOCK < result.length) {
+                    hash = (hash - result[position] * OUT_FACTOR) * PRIME + result[position + BLOCK];
+                }
+                position++;
+            }
+        }
+        writeInsert(out, result, literalStart, result.length);
+        return deflate(out.toByteArray());
+    }
+
+    static String apply(String base, byte[] delta) {
+        byte[] source = base.getBytes(StandardCharsets.UTF_8);
+        Reader in = new Reader(inflate(delta));
+        byte[] result = new byte[in.varint()];
+        int length = 0;
+        while (in.hasMore()) {
+            int instruction = in.varint();
+            if (instruction == COPY) {
+                int offset = in.varint();
+                int count = in.varint();
+                checkBounds(offset, count, source.length);
+                checkBounds(length, count, result.length);
+                System.arraycopy(source, offset, result, length, count);
+                length += count;
+            } else if (instruction == INSERT) {
+                int count = in.varint();
+                checkBounds(length, count, result.length);
+                in.read(result, length, count);
+                length += count;
+            } else {
+                throw new IllegalStateException("Corrupt revision delta: unknown instruction " + instruction);
+            }
+        }
+        if (length != result.length) {
+            throw new IllegalStateException("Corrupt revision delta: " + length + " of " + result.length + " bytes");
+        }
+        return new String(result, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInsert(ByteArrayOutputStream out, byte[] bytes, int from, int to) {
+        if (to > from) {
+            writeVarint(out, INSERT);
+            writeVarint(out, to - from);
+            out.write(bytes, from, to - from);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int hash(byte[] bytes, int offset) {
+        int hash = 0;
+        for (int i = offset; i < offset + BLOCK; i++) {
+            hash = hash * PRIME + bytes[i];
+        }
+        return hash;
+    }
+
+    private static int pow(int base, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    private static void checkBounds(int offset, int count, int length) {
+        if (offset < 0 || count < 0 || offset + count > length) {
+            throw new IllegalStateException("Corrupt revision delta: range out of bounds");
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        try (InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+            return inflater.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt revision data", e);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasMore() {
+            return position < bytes.length;
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (position >= bytes.length) {
+                    break;
+                }
+                int b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Corrupt revision delta: truncated number");
+        }
+
+        void read(byte[] target, int offset, int count) {
+            checkBounds(position, count, bytes.length);
+            System.arraycopy(bytes, position, target, offset, count);
+            position += count;
+        }
+    }
+}
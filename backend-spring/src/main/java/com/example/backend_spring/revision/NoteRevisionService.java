@@ -0,0 +1,177 @@
+package com.example.backend_spring.revision;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.NoteRevision;
+import com.example.backend_spring.exception.ResourceNotFoundException;
+import com.example.backend_spring.repository.NoteRevisionRepository;
+import com.example.backend_spring.repository.NoteRevisionRepositoryCustom.RevisionSummary;
+import com.example.backend_spring.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * History of note contents in note_revisions. A revision is a snapshot every snapshotEvery
+ * revisions and a delta against the previous one in between (see DeltaCodec), so reading any
+ * revision replays at most snapshotEvery rows, fetched in one primary key range scan.
+ * Saves by the same author within coalesceWindow of the latest revision rewrite it instead of
+ * adding one, so live editing sessions and bursts of PUTs leave one revision per sitting.
+ */
+@Service
+public class NoteRevisionService {
+
+    private final NoteRevisionRepository noteRevisionRepository;
+    private final UserRepository userRepository;
+    private final int snapshotEvery;
+    private final Duration coalesceWindow;
+    private final DistributionSummary snapshotBytes;
+    private final DistributionSummary deltaBytes;
+
+    public NoteRevisionService(
+            NoteRevisionRepository noteRevisionRepository,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.revisions.snapshot-every:20}") int snapshotEvery,
+            @Value("${app.revisions.coalesce-window:2m}") Duration coalesceWindow) {
+        this.noteRevisionRepository = noteRevisionRepository;
+        this.userRepository = userRepository;
+        this.snapshotEvery = snapshotEvery;
+        this.coalesceWindow = coalesceWindow;
+        this.snapshotBytes = DistributionSummary.builder("note.revisions.stored")
+                .description("Compressed size of the revisions written")
+                .baseUnit("bytes")
+                .tag("kind", "snapshot")
+                .register(meterRegistry);
+        this.deltaBytes = DistributionSummary.builder("note.revisions.stored")
+                .description("Compressed size of the revisions written")
+                .baseUnit("bytes")
+                .tag("kind", "delta")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the note's current content as its newest revision, unless it did not change.
+     * Call after the note row is flushed: the update's row lock keeps concurrent saves of the
+     * same note from numbering their revisions alike.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Note note, Long authorId) {
+        String content = Objects.requireNonNullElse(note.getContentMd(), "");
+        LocalDateTime now = LocalDateTime.now();
+        NoteRevision latest = noteRevisionRepository.findFirstByIdNoteIdOrderByIdRevisionDesc(note.getId())
+                .orElse(null);
+        if (latest == null) {
+            noteRevisionRepository.save(NoteRevision.builder()
+                    .id(new NoteRevision.Id(note.getId(), 1))
+                    .note(note)
+                    .snapshotRevision(1)
+                    .author(authorId != null ? userRepository.getReferenceById(authorId) : null)
+                    .contentLength(content.length())
+                    .data(encodeSnapshot(content))
+                    .createdAt(now)
+                    .build());
+            return;
+        }
+
+        List<NoteRevision> chain = noteRevisionRepository.findChain(
+                note.getId(), latest.getSnapshotRevision(), latest.getId().getRevision());
+        String previous = null;
+        String current = null;
+        for (NoteRevision revision : chain) {
+            previous = current;
+            current = replay(current, revision);
+        }
+        if (content.equals(current)) {
+            return;
+        }
+
+        boolean coalesce = authorId != null
+                && latest.getAuthor() != null
+                && authorId.equals(latest.getAuthor().getId())
+                && latest.getCreatedAt().isAfter(now.minus(coalesceWindow));
+        if (coalesce) {
+            // Nothing is stored against the newest revision, it can be rewritten in place
+            if (latest.isSnapshot()) {
+                store(latest, latest.getId().getRevision(), content, encodeSnapshot(content));
+            } else {
+                encode(latest, latest.getSnapshotRevision(), previous, content);
+            }
+            return;
+        }
+
+        int revision = latest.getId().getRevision() + 1;
+        NoteRevision next = NoteRevision.builder()
+                .id(new NoteRevision.Id(note.getId(), revision))
+                .note(note)
+                .author(authorId != null ? userRepository.getReferenceById(authorId) : null)
+                .createdAt(now)
+                .build();
+        if (revision - latest.getSnapshotRevision() >= snapshotEvery) {
+            store(next, revision, content, encodeSnapshot(content));
+        } else {
+            encode(next, latest.getSnapshotRevision(), current, content);
+        }
+        noteRevisionRepository.save(next);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RevisionSummary> list(Long noteId, Integer beforeRevision, int size) {
+        return noteRevisionRepository.findSummaries(noteId,
+                beforeRevision != null ? beforeRevision : Integer.MAX_VALUE, size);
+    }
+
+    /** The revision and its content, rebuilt from the snapshot its chain starts at. */
+    @Transactional(readOnly = true)
+    public Revision get(Long noteId, int revision) {
+        NoteRevision target = noteRevisionRepository.findById(new NoteRevision.Id(noteId, revision))
+                .orElseThrow(() -> new ResourceNotFoundException("Revision not found"));
+        String content = null;
+        for (NoteRevision step : noteRevisionRepository.findChain(noteId, target.getSnapshotRevision(), revision)) {
+            content = replay(content, step);
+        }
+        return new Revision(target, content);
+    }
+
+    // A delta against base, or a snapshot when the delta would not be smaller
+    private void encode(NoteRevision revision, int chainStart, String base, String content) {
+        byte[] delta = DeltaCodec.diff(base, content);
+        // Text deflates to about a third: only a large delta is worth comparing with the snapshot
+        byte[] snapshot = delta.length * 4 < content.length() ? null : DeltaCodec.snapshot(content);
+        if (snapshot == null || delta.length < snapshot.length) {
+            store(revision, chainStart, content, delta);
+            deltaBytes.record(delta.length);
+        } else {
+            store(revision, revision.getId().getRevision(), content, snapshot);
+            snapshotBytes.record(snapshot.length);
+        }
+    }
+
+    private static void store(NoteRevision revision, int snapshotRevision, String content, byte[] data) {
+        revision.setSnapshotRevision(snapshotRevision);
+        revision.setContentLength(content.length());
+        revision.setData(data);
+    }
+
+    private static String replay(String content, NoteRevision revision) {
+        return revision.isSnapshot()
+                ? DeltaCodec.restore(revision.getData())
+                : DeltaCodec.apply(content, revision.getData());
+    }
+
+    private byte[] encodeSnapshot(String content) {
+        byte[] snapshot = DeltaCodec.snapshot(content);
+        snapshotBytes.record(snapshot.length);
+        return snapshot;
+    }
+
+    public record Revision(NoteRevision revision, String content) {
+    }
+}
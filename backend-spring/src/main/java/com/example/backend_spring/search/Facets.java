@@ -0,0 +1,32 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.repository.TagRepositoryCustom.TagCount;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How the notes matching a search split by label (most used first), by visibility and by how long
+ * ago they were updated; visibilities and ranges with no note are included with a count of 0.
+ */
+public record Facets(List<TagCount> tags, Map<Note.Visibility, Integer> visibility,
+                     Map<UpdatedRange, Integer> updated) {
+
+    /** Disjoint ranges of time since the last update, each starting where the previous one ends. */
+    public enum UpdatedRange {
+        DAY(Duration.ofDays(1)),
+        WEEK(Duration.ofDays(7)),
+        MONTH(Duration.ofDays(30)),
+        YEAR(Duration.ofDays(365)),
+        OLDER(null);
+
+        // Upper bound of the range, null for the last one
+        final Duration within;
+
+        UpdatedRange(Duration within) {
+            this.within = within;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.repository.NoteRepository;
+import com.example.backend_spring.repository.NoteRepositoryCustom.IndexedNote;
+import com.example.backend_spring.service.NoteChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per user, their own notes as bitmaps of ordinals per label and visibility (see UserNotes), so
+ * boolean tag filters on the note list are answered from memory and only the page of notes is
+ * read from the database, by id; search as you type on titles does not read it at all. A user's
+ * notes are read on first use, then kept up to date in place: once a NoteChangedEvent commits,
+ * the notes it names are read again and replace the older version, or are removed when they are
+ * gone.
+ * <p>
+ * Reads run outside any transaction, so they go to the primary and no committed change is missed
+ * through replica lag: callers use the index before opening theirs, rather than having it borrow
+ * a second pooled connection while they hold one. For the same reason, changes are applied on a
+ * thread of their own, in commit order, after the committing thread has released its connection;
+ * if they pile up beyond refresh-queue-capacity, the index is cleared instead. Changes made
+ * through another instance are seen when the entry expires, ttl after it was read.
+ */
+@Slf4j
+@Component
+public class NoteIndex {
+
+    /** The ids of a page of matching notes, in list order, the number of matches and their facets. */
+    public record Hits(List<Long> noteIds, long total, Facets facets) {
+    }
+
+    /** A note whose title matches what is being typed. */
+    public record Suggestion(long noteId, String title, Note.Visibility visibility, LocalDateTime updatedAt) {
+    }
+
+    private final NoteRepository noteRepository;
+    private final ThreadPoolExecutor refresher;
+    private final Cache<Long, UserNotes> users;
+
+    public NoteIndex(
+            NoteRepository noteRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.note-index.max-notes:5000000}") long maxNotes,
+            @Value("${app.note-index.ttl:30m}") Duration ttl,
+            @Value("${app.note-index.refresh-queue-capacity:10000}") int refreshQueueCapacity) {
+        this.noteRepository = noteRepository;
+        this.refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueCapacity), task -> {
+                    Thread thread = new Thread(task, "note-index-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Weighted by note count; in-place updates keep the expiry of the load
+        this.users = Caffeine.newBuilder()
+                .maximumWeight(maxNotes)
+                .weigher((Long ownerId, UserNotes notes) -> Math.max(1, notes.size()))
+                .expireAfter(Expiry.<Long, UserNotes>creating((ownerId, notes) -> ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "note_index");
+    }
+
+    /** The owner's notes matching all the non-null conditions, see UserNotes.search. */
+    public Hits search(Long ownerId, TagFilter filter, String titleQuery, Note.Visibility visibility,
+                       long offset, int limit, boolean facets) {
+        return notesOf(ownerId).search(filter, titleQuery, visibility, offset, limit,
+                facets ? LocalDateTime.now() : null);
+    }
+
+    /** The owner's notes whose title matches the query as it is typed, see UserNotes.suggest. */
+    public List<Suggestion> suggest(Long ownerId, String query, int limit) {
+        return notesOf(ownerId).suggest(query, limit);
+    }
+
+    @TransactionalEventListener
+    public void onNoteChanged(NoteChangedEvent event) {
+        if (users.estimatedSize() == 0) {
+            return;
+        }
+        Runnable change = switch (event.type()) {
+            case CREATED, UPDATED -> () -> refresh(event);
+            case DELETED -> () -> event.noteIds().forEach(this::removeNote);
+            // Sharing does not change the owner's notes
+            default -> null;
+        };
+        if (change == null) {
+            return;
+        }
+        try {
+            refresher.execute(change);
+        } catch (RejectedExecutionException e) {
+            log.warn("Note index refresh queue is full, clearing the index");
+            users.invalidateAll();
+        }
+    }
+
+    private void refresh(NoteChangedEvent event) {
+        List<IndexedNote> notes;
+        try {
+            notes = noteRepository.findIndexedByIdIn(event.noteIds());
+        } catch (RuntimeException e) {
+            // Nothing tells whose entry is now stale
+            log.warn("Could not refresh notes {} in the note index, clearing it", event.noteIds(), e);
+            users.invalidateAll();
+            return;
+        }
+        // Waits for a load of the same owner in progress, then changes what it read
+        notes.forEach(note -> users.asMap().computeIfPresent(note.ownerId(), (ownerId, index) -> {
+            index.put(note);
+            return index;
+        }));
+        if (notes.size() < event.noteIds().size()) {
+            // Deleted by a later transaction
+            event.noteIds().stream()
+                    .filter(id -> notes.stream().noneMatch(note -> note.id() == id))
+                    .forEach(this::removeNote);
+        }
+    }
+
+    private void removeNote(Long noteId) {
+        users.asMap().forEach((ownerId, index) -> {
+            if (index.contains(noteId)) {
+                users.asMap().computeIfPresent(ownerId, (id, current) -> {
+                    current.remove(noteId);
+                    return current;
+                });
+            }
+        });
+    }
+
+    private UserNotes notesOf(Long ownerId) {
+        return users.get(ownerId, id -> UserNotes.of(noteRepository.findIndexedByOwnerId(id)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.backend_spring.search;
+
+import java.util.List;
+
+/**
+ * A boolean filter on the labels of a note, as typed in the tags parameter of the note list:
+ * <pre>
+ *   work AND (urgent OR today) AND NOT archived
+ *   work -archived "to read"
+ * </pre>
+ * AND, OR and NOT are upper case (a lower-case "and" is a label), AND binds tighter than OR and
+ * may be left out between two terms, "-" is a short NOT, and a label with spaces, parentheses or
+ * a leading "-" is written in double quotes, with \" and \\ inside. Labels match exactly, as the
+ * tag parameter does.
+ */
+public sealed interface TagFilter {
+
+    int MAX_LABELS = 32;
+    int MAX_DEPTH = 16;
+
+    record Label(String label) implements TagFilter {
+    }
+
+    record Not(TagFilter operand) implements TagFilter {
+    }
+
+    record And(List<TagFilter> operands) implements TagFilter {
+    }
+
+    record Or(List<TagFilter> operands) implements TagFilter {
+    }
+
+    /** Throws BadRequestException with the position of the first error. */
+    static TagFilter parse(String expression) {
+        return new TagFilterParser(expression).parse();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.exception.BadRequestException;
+import com.example.backend_spring.search.TagFilter.And;
+import com.example.backend_spring.search.TagFilter.Label;
+import com.example.backend_spring.search.TagFilter.Not;
+import com.example.backend_spring.search.TagFilter.Or;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/** Recursive descent over the grammar described on TagFilter, one character of lookahead. */
+final class TagFilterParser {
+
+    private final String input;
+    private int position;
+    private int labels;
+    private int depth;
+
+    TagFilterParser(String input) {
+        this.input = input;
+    }
+
+    TagFilter parse() {
+        skipSpaces();
+        if (position == input.length()) {
+            throw error("empty tag filter");
+        }
+        TagFilter filter = or();
+        if (position < input.length()) {
+            throw error("unexpected '" + input.charAt(position) + "'");
+        }
+        return filter;
+    }
+
+    private TagFilter or() {
+        List<TagFilter> operands = new ArrayList<>(List.of(and()));
+        while (keyword("OR")) {
+            operands.add(and());
+        }
+        return operands.size() == 1 ? operands.get(0) : new Or(List.copyOf(operands));
+    }
+
+    private TagFilter and() {
+        List<TagFilter> operands = new ArrayList<>(List.of(unary()));
+        while (true) {
+            if (keyword("AND")) {
+                operands.add(unary());
+            } else if (position < input.length() && input.charAt(position) != ')' && !isKeyword("OR")) {
+                operands.add(unary());
+            } else {
+                break;
+            }
+        }
+        return operands.size() == 1 ? operands.get(0) : new And(List.copyOf(operands));
+    }
+
+    private TagFilter unary() {
+        if (position == input.length()) {
+            throw error("missing label");
+        }
+        if (keyword("NOT") || symbol('-')) {
+            return new Not(nested(this::unary));
+        }
+        if (symbol('(')) {
+            TagFilter filter = nested(this::or);
+            if (!symbol(')')) {
+                throw error("missing ')'");
+            }
+            return filter;
+        }
+        if (input.charAt(position) == ')' || isKeyword("AND") || isKeyword("OR")) {
+            throw error("missing label");
+        }
+        if (++labels > TagFilter.MAX_LABELS) {
+            throw error("more than " + TagFilter.MAX_LABELS + " labels");
+        }
+        return new Label(input.charAt(position) == '"' ? quoted() : word());
+    }
+
+    private TagFilter nested(Supplier<TagFilter> rule) {
+        if (++depth > TagFilter.MAX_DEPTH) {
+            throw error("nested more than " + TagFilter.MAX_DEPTH + " levels");
+        }
+        TagFilter filter = rule.get();
+        depth--;
+        return filter;
+    }
+
+    private String word() {
+        int start = position;
+        while (position < input.length() && !isDelimiter(input.charAt(position))) {
+            position++;
+        }
+        String word = input.substring(start, position);
+        skipSpaces();
+        return word;
+    }
+
+    private String quoted() {
+        StringBuilder label = new StringBuilder();
+        position++;
+        while (true) {
+            if (position == input.length()) {
+                throw error("missing '\"'");
+            }
+            char c = input.charAt(position++);
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\' && position < input.length()) {
+                c = input.charAt(position++);
+            }
+            label.append(c);
+        }
+        skipSpaces();
+        if (label.isEmpty()) {
+            throw error("empty label");
+        }
+        return label.toString();
+    }
+
+    private boolean keyword(String keyword) {
+        if (!isKeyword(keyword)) {
+            return false;
+        }
+        position += keyword.length();
+        skipSpaces();
+        return true;
+    }
+
+    private boolean isKeyword(String keyword) {
+        int end = position + keyword.length();
+        return input.startsWith(keyword, position)
+                && (end == input.length() || isDelimiter(input.charAt(end)));
+    }
+
+    private boolean symbol(char symbol) {
+        if (position == input.length() || input.charAt(position) != symbol) {
+            return false;
+        }
+        position++;
+        skipSpaces();
+        return true;
+    }
+
+    private void skipSpaces() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isDelimiter(char c) {
+        return Character.isWhitespace(c) || c == '(' || c == ')';
+    }
+
+    private BadRequestException error(String message) {
+        return new BadRequestException("Invalid tag filter at " + position + ": " + message);
+    }
+}
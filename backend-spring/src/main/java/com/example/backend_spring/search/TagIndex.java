@@ -0,0 +1,93 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.repository.TagRepository;
+import com.example.backend_spring.repository.TagRepositoryCustom.TagCount;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per user, the labels on their own notes and how many notes carry each (see UserTags), so
+ * autocomplete and the tag cloud are answered from memory. A user's tags are read from the
+ * database on first use, then kept up to date in place: NoteService reports the labels a note
+ * gained and lost, and the counts are changed once that commits (TagsChangedEvent).
+ * <p>
+ * Only a snapshot whose rows were read before the change started committing is changed; one read
+ * later may already include it, and is dropped to be read again. Loads happen outside read-only
+ * transactions, on the primary, for the same reason. Changes made through another instance are
+ * seen when the entry expires, ttl after it was read.
+ */
+@Component
+public class TagIndex {
+
+    private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<Long, UserTags> users;
+
+    public TagIndex(
+            TagRepository tagRepository,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${app.tag-index.max-labels:2000000}") long maxLabels,
+            @Value("${app.tag-index.ttl:30m}") Duration ttl) {
+        this.tagRepository = tagRepository;
+        this.eventPublisher = eventPublisher;
+        // Weighted by label count; in-place updates keep the expiry of the load
+        this.users = Caffeine.newBuilder()
+                .maximumWeight(maxLabels)
+                .weigher((Long ownerId, UserTags tags) -> Math.max(1, tags.size()))
+                .expireAfter(Expiry.<Long, UserTags>creating((ownerId, tags) -> ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "tag_index");
+    }
+
+    /** The owner's most used labels starting with prefix, ignoring case. */
+    public List<TagCount> suggest(Long ownerId, String prefix, int limit) {
+        return tagsOf(ownerId).withPrefix(prefix, limit);
+    }
+
+    /** The owner's most used labels. */
+    public List<TagCount> top(Long ownerId, int limit) {
+        return tagsOf(ownerId).top(limit);
+    }
+
+    /** Call in the transaction changing the tags of one of the owner's notes. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void tagsChanged(Long ownerId, Collection<String> removed, Collection<String> added) {
+        Map<String, Integer> delta = new HashMap<>();
+        removed.forEach(label -> delta.merge(label, -1, Integer::sum));
+        added.forEach(label -> delta.merge(label, 1, Integer::sum));
+        delta.values().removeIf(change -> change == 0);
+        if (!delta.isEmpty()) {
+            eventPublisher.publishEvent(new TagsChangedEvent(ownerId, delta, System.nanoTime()));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTagsChanged(TagsChangedEvent event) {
+        users.asMap().computeIfPresent(event.ownerId(), (ownerId, tags) ->
+                tags.loadedAt < event.changedAt() ? tags.apply(event.delta()) : null);
+    }
+
+    private UserTags tagsOf(Long ownerId) {
+        return users.get(ownerId, id -> {
+            List<TagCount> counts = tagRepository.countByOwner(id);
+            return UserTags.of(counts, System.nanoTime());
+        });
+    }
+}
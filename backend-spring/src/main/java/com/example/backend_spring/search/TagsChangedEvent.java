@@ -0,0 +1,10 @@
+package com.example.backend_spring.search;
+
+import java.util.Map;
+
+/**
+ * Published by TagIndex.tagsChanged: per label, the change in the number of the owner's notes
+ * carrying it. changedAt (System.nanoTime) is taken before the transaction commits.
+ */
+public record TagsChangedEvent(Long ownerId, Map<String, Integer> delta, long changedAt) {
+}
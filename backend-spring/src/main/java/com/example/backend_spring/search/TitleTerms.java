@@ -0,0 +1,183 @@
+package com.example.backend_spring.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * The words of one user's note titles, for search as you type: each distinct word (a term) gets
+ * an id and a NoteBitmap of the ordinals whose title holds it, and each bigram of "^term$" a
+ * NoteBitmap of the term ids holding it. A query word is compared only with the terms sharing
+ * enough of its bigrams to be within reach, then with an edit distance counting a swap of two
+ * adjacent letters as one edit.
+ * <p>
+ * Words are lower case without accents, so "Éte" finds "été". Terms no title uses any more keep
+ * their id, with an empty bitmap, until the entry is loaded again. Not thread-safe, UserNotes
+ * guards it with its lock.
+ */
+final class TitleTerms {
+
+    static final int MAX_QUERY_TERMS = 8;
+    static final int MAX_TERM_LENGTH = 32;
+
+    private static final char START = '^';
+    private static final char END = '$';
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<NoteBitmap> byTerm = new ArrayList<>();
+    private final Map<Integer, NoteBitmap> byBigram = new HashMap<>();
+
+    /** Adds the ordinal to the notes of each word of the title, returns the ids of those words. */
+    int[] add(int ordinal, String title) {
+        List<String> words = words(title);
+        int[] ids = new int[words.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = termIds.computeIfAbsent(words.get(i), this::newTerm);
+            byTerm.get(ids[i]).add(ordinal);
+        }
+        return ids;
+    }
+
+    void remove(int ordinal, int[] ids) {
+        for (int id : ids) {
+            byTerm.get(id).remove(ordinal);
+        }
+    }
+
+    /**
+     * The notes whose title has a word within reach of the query word, as one bitmap per number
+     * of edits: exact matches at 0, then 1 and 2 edits, a note being in the first that has it.
+     * A prefix query word is within reach of the words it is close to a prefix of.
+     */
+    NoteBitmap[] match(String word, boolean prefix) {
+        int edits = allowedEdits(word.length());
+        NoteBitmap[] byEdits = new NoteBitmap[edits + 1];
+        for (int i = 0; i <= edits; i++) {
+            byEdits[i] = new NoteBitmap();
+        }
+        int[] shared = new int[terms.size()];
+        forEachBigram(word, prefix, bigram -> {
+            NoteBitmap withBigram = byBigram.get(bigram);
+            if (withBigram != null) {
+                withBigram.forEach(id -> shared[id]++);
+            }
+        });
+        // Each edit changes at most three bigrams of "^word$" (a swap), and a prefix has no "$"
+        int minShared = Math.max(1, (prefix ? word.length() : word.length() + 1) - 3 * edits);
+        for (int id = 0; id < shared.length; id++) {
+            if (shared[id] < minShared || byTerm.get(id).isEmpty()) {
+                continue;
+            }
+            int distance = distance(word, terms.get(id), edits, prefix);
+            if (distance <= edits) {
+                byEdits[distance] = byEdits[distance].or(byTerm.get(id));
+            }
+        }
+        for (int i = 1; i <= edits; i++) {
+            for (int fewer = 0; fewer < i; fewer++) {
+                byEdits[i] = byEdits[i].andNot(byEdits[fewer]);
+            }
+        }
+        return byEdits;
+    }
+
+    /** None up to three letters, one up to seven, two from eight: short words drift too easily. */
+    static int allowedEdits(int length) {
+        return length <= 3 ? 0 : length <= 7 ? 1 : 2;
+    }
+
+    /** Lower case words without accents, cut to MAX_TERM_LENGTH; anything else separates them. */
+    static List<String> words(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (word.length() < MAX_TERM_LENGTH) {
+                    word.append(c);
+                }
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Edit distance between word and term, or with prefix between word and the closest prefix of
+     * term, insertions, deletions, substitutions and swaps of adjacent letters counting one; any
+     * value above max means more than max.
+     */
+    static int distance(String word, String term, int max, boolean prefix) {
+        int n = word.length();
+        int m = prefix ? Math.min(term.length(), n + max) : term.length();
+        if (!prefix && Math.abs(n - m) > max || m < n - max) {
+            return max + 1;
+        }
+        int[] before = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = word.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && word.charAt(i - 1) == term.charAt(j - 2)
+                        && word.charAt(i - 2) == term.charAt(j - 1)) {
+                    value = Math.min(value, before[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        if (!prefix) {
+            return previous[m];
+        }
+        int best = previous[0];
+        for (int j = 1; j <= m; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private Integer newTerm(String term) {
+        int id = terms.size();
+        terms.add(term);
+        byTerm.add(new NoteBitmap());
+        forEachBigram(term, false, bigram -> byBigram.computeIfAbsent(bigram, key -> new NoteBitmap()).add(id));
+        return id;
+    }
+
+    // Bigrams of "^word$", or of "^word" for a prefix, two chars in an int
+    private static void forEachBigram(String word, boolean prefix, IntConsumer action) {
+        char previous = START;
+        for (int i = 0; i < word.length(); i++) {
+            action.accept(previous << 16 | word.charAt(i));
+            previous = word.charAt(i);
+        }
+        if (!prefix) {
+            action.accept(previous << 16 | END);
+        }
+    }
+}
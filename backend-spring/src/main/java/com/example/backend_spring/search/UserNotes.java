@@ -0,0 +1,462 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.repository.NoteRepositoryCustom.IndexedNote;
+import com.example.backend_spring.repository.TagRepositoryCustom.TagCount;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One user's own notes, for filtering without the database: each note gets an ordinal, its
+ * columns are kept in arrays indexed by ordinal, and each label and visibility has a NoteBitmap
+ * of the ordinals carrying it. A tag filter is then a few bitmap operations, and the page is the
+ * most recently updated of the matches. Facets are counted while the matches are walked for the
+ * page, from per-ordinal columns, so they add no pass of their own. The words of the titles are
+ * kept in TitleTerms, for search as you type.
+ * <p>
+ * Changed in place under a write lock (put, remove); a deleted note leaves its ordinal unused
+ * until the entry is loaded again.
+ */
+final class UserNotes {
+
+    private static final Note.Visibility[] VISIBILITIES = Note.Visibility.values();
+    private static final int MAX_TAG_FACETS = 20;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals;
+    private final Map<String, Integer> labelIds = new HashMap<>();
+    private final List<NoteBitmap> byLabel = new ArrayList<>();
+    private final List<String> labelNames = new ArrayList<>();
+    private final NoteBitmap[] byVisibility = new NoteBitmap[VISIBILITIES.length];
+    private final NoteBitmap live = new NoteBitmap();
+    private long[] noteIds;
+    // Microseconds since the epoch, the precision of the column
+    private long[] updatedAt;
+    private byte[] visibilities;
+    private String[] titles;
+    private String[] titleKeys;
+    private int[][] labelsOf;
+    private int[][] termsOf;
+    private final TitleTerms titleTerms = new TitleTerms();
+    private int next;
+
+    private UserNotes(int capacity) {
+        ordinals = new HashMap<>(Math.max(16, capacity * 4 / 3 + 1));
+        noteIds = new long[Math.max(16, capacity)];
+        updatedAt = new long[noteIds.length];
+        visibilities = new byte[noteIds.length];
+        titles = new String[noteIds.length];
+        titleKeys = new String[noteIds.length];
+        labelsOf = new int[noteIds.length][];
+        termsOf = new int[noteIds.length][];
+        for (int i = 0; i < byVisibility.length; i++) {
+            byVisibility[i] = new NoteBitmap();
+        }
+    }
+
+    static UserNotes of(List<IndexedNote> notes) {
+        UserNotes index = new UserNotes(notes.size());
+        notes.forEach(index::add);
+        return index;
+    }
+
+    /** Adds the note or replaces what is known of it, unless what is known is more recent. */
+    void put(IndexedNote note) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(note.id());
+            if (ordinal == null) {
+                add(note);
+            } else if (micros(note.updatedAt()) >= updatedAt[ordinal]) {
+                clear(ordinal);
+                set(ordinal, note);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long noteId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(noteId);
+            if (ordinal != null) {
+                clear(ordinal);
+                live.remove(ordinal);
+                titles[ordinal] = null;
+                titleKeys[ordinal] = null;
+                labelsOf[ordinal] = null;
+                termsOf[ordinal] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(long noteId) {
+        lock.readLock().lock();
+        try {
+            return ordinals.containsKey(noteId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The ids of the notes matching all the given conditions, most recently updated first, from
+     * offset; null conditions match every note. titleQuery matches titles containing it, ignoring
+     * case, like NoteRepository.searchNotes. With facetsAt, the facets of all the matches are
+     * counted in the same pass, updated-at ranges going back from facetsAt.
+     */
+    NoteIndex.Hits search(TagFilter filter, String titleQuery, Note.Visibility visibility, long offset, int limit,
+                          LocalDateTime facetsAt) {
+        lock.readLock().lock();
+        try {
+            NoteBitmap matches = filter != null ? evaluate(filter) : live;
+            if (visibility != null) {
+                matches = matches.and(byVisibility[visibility.ordinal()]);
+            }
+            String titleKey = titleQuery == null || titleQuery.isEmpty() ? null : key(titleQuery);
+            Newest newest = new Newest((int) Math.min(offset + limit, Integer.MAX_VALUE));
+            FacetCounts counts = facetsAt != null ? new FacetCounts(micros(facetsAt)) : null;
+            matches.forEach(ordinal -> {
+                if (titleKey == null || titleKeys[ordinal].contains(titleKey)) {
+                    newest.offer(ordinal);
+                    if (counts != null) {
+                        counts.add(ordinal);
+                    }
+                }
+            });
+            int[] page = newest.sorted();
+            List<Long> ids = new ArrayList<>(Math.max(0, page.length - (int) Math.min(offset, page.length)));
+            for (int i = (int) Math.min(offset, page.length); i < page.length; i++) {
+                ids.add(noteIds[page[i]]);
+            }
+            return new NoteIndex.Hits(ids, newest.total, counts != null ? counts.facets() : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search as you type: the notes whose title has, for each word of the query, a word within a
+     * few edits of it (see TitleTerms), the last word of the query being matched as the start of
+     * a word unless the query ends with a separator. Notes needing fewer edits in all come first,
+     * then the most recently updated.
+     */
+    List<NoteIndex.Suggestion> suggest(String query, int limit) {
+        List<String> words = TitleTerms.words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        words = words.subList(0, Math.min(words.size(), TitleTerms.MAX_QUERY_TERMS));
+        boolean lastIsPrefix = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        lock.readLock().lock();
+        try {
+            NoteBitmap[][] byEdits = new NoteBitmap[words.size()][];
+            NoteBitmap matches = live;
+            for (int i = 0; i < byEdits.length && !matches.isEmpty(); i++) {
+                byEdits[i] = titleTerms.match(words.get(i), lastIsPrefix && i == byEdits.length - 1);
+                NoteBitmap any = byEdits[i][0];
+                for (int edits = 1; edits < byEdits[i].length; edits++) {
+                    any = any.or(byEdits[i][edits]);
+                }
+                matches = matches.and(any);
+            }
+            Newest newest = new Newest(limit);
+            matches.forEach(ordinal -> {
+                int edits = 0;
+                for (NoteBitmap[] word : byEdits) {
+                    int wordEdits = 0;
+                    while (!word[wordEdits].contains(ordinal)) {
+                        wordEdits++;
+                    }
+                    edits += wordEdits;
+                }
+                newest.offer(ordinal, edits);
+            });
+            List<NoteIndex.Suggestion> suggestions = new ArrayList<>();
+            for (int ordinal : newest.sorted()) {
+                suggestions.add(new NoteIndex.Suggestion(noteIds[ordinal], titles[ordinal],
+                        VISIBILITIES[visibilities[ordinal]], dateTime(updatedAt[ordinal])));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Positive operands of an AND are intersected smallest first, negated ones then removed, so a
+    // NOT never builds the complement of its operand
+    private NoteBitmap evaluate(TagFilter filter) {
+        if (filter instanceof TagFilter.Label label) {
+            Integer id = labelIds.get(label.label());
+            return id != null ? byLabel.get(id) : new NoteBitmap();
+        }
+        if (filter instanceof TagFilter.Not not) {
+            return live.andNot(evaluate(not.operand()));
+        }
+        if (filter instanceof TagFilter.Or or) {
+            NoteBitmap result = new NoteBitmap();
+            for (TagFilter operand : or.operands()) {
+                result = result.or(evaluate(operand));
+            }
+            return result;
+        }
+        List<TagFilter> operands = ((TagFilter.And) filter).operands();
+        List<NoteBitmap> included = new ArrayList<>(operands.size());
+        List<NoteBitmap> excluded = new ArrayList<>();
+        for (TagFilter operand : operands) {
+            if (operand instanceof TagFilter.Not not) {
+                excluded.add(evaluate(not.operand()));
+            } else {
+                included.add(evaluate(operand));
+            }
+        }
+        included.sort(Comparator.comparingInt(NoteBitmap::cardinality));
+        NoteBitmap result = included.isEmpty() ? live : included.get(0);
+        for (int i = 1; i < included.size() && !result.isEmpty(); i++) {
+            result = result.and(included.get(i));
+        }
+        for (int i = 0; i < excluded.size() && !result.isEmpty(); i++) {
+            result = result.andNot(excluded.get(i));
+        }
+        return result;
+    }
+
+    private void add(IndexedNote note) {
+        int ordinal = next++;
+        if (ordinal == noteIds.length) {
+            int capacity = ordinal * 2;
+            noteIds = Arrays.copyOf(noteIds, capacity);
+            updatedAt = Arrays.copyOf(updatedAt, capacity);
+            visibilities = Arrays.copyOf(visibilities, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            titleKeys = Arrays.copyOf(titleKeys, capacity);
+            labelsOf = Arrays.copyOf(labelsOf, capacity);
+            termsOf = Arrays.copyOf(termsOf, capacity);
+        }
+        ordinals.put(note.id(), ordinal);
+        noteIds[ordinal] = note.id();
+        live.add(ordinal);
+        set(ordinal, note);
+    }
+
+    private void set(int ordinal, IndexedNote note) {
+        updatedAt[ordinal] = micros(note.updatedAt());
+        titles[ordinal] = note.title();
+        titleKeys[ordinal] = key(note.title());
+        termsOf[ordinal] = titleTerms.add(ordinal, note.title());
+        visibilities[ordinal] = (byte) note.visibility().ordinal();
+        byVisibility[note.visibility().ordinal()].add(ordinal);
+        int[] labels = new int[note.labels().size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = labelIds.computeIfAbsent(note.labels().get(i), label -> {
+                byLabel.add(new NoteBitmap());
+                labelNames.add(label);
+                return byLabel.size() - 1;
+            });
+            byLabel.get(labels[i]).add(ordinal);
+        }
+        labelsOf[ordinal] = labels;
+    }
+
+    private void clear(int ordinal) {
+        for (NoteBitmap visibility : byVisibility) {
+            visibility.remove(ordinal);
+        }
+        for (int label : labelsOf[ordinal]) {
+            byLabel.get(label).remove(ordinal);
+        }
+        titleTerms.remove(ordinal, termsOf[ordinal]);
+    }
+
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static String key(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    // Counts per label id, visibility and updated-at range, for the matches offered so far
+    private final class FacetCounts {
+
+        private static final Facets.UpdatedRange[] RANGES = Facets.UpdatedRange.values();
+
+        private final int[] labels = new int[byLabel.size()];
+        private final int[] visibility = new int[VISIBILITIES.length];
+        private final int[] updated = new int[RANGES.length];
+        // Oldest updatedAt of each range but the last, in microseconds
+        private final long[] since = new long[RANGES.length - 1];
+
+        FacetCounts(long now) {
+            for (int i = 0; i < since.length; i++) {
+                since[i] = now - RANGES[i].within.toNanos() / 1_000;
+            }
+        }
+
+        void add(int ordinal) {
+            for (int label : labelsOf[ordinal]) {
+                labels[label]++;
+            }
+            visibility[visibilities[ordinal]]++;
+            long time = updatedAt[ordinal];
+            int range = 0;
+            while (range < since.length && time < since[range]) {
+                range++;
+            }
+            updated[range]++;
+        }
+
+        Facets facets() {
+            // Insertion into the few kept so far, most used first; most labels fail the first test
+            int[] top = new int[Math.min(MAX_TAG_FACETS, labels.length)];
+            int size = 0;
+            for (int label = 0; label < labels.length; label++) {
+                if (labels[label] == 0 || (size == top.length && !moreUsed(label, top[size - 1]))) {
+                    continue;
+                }
+                int index = size < top.length ? size++ : size - 1;
+                while (index > 0 && moreUsed(label, top[index - 1])) {
+                    top[index] = top[index - 1];
+                    index--;
+                }
+                top[index] = label;
+            }
+            List<TagCount> tags = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                tags.add(new TagCount(labelNames.get(top[i]), labels[top[i]]));
+            }
+
+            Map<Note.Visibility, Integer> byVisibility = new EnumMap<>(Note.Visibility.class);
+            for (Note.Visibility value : VISIBILITIES) {
+                byVisibility.put(value, visibility[value.ordinal()]);
+            }
+            Map<Facets.UpdatedRange, Integer> byRange = new EnumMap<>(Facets.UpdatedRange.class);
+            for (Facets.UpdatedRange range : RANGES) {
+                byRange.put(range, updated[range.ordinal()]);
+            }
+            return new Facets(List.copyOf(tags), byVisibility, byRange);
+        }
+
+        // Same order as UserTags.BY_USAGE
+        private boolean moreUsed(int label, int other) {
+            return labels[label] != labels[other]
+                    ? labels[label] > labels[other]
+                    : labelNames.get(label).compareTo(labelNames.get(other)) < 0;
+        }
+    }
+
+    // Bounded min-heap of ordinals, the last to list at the root: O(matches * log(limit)), the
+    // matches are never sorted as a whole. A lower rank lists first, whatever the update time
+    private final class Newest {
+
+        private final int[] heap;
+        private final int[] ranks;
+        private int size;
+        private int total;
+
+        Newest(int limit) {
+            heap = new int[Math.min(limit, Math.max(0, next))];
+            ranks = new int[heap.length];
+        }
+
+        void offer(int ordinal) {
+            offer(ordinal, 0);
+        }
+
+        void offer(int ordinal, int rank) {
+            total++;
+            if (size < heap.length) {
+                heap[size] = ordinal;
+                ranks[size] = rank;
+                up(size++);
+            } else if (size > 0 && (rank != ranks[0] ? rank < ranks[0] : newer(ordinal, heap[0]))) {
+                heap[0] = ordinal;
+                ranks[0] = rank;
+                down(0);
+            }
+        }
+
+        int[] sorted() {
+            Integer[] positions = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                positions[i] = i;
+            }
+            Arrays.sort(positions, (a, b) -> before(a, b) ? -1 : before(b, a) ? 1 : 0);
+            return Arrays.stream(positions).mapToInt(position -> heap[position]).toArray();
+        }
+
+        private void up(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!before(parent, index)) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void down(int index) {
+            while (true) {
+                int last = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (before(last, child)) {
+                        last = child;
+                    }
+                }
+                if (last == index) {
+                    return;
+                }
+                swap(index, last);
+                index = last;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int ordinal = heap[i];
+            heap[i] = heap[j];
+            heap[j] = ordinal;
+            int rank = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = rank;
+        }
+
+        // Whether the note at heap position i lists before the one at j
+        private boolean before(int i, int j) {
+            return ranks[i] != ranks[j] ? ranks[i] < ranks[j] : newer(heap[i], heap[j]);
+        }
+
+        // Same order as the list: updatedAt descending, then id descending
+        private boolean newer(int a, int b) {
+            return updatedAt[a] != updatedAt[b] ? updatedAt[a] > updatedAt[b] : noteIds[a] > noteIds[b];
+        }
+    }
+}
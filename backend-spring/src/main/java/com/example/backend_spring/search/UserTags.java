@@ -0,0 +1,117 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.repository.TagRepositoryCustom.TagCount;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * One user's tag usage, immutable: labels sorted by their lower-cased form, so the labels
+ * starting with a prefix are one contiguous range found by binary search.
+ */
+final class UserTags {
+
+    // Most used first, then alphabetical
+    static final Comparator<TagCount> BY_USAGE = Comparator.comparingInt(TagCount::count).reversed()
+            .thenComparing(TagCount::label);
+
+    private final String[] keys;
+    private final String[] labels;
+    private final int[] counts;
+    // System.nanoTime once the rows were read, see TagIndex.onTagsChanged
+    final long loadedAt;
+
+    private UserTags(String[] keys, String[] labels, int[] counts, long loadedAt) {
+        this.keys = keys;
+        this.labels = labels;
+        this.counts = counts;
+        this.loadedAt = loadedAt;
+    }
+
+    static UserTags of(List<TagCount> tags, long loadedAt) {
+        TagCount[] sorted = tags.stream()
+                .filter(tag -> tag.count() > 0)
+                .sorted(Comparator.comparing((TagCount tag) -> key(tag.label())).thenComparing(TagCount::label))
+                .toArray(TagCount[]::new);
+        String[] keys = new String[sorted.length];
+        String[] labels = new String[sorted.length];
+        int[] counts = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = key(sorted[i].label());
+            labels[i] = sorted[i].label();
+            counts[i] = sorted[i].count();
+        }
+        return new UserTags(keys, labels, counts, loadedAt);
+    }
+
+    int size() {
+        return labels.length;
+    }
+
+    /** The limit most used labels starting with prefix, ignoring case. */
+    List<TagCount> withPrefix(String prefix, int limit) {
+        String key = key(prefix);
+        int from = lowerBound(key);
+        // No label of this user sorts between the prefix and the prefix followed by the last char
+        int to = lowerBound(key + Character.MAX_VALUE);
+        return top(from, to, limit);
+    }
+
+    List<TagCount> top(int limit) {
+        return top(0, labels.length, limit);
+    }
+
+    /** A copy with the counts changed by delta; labels left with no note are removed. */
+    UserTags apply(Map<String, Integer> delta) {
+        Map<String, Integer> merged = new HashMap<>(labels.length + delta.size());
+        for (int i = 0; i < labels.length; i++) {
+            merged.put(labels[i], counts[i]);
+        }
+        delta.forEach((label, change) -> merged.merge(label, change, Integer::sum));
+        List<TagCount> tags = new ArrayList<>(merged.size());
+        merged.forEach((label, count) -> tags.add(new TagCount(label, count)));
+        return of(tags, loadedAt);
+    }
+
+    // Bounded heap over the range: O(range * log(limit)), the range is never sorted as a whole
+    private List<TagCount> top(int from, int to, int limit) {
+        if (from >= to || limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<TagCount> best = new PriorityQueue<>(Math.min(limit, to - from) + 1, BY_USAGE.reversed());
+        for (int i = from; i < to; i++) {
+            TagCount tag = new TagCount(labels[i], counts[i]);
+            if (best.size() < limit) {
+                best.add(tag);
+            } else if (BY_USAGE.compare(tag, best.peek()) < 0) {
+                best.poll();
+                best.add(tag);
+            }
+        }
+        TagCount[] result = best.toArray(TagCount[]::new);
+        Arrays.sort(result, BY_USAGE);
+        return List.of(result);
+    }
+
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Labels differing only by case share a key, go back to the first one
+        while (index > 0 && keys[index - 1].equals(key)) {
+            index--;
+        }
+        return index;
+    }
+
+    private static String key(String label) {
+        return label.toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.backend_spring.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -10,11 +11,16 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    private static final String TYPE_CLAIM = "type";
+    private static final String REFRESH_TYPE = "refresh";
+    private static final String FAMILY_CLAIM = "fam";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -24,8 +30,16 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // Built once: deriving the key and the parser on every request showed up in profiles
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     public String extractEmail(String token) {
@@ -42,44 +56,67 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String generateAccessToken(UserDetails userDetails) {
+        return generateAccessToken(userDetails.getUsername());
     }
 
-    public String generateAccessToken(UserDetails userDetails) {
+    public String generateAccessToken(String email) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername(), expiration);
+        return createToken(claims, email, null, expiration);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
+    /** tokenId goes to the jti claim, see RefreshTokenService for how it is stored. */
+    public String generateRefreshToken(String email, UUID tokenId, UUID familyId) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "refresh");
-        return createToken(claims, userDetails.getUsername(), refreshExpiration);
+        claims.put(TYPE_CLAIM, REFRESH_TYPE);
+        claims.put(FAMILY_CLAIM, familyId.toString());
+        return createToken(claims, email, tokenId.toString(), refreshExpiration);
     }
 
-    private String createToken(Map<String, Object> claims, String subject, Long expiration) {
+    private String createToken(Map<String, Object> claims, String subject, String id, Long expiration) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
+                .id(id)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry of a refresh token and returns its claims.
+     * Throws JwtException for anything else, access tokens and tokens issued before rotation included.
+     */
+    public Claims parseRefreshToken(String token) {
+        Claims claims = extractAllClaims(token);
+        if (!REFRESH_TYPE.equals(claims.get(TYPE_CLAIM)) || claims.getId() == null
+                || claims.get(FAMILY_CLAIM) == null) {
+            throw new MalformedJwtException("Not a refresh token");
+        }
+        return claims;
+    }
+
+    public UUID extractFamilyId(Claims refreshClaims) {
+        return UUID.fromString(refreshClaims.get(FAMILY_CLAIM, String.class));
+    }
+
+    /** Access tokens only: a refresh token is not accepted as a bearer token. */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().after(new Date())
+                && !REFRESH_TYPE.equals(claims.get(TYPE_CLAIM));
     }
 
     public Long getExpirationTime() {
         return expiration;
     }
-}
\ No newline at end of file
+
+    public Long getRefreshExpirationTime() {
+        return refreshExpiration;
+    }
+}
@@ -4,16 +4,15 @@ import com.example.backend_spring.dto.UserDto;
 import com.example.backend_spring.dto.auth.*;
 import com.example.backend_spring.entity.User;
 import com.example.backend_spring.exception.BadRequestException;
+import com.example.backend_spring.exception.ResourceNotFoundException;
 import com.example.backend_spring.repository.UserRepository;
 import com.example.backend_spring.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
@@ -23,36 +22,28 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional
+    /**
+     * The password is hashed before the transaction: the hash may wait in the queue of the
+     * BoundedPasswordEncoder, and no database connection is held meanwhile.
+     */
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Email already registered");
         }
         
-        User user = User.builder()
-                .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
-                .build();
-        
-        user = userRepository.save(user);
+        String passwordHash = passwordEncoder.encode(request.getPassword());
         
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String accessToken = jwtUtil.generateAccessToken(userDetails);
-        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
-        
-        return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .tokenType("Bearer")
-                .expiresIn(jwtUtil.getExpirationTime())
-                .user(UserDto.builder()
-                        .id(user.getId())
-                        .email(user.getEmail())
-                        .createdAt(user.getCreatedAt())
-                        .build())
-                .build();
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .email(request.getEmail())
+                    .passwordHash(passwordHash)
+                    .build());
+            
+            return toResponse(user, refreshTokenService.issue(user));
+        });
     }
     
     public AuthResponse login(LoginRequest request) {
@@ -66,40 +57,37 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new BadRequestException("Invalid credentials"));
         
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String accessToken = jwtUtil.generateAccessToken(userDetails);
-        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+        return toResponse(user, refreshTokenService.issue(user));
+    }
+    
+    public AuthResponse refreshToken(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
         
         return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .accessToken(jwtUtil.generateAccessToken(rotation.user().email()))
+                .refreshToken(rotation.refreshToken())
                 .tokenType("Bearer")
                 .expiresIn(jwtUtil.getExpirationTime())
                 .user(UserDto.builder()
-                        .id(user.getId())
-                        .email(user.getEmail())
-                        .createdAt(user.getCreatedAt())
+                        .id(rotation.user().id())
+                        .email(rotation.user().email())
+                        .createdAt(rotation.user().createdAt())
                         .build())
                 .build();
     }
     
-    public AuthResponse refreshToken(RefreshTokenRequest request) {
-        String email = jwtUtil.extractEmail(request.getRefreshToken());
-        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-        
-        if (!jwtUtil.validateToken(request.getRefreshToken(), userDetails)) {
-            throw new BadRequestException("Invalid refresh token");
-        }
-        
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("User not found"));
-        
-        String accessToken = jwtUtil.generateAccessToken(userDetails);
-        String newRefreshToken = jwtUtil.generateRefreshToken(userDetails);
+    /** Revokes every refresh token of the user; access tokens already issued run until they expire. */
+    public void logoutAll(String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
+        refreshTokenService.revokeAll(user.getId());
+    }
+    
+    private AuthResponse toResponse(User user, String refreshToken) {
         return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(newRefreshToken)
+                .accessToken(jwtUtil.generateAccessToken(user.getEmail()))
+                .refreshToken(refreshToken)
                 .tokenType("Bearer")
                 .expiresIn(jwtUtil.getExpirationTime())
                 .user(UserDto.builder()
@@ -0,0 +1,158 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.dto.group.*;
+import com.example.backend_spring.entity.*;
+import com.example.backend_spring.exception.*;
+import com.example.backend_spring.repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class GroupService {
+
+    private final UserGroupRepository userGroupRepository;
+    private final GroupMembershipRepository groupMembershipRepository;
+    private final NoteGroupAccessRepository noteGroupAccessRepository;
+    private final ShareRepository shareRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public GroupDto createGroup(CreateGroupRequest request, String userEmail) {
+        User owner = getUserByEmail(userEmail);
+
+        UserGroup group = userGroupRepository.save(UserGroup.builder()
+                .name(request.getName())
+                .owner(owner)
+                .build());
+        addMembership(group, owner);
+
+        return toDto(group, List.of(owner.getEmail()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<GroupDto> getMyGroups(String userEmail) {
+        User user = getUserByEmail(userEmail);
+        return userGroupRepository.findByMemberId(user.getId()).stream()
+                .map(group -> toDto(group, null))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public GroupDto getGroup(Long groupId, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        UserGroup group = getGroupById(groupId);
+
+        if (!groupMembershipRepository.existsByGroupIdAndUserId(groupId, user.getId())) {
+            throw new ForbiddenException("You are not a member of this group");
+        }
+        return toDto(group, memberEmails(groupId));
+    }
+
+    @Transactional
+    public GroupDto addMember(Long groupId, AddGroupMemberRequest request, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        UserGroup group = getOwnedGroup(groupId, user);
+
+        User member = userRepository.findByEmail(request.getEmail())
+                .orElseThrow(() -> new ResourceNotFoundException("User to add not found"));
+
+        if (groupMembershipRepository.existsByGroupIdAndUserId(groupId, member.getId())) {
+            throw new BadRequestException("User already in this group");
+        }
+        addMembership(group, member);
+
+        return toDto(group, memberEmails(groupId));
+    }
+
+    /** The group owner removes anyone but themselves, other members can only leave. */
+    @Transactional
+    public void removeMember(Long groupId, Long memberId, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        UserGroup group = getGroupById(groupId);
+
+        boolean isOwner = group.getOwner().getId().equals(user.getId());
+        if (!isOwner && !user.getId().equals(memberId)) {
+            throw new ForbiddenException("You don't have permission to manage this group");
+        }
+        if (group.getOwner().getId().equals(memberId)) {
+            throw new BadRequestException("The owner cannot leave the group, delete it instead");
+        }
+
+        GroupMembership membership = groupMembershipRepository.findByGroupIdAndUserId(groupId, memberId)
+                .orElseThrow(() -> new ResourceNotFoundException("Member not found"));
+        groupMembershipRepository.delete(membership);
+        eventPublisher.publishEvent(NoteAccessChangedEvent.forUsers(List.of(memberId)));
+        unshareGroupNotes(groupId, List.of(memberId));
+    }
+
+    @Transactional
+    public void deleteGroup(Long groupId, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        UserGroup group = getOwnedGroup(groupId, user);
+
+        List<Long> memberIds = groupMembershipRepository.findUserIdsByGroupId(groupId);
+        unshareGroupNotes(groupId, memberIds);
+        shareRepository.deleteByGroupId(groupId);
+        noteGroupAccessRepository.deleteByGroupId(groupId);
+        groupMembershipRepository.deleteByGroupId(groupId);
+        userGroupRepository.delete(group);
+
+        eventPublisher.publishEvent(new NoteAccessChangedEvent(memberIds, List.of(groupId)));
+    }
+
+    // Open collaborative sessions and event streams of these members re-check their access on UNSHARED
+    private void unshareGroupNotes(Long groupId, List<Long> memberIds) {
+        List<Long> noteIds = noteGroupAccessRepository.findNoteIdsByGroupId(groupId);
+        if (!noteIds.isEmpty() && !memberIds.isEmpty()) {
+            eventPublisher.publishEvent(NoteChangedEvent.forUsers(NoteChangedEvent.Type.UNSHARED, noteIds, memberIds));
+        }
+    }
+
+    private void addMembership(UserGroup group, User user) {
+        groupMembershipRepository.save(GroupMembership.builder()
+                .group(group)
+                .user(user)
+                .build());
+        eventPublisher.publishEvent(NoteAccessChangedEvent.forUsers(List.of(user.getId())));
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    private UserGroup getGroupById(Long groupId) {
+        return userGroupRepository.findById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group not found"));
+    }
+
+    private UserGroup getOwnedGroup(Long groupId, User user) {
+        UserGroup group = getGroupById(groupId);
+        if (!group.getOwner().getId().equals(user.getId())) {
+            throw new ForbiddenException("You don't have permission to manage this group");
+        }
+        return group;
+    }
+
+    private List<String> memberEmails(Long groupId) {
+        return groupMembershipRepository.findByGroupIdWithUser(groupId).stream()
+                .map(membership -> membership.getUser().getEmail())
+                .toList();
+    }
+
+    private GroupDto toDto(UserGroup group, List<String> memberEmails) {
+        return GroupDto.builder()
+                .id(group.getId())
+                .name(group.getName())
+                .ownerEmail(group.getOwner().getEmail())
+                .createdAt(group.getCreatedAt())
+                .memberEmails(memberEmails)
+                .build();
+    }
+}
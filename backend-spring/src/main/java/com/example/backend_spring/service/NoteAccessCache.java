@@ -0,0 +1,148 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.entity.NoteAccess;
+import com.example.backend_spring.repository.GroupMembershipRepository;
+import com.example.backend_spring.repository.NoteAccessRepository;
+import com.example.backend_spring.repository.NoteGroupAccessRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Sorted arrays of ids, loaded on first use, that turn read access checks into binary searches:
+ * per user the notes shared with them directly and the groups they belong to, per group the
+ * notes shared with it.
+ * <p>
+ * Entries are dropped after the commit of any transaction that changes them
+ * (NoteAccessChangedEvent), and expire after a TTL as a safety net. Caffeine blocks an
+ * invalidation until an in-flight load of the same key completes, so a load that read the
+ * database before the commit cannot outlive the invalidation.
+ * <p>
+ * That only holds for loads reading the primary: one reading a lagging replica could cache a
+ * revoked share again for the whole TTL. So, when a replica is configured, a load made under a
+ * read-only transaction runs in a read-write one of its own, on the primary; the caller's
+ * connection comes from the replica pool, so this does not wait on a pool it already holds a
+ * connection of. Otherwise the caller's transaction already reads the primary and the load joins it.
+ */
+@Slf4j
+@Component
+public class NoteAccessCache {
+
+    private final NoteAccessRepository noteAccessRepository;
+    private final NoteGroupAccessRepository noteGroupAccessRepository;
+    private final GroupMembershipRepository groupMembershipRepository;
+    private final TransactionTemplate primaryRead;
+    private final Cache<Long, long[]> sharedNoteIds;
+    private final Cache<Long, long[]> groupIds;
+    private final Cache<Long, long[]> groupNoteIds;
+
+    public NoteAccessCache(
+            NoteAccessRepository noteAccessRepository,
+            NoteGroupAccessRepository noteGroupAccessRepository,
+            GroupMembershipRepository groupMembershipRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.access-cache.max-note-ids:5000000}") long maxNoteIds,
+            @Value("${app.access-cache.ttl:10m}") Duration ttl,
+            @Value("${app.datasource.replica.url:}") String replicaUrl) {
+        this.noteAccessRepository = noteAccessRepository;
+        this.noteGroupAccessRepository = noteGroupAccessRepository;
+        this.groupMembershipRepository = groupMembershipRepository;
+        if (StringUtils.hasText(replicaUrl)) {
+            this.primaryRead = new TransactionTemplate(transactionManager);
+            this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        } else {
+            this.primaryRead = null;
+        }
+        this.sharedNoteIds = build("note_access", maxNoteIds, ttl, meterRegistry);
+        this.groupIds = build("group_members", maxNoteIds / 10, ttl, meterRegistry);
+        this.groupNoteIds = build("note_group_access", maxNoteIds, ttl, meterRegistry);
+    }
+
+    // Weighted by array length: 5M ids is about 40 MB whatever the number of keys
+    private static Cache<Long, long[]> build(String name, long maxIds, Duration ttl, MeterRegistry meterRegistry) {
+        Cache<Long, long[]> cache = Caffeine.newBuilder()
+                .maximumWeight(maxIds)
+                .weigher((Long key, long[] ids) -> Math.max(1, ids.length))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    /** Shared with the user directly or through one of their groups. */
+    public boolean isSharedWith(Long noteId, Long userId) {
+        if (contains(sharedNoteIds.get(userId, this::loadSharedNoteIds), noteId)) {
+            return true;
+        }
+        for (long groupId : groupIdsOf(userId)) {
+            if (contains(groupNoteIds.get(groupId, this::loadGroupNoteIds), noteId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long[] groupIdsOf(Long userId) {
+        return groupIds.get(userId, id -> load(() -> groupMembershipRepository.findGroupIdsByUserId(id)));
+    }
+
+    public boolean isMember(Long groupId, Long userId) {
+        return contains(groupIdsOf(userId), groupId);
+    }
+
+    private long[] loadSharedNoteIds(Long userId) {
+        return load(() -> noteAccessRepository.findNoteIdsByUserIdAndRole(userId, NoteAccess.Role.SHARED));
+    }
+
+    private long[] loadGroupNoteIds(Long groupId) {
+        return load(() -> noteGroupAccessRepository.findNoteIdsByGroupId(groupId));
+    }
+
+    private long[] load(Supplier<List<Long>> query) {
+        if (primaryRead != null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return sorted(primaryRead.execute(status -> query.get()));
+        }
+        return sorted(query.get());
+    }
+
+    private static long[] sorted(List<Long> ids) {
+        long[] array = ids.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static boolean contains(long[] sortedIds, long id) {
+        return Arrays.binarySearch(sortedIds, id) >= 0;
+    }
+
+    // First after commit: listeners of the same commit (CollabService re-checking access) read fresh entries
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onNoteAccessChanged(NoteAccessChangedEvent event) {
+        sharedNoteIds.invalidateAll(event.userIds());
+        groupIds.invalidateAll(event.userIds());
+        groupNoteIds.invalidateAll(event.groupIds());
+        if (log.isDebugEnabled()) {
+            log.debug("Access cache invalidated for users {} and groups {}", event.userIds(), event.groupIds());
+        }
+    }
+}
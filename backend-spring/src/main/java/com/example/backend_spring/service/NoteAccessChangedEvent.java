@@ -0,0 +1,20 @@
+package com.example.backend_spring.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when direct shares or group memberships of these users, or shares with these
+ * groups, were created or removed, deleting a note included. NoteAccessCache drops the
+ * matching entries once the transaction has committed.
+ */
+public record NoteAccessChangedEvent(Collection<Long> userIds, Collection<Long> groupIds) {
+
+    public static NoteAccessChangedEvent forUsers(Collection<Long> userIds) {
+        return new NoteAccessChangedEvent(userIds, List.of());
+    }
+
+    public static NoteAccessChangedEvent forGroups(Collection<Long> groupIds) {
+        return new NoteAccessChangedEvent(List.of(), groupIds);
+    }
+}
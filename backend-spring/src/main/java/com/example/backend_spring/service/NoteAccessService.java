@@ -0,0 +1,285 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.entity.*;
+import com.example.backend_spring.exception.BadRequestException;
+import com.example.backend_spring.repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the note_access and note_group_access indexes (who can read which note), resolves
+ * share permissions and serves the keyset-paginated "accessible notes" feed.
+ * Write methods join the caller's transaction so the indexes never drift from notes/shares,
+ * share changes are also published for NoteAccessCache, and every change as a NoteChangedEvent.
+ */
+@Service
+@RequiredArgsConstructor
+public class NoteAccessService {
+
+    private final NoteAccessRepository noteAccessRepository;
+    private final NoteGroupAccessRepository noteGroupAccessRepository;
+    private final NoteRepository noteRepository;
+    private final ShareRepository shareRepository;
+    private final NoteAccessCache noteAccessCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void grant(Note note, User user, NoteAccess.Role role) {
+        noteAccessRepository.save(NoteAccess.builder()
+                .id(new NoteAccess.Id(user.getId(), note.getId()))
+                .user(user)
+                .note(note)
+                .updatedAt(note.getUpdatedAt())
+                .role(role)
+                .build());
+        if (role == NoteAccess.Role.SHARED) {
+            eventPublisher.publishEvent(NoteAccessChangedEvent.forUsers(List.of(user.getId())));
+        }
+        eventPublisher.publishEvent(NoteChangedEvent.forUsers(
+                role == NoteAccess.Role.OWNER ? NoteChangedEvent.Type.CREATED : NoteChangedEvent.Type.SHARED,
+                List.of(note.getId()), List.of(user.getId())));
+    }
+
+    /** JDBC batch insert of rows built by the caller, see ShareService.shareInBulk. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void grantAll(List<NoteAccess> rows) {
+        noteAccessRepository.insertBatch(rows);
+        eventPublisher.publishEvent(NoteAccessChangedEvent.forUsers(rows.stream()
+                .filter(row -> row.getRole() == NoteAccess.Role.SHARED)
+                .map(row -> row.getId().getUserId())
+                .collect(Collectors.toSet())));
+        rows.stream()
+                .filter(row -> row.getRole() == NoteAccess.Role.SHARED)
+                .collect(Collectors.groupingBy(row -> row.getId().getUserId(),
+                        Collectors.mapping(row -> row.getId().getNoteId(), Collectors.toList())))
+                .forEach((userId, noteIds) -> eventPublisher.publishEvent(
+                        NoteChangedEvent.forUsers(NoteChangedEvent.Type.SHARED, noteIds, List.of(userId))));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void grantGroup(Note note, UserGroup group) {
+        noteGroupAccessRepository.save(NoteGroupAccess.builder()
+                .id(new NoteGroupAccess.Id(group.getId(), note.getId()))
+                .group(group)
+                .note(note)
+                .updatedAt(note.getUpdatedAt())
+                .build());
+        eventPublisher.publishEvent(NoteAccessChangedEvent.forGroups(List.of(group.getId())));
+        eventPublisher.publishEvent(NoteChangedEvent.forGroups(
+                NoteChangedEvent.Type.SHARED, List.of(note.getId()), List.of(group.getId())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revoke(Long noteId, Long userId) {
+        noteAccessRepository.deleteById(new NoteAccess.Id(userId, noteId));
+        eventPublisher.publishEvent(NoteAccessChangedEvent.forUsers(List.of(userId)));
+        eventPublisher.publishEvent(NoteChangedEvent.forUsers(
+                NoteChangedEvent.Type.UNSHARED, List.of(noteId), List.of(userId)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revokeGroup(Long noteId, Long groupId) {
+        noteGroupAccessRepository.deleteById(new NoteGroupAccess.Id(groupId, noteId));
+        eventPublisher.publishEvent(NoteAccessChangedEvent.forGroups(List.of(groupId)));
+        eventPublisher.publishEvent(NoteChangedEvent.forGroups(
+                NoteChangedEvent.Type.UNSHARED, List.of(noteId), List.of(groupId)));
+    }
+
+    /** Call after the note has been flushed, so updatedAt holds the new timestamp. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void noteUpdated(Note note) {
+        notesUpdated(List.of(note.getId()), note.getUpdatedAt());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notesUpdated(Collection<Long> noteIds, LocalDateTime updatedAt) {
+        noteAccessRepository.updateNoteTimestamps(noteIds, updatedAt);
+        noteGroupAccessRepository.updateNoteTimestamps(noteIds, updatedAt);
+        eventPublisher.publishEvent(NoteChangedEvent.forReaders(NoteChangedEvent.Type.UPDATED, noteIds));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void noteDeleted(Long noteId) {
+        // Readers are looked up now, they are gone from the indexes by the time the event is delivered
+        List<Long> userIds = noteAccessRepository.findUserIdsByNoteId(noteId);
+        List<Long> groupIds = noteGroupAccessRepository.findGroupIdsByNoteId(noteId);
+        eventPublisher.publishEvent(new NoteChangedEvent(NoteChangedEvent.Type.DELETED, List.of(noteId),
+                userIds, groupIds));
+        eventPublisher.publishEvent(new NoteAccessChangedEvent(userIds, groupIds));
+        noteAccessRepository.deleteByNoteId(noteId);
+        noteGroupAccessRepository.deleteByNoteId(noteId);
+    }
+
+    /**
+     * Whether the user holds at least the required permission on the note: the owner holds all
+     * of them, others get the highest permission of their direct and group shares.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasPermission(Note note, User user, Share.Permission required) {
+        if (note.getOwner().getId().equals(user.getId())) {
+            return true;
+        }
+        return shareRepository.findPermissions(note.getId(), user.getId(), groupIdsOf(user.getId()))
+                .stream()
+                .anyMatch(permission -> permission.includes(required));
+    }
+
+    /** Ids of the notes the user may share: owned ones plus those shared with them as ADMIN. */
+    @Transactional(readOnly = true)
+    public Set<Long> findShareableNoteIds(Collection<Note> notes, User user) {
+        Set<Long> allowed = new HashSet<>();
+        List<Long> others = new ArrayList<>();
+        for (Note note : notes) {
+            if (note.getOwner().getId().equals(user.getId())) {
+                allowed.add(note.getId());
+            } else {
+                others.add(note.getId());
+            }
+        }
+        if (!others.isEmpty()) {
+            allowed.addAll(shareRepository.findNoteIdsWithPermission(
+                    others, user.getId(), groupIdsOf(user.getId()), List.of(Share.Permission.ADMIN)));
+        }
+        return allowed;
+    }
+
+    private List<Long> groupIdsOf(Long userId) {
+        return Arrays.stream(noteAccessCache.groupIdsOf(userId)).boxed().toList();
+    }
+
+    /**
+     * Up to limit notes readable by the user, most recently updated first, strictly after the cursor:
+     * owned and directly shared notes, notes shared with the user's groups and, with includePublic,
+     * public notes of other users, merged into the same order. The next cursor is the index key of
+     * the last note, the position the sources page on, or null on the last page.
+     */
+    @Transactional(readOnly = true)
+    public AccessiblePage findAccessible(Long userId, Cursor after, int limit, boolean includePublic) {
+        // One extra key per source tells whether there is a next page
+        Limit fetch = Limit.of(limit + 1);
+        List<List<Cursor>> sources = new ArrayList<>(3);
+        sources.add((after == null
+                ? noteAccessRepository.findFirstPage(userId, fetch)
+                : noteAccessRepository.findPageAfter(userId, after.updatedAt(), after.noteId(), fetch))
+                .stream()
+                .map(access -> new Cursor(access.getUpdatedAt(), access.getId().getNoteId()))
+                .toList());
+
+        List<Long> groupIds = groupIdsOf(userId);
+        if (!groupIds.isEmpty()) {
+            sources.add(findGroupKeys(groupIds, after, fetch));
+        }
+
+        if (includePublic) {
+            sources.add((after == null
+                    ? noteRepository.findPublicFirstPage(userId, fetch)
+                    : noteRepository.findPublicPageAfter(userId, after.updatedAt(), after.noteId(), fetch))
+                    .stream()
+                    .map(note -> new Cursor(note.getUpdatedAt(), note.getId()))
+                    .toList());
+        }
+
+        List<Cursor> keys = merge(sources, limit + 1);
+        Cursor next = null;
+        if (keys.size() > limit) {
+            keys = keys.subList(0, limit);
+            next = keys.get(limit - 1);
+        }
+        if (keys.isEmpty()) {
+            return new AccessiblePage(List.of(), null);
+        }
+        Map<Long, Note> notes = noteRepository.findAllWithOwnerAndTagsByIdIn(
+                        keys.stream().map(Cursor::noteId).toList())
+                .stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+        return new AccessiblePage(keys.stream()
+                .map(key -> notes.get(key.noteId()))
+                .filter(Objects::nonNull)
+                .toList(), next);
+    }
+
+    // A note shared with several of the user's groups has a row per group: pages on until fetch
+    // distinct notes, so that duplicates do not use up the source and end the feed early
+    private List<Cursor> findGroupKeys(List<Long> groupIds, Cursor after, Limit fetch) {
+        Map<Long, Cursor> keys = new LinkedHashMap<>();
+        Cursor from = after;
+        while (keys.size() < fetch.max()) {
+            List<NoteGroupAccess> rows = from == null
+                    ? noteGroupAccessRepository.findFirstPage(groupIds, fetch)
+                    : noteGroupAccessRepository.findPageAfter(groupIds, from.updatedAt(), from.noteId(), fetch);
+            for (NoteGroupAccess access : rows) {
+                from = new Cursor(access.getUpdatedAt(), access.getId().getNoteId());
+                keys.putIfAbsent(from.noteId(), from);
+            }
+            if (rows.size() < fetch.max()) {
+                break;
+            }
+        }
+        return new ArrayList<>(keys.values());
+    }
+
+    // Every source is sorted newest first. The same note can come from several of them (shared
+    // with the user and one of their groups, or public), usually with the same key; a row whose
+    // copy of updated_at lags behind gives it another one, so a page keeps its first occurrence.
+    static List<Cursor> merge(List<List<Cursor>> sources, int limit) {
+        List<Cursor> out = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        int[] positions = new int[sources.size()];
+        while (out.size() < limit) {
+            int best = -1;
+            for (int s = 0; s < sources.size(); s++) {
+                if (positions[s] < sources.get(s).size() && (best < 0 || Cursor.NEWEST_FIRST.compare(
+                        sources.get(s).get(positions[s]), sources.get(best).get(positions[best])) < 0)) {
+                    best = s;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            Cursor next = sources.get(best).get(positions[best]++);
+            if (seen.add(next.noteId())) {
+                out.add(next);
+            }
+        }
+        return out;
+    }
+
+    /** A page of the feed and the cursor of the following one, null when there is none. */
+    public record AccessiblePage(List<Note> notes, Cursor next) {
+    }
+
+    /** Position in the feed, sent to clients as an opaque base64url string. */
+    public record Cursor(LocalDateTime updatedAt, Long noteId) {
+
+        static final Comparator<Cursor> NEWEST_FIRST = Comparator.comparing(Cursor::updatedAt)
+                .thenComparing(Cursor::noteId)
+                .reversed();
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((updatedAt + "|" + noteId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('|');
+                return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                        Long.parseLong(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend_spring.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by NoteAccessService when notes are created, updated, deleted, shared or unshared,
+ * and by GroupService when members lose a group's notes; pushed to connected clients after commit
+ * (see push/NoteEventBus). The event concerns the given users and members of the given groups;
+ * when both are null, everyone with access to the notes at commit time.
+ */
+public record NoteChangedEvent(Type type, Collection<Long> noteIds, Collection<Long> userIds,
+                               Collection<Long> groupIds) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, SHARED, UNSHARED
+    }
+
+    public static NoteChangedEvent forUsers(Type type, Collection<Long> noteIds, Collection<Long> userIds) {
+        return new NoteChangedEvent(type, noteIds, userIds, List.of());
+    }
+
+    public static NoteChangedEvent forGroups(Type type, Collection<Long> noteIds, Collection<Long> groupIds) {
+        return new NoteChangedEvent(type, noteIds, List.of(), groupIds);
+    }
+
+    public static NoteChangedEvent forReaders(Type type, Collection<Long> noteIds) {
+        return new NoteChangedEvent(type, noteIds, null, null);
+    }
+
+    public boolean forReaders() {
+        return userIds == null && groupIds == null;
+    }
+}
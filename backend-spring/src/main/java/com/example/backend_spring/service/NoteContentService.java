@@ -0,0 +1,48 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.NoteContent;
+import com.example.backend_spring.repository.NoteContentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * Note bodies in note_contents, keyed by hash: the same text saved by many notes (templates,
+ * copies, a body put back as it was) is stored once. Bodies no note references any more are
+ * deleted by MaintenanceScheduler.
+ */
+@Service
+public class NoteContentService {
+
+    private final NoteContentRepository noteContentRepository;
+    private final Duration refreshAfter;
+
+    public NoteContentService(
+            NoteContentRepository noteContentRepository,
+            @Value("${app.maintenance.orphan-content-grace:1h}") Duration orphanContentGrace) {
+        this.noteContentRepository = noteContentRepository;
+        // A body referenced within half the grace period has at least the other half before the purge
+        this.refreshAfter = orphanContentGrace.dividedBy(2);
+    }
+
+    /** Points the note at the stored copy of text, storing it first if needed; null clears the body. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void setContent(Note note, String text) {
+        if (text == null) {
+            note.setContent(null, null);
+            return;
+        }
+        NoteContent content = NoteContent.of(text);
+        // Comparing keys leaves the current body unloaded
+        if (note.getContent() != null && note.getContent().getHash().equals(content.getHash())) {
+            return;
+        }
+        noteContentRepository.upsert(content, content.getReferencedAt().minus(refreshAfter));
+        // The row was written with JDBC: a reference is enough for the foreign key
+        note.setContent(noteContentRepository.getReferenceById(content.getHash()), text);
+    }
+}
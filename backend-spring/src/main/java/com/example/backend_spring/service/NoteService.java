@@ -1,16 +1,33 @@
 package com.example.backend_spring.service;
 
+import com.example.backend_spring.attachment.AttachmentService;
+import com.example.backend_spring.collab.CollabService;
 import com.example.backend_spring.dto.note.*;
 import com.example.backend_spring.entity.*;
 import com.example.backend_spring.exception.*;
+import com.example.backend_spring.push.NoteEventBus;
 import com.example.backend_spring.repository.*;
+import com.example.backend_spring.revision.NoteRevisionService;
+import com.example.backend_spring.dto.tag.TagCountDto;
+import com.example.backend_spring.search.Facets;
+import com.example.backend_spring.search.NoteIndex;
+import com.example.backend_spring.search.TagFilter;
+import com.example.backend_spring.search.TagIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -18,51 +35,163 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class NoteService {
     
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_SUGGEST_QUERY_LENGTH = 200;
+    
     private final NoteRepository noteRepository;
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
-    private final ShareRepository shareRepository;
+    private final NoteAccessService noteAccessService;
+    private final NoteAccessCache noteAccessCache;
+    private final NoteEventBus noteEventBus;
+    private final CollabService collabService;
+    private final NoteRevisionService noteRevisionService;
+    private final NoteContentService noteContentService;
+    private final AttachmentService attachmentService;
+    private final TagIndex tagIndex;
+    private final NoteIndex noteIndex;
+    private final PlatformTransactionManager transactionManager;
     
-    @Transactional(readOnly = true)
+    /**
+     * tags is a boolean filter on labels (see search/TagFilter), ANDed with tag. With either, or
+     * with facets, the matching notes are found in NoteIndex, which counts the facets while it
+     * selects the page, and only the page is read, by id.
+     * <p>
+     * Not transactional: NoteIndex may load the user's notes, on a connection of its own, so the
+     * read-only transaction reading the page is opened after it.
+     */
     public Page<NoteListResponse> searchNotes(
             String userEmail,
             String query,
             String tag,
+            String tags,
             String visibility,
+            boolean facets,
             int page,
             int size) {
 
-        log.debug("searchNotes called with userEmail={}, query={}, tag={}, visibility={}, page={}, size={}",
-                  userEmail, query, tag, visibility, page, size);
-
         User user = getUserByEmail(userEmail);
-        log.debug("Found user with id={}", user.getId());
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
 
         Note.Visibility visibilityEnum = visibility != null ?
                 Note.Visibility.valueOf(visibility.toUpperCase()) : null;
 
-        log.debug("Calling repository with userId={}, query={}, tag={}, visibility={}",
-                  user.getId(), query, tag, visibilityEnum);
+        TagFilter filter = tagFilter(tag, tags);
+        if (filter != null || facets) {
+            NoteIndex.Hits hits = noteIndex.search(
+                    user.getId(), filter, query, visibilityEnum, pageable.getOffset(), pageable.getPageSize(), facets);
+            return readOnly().execute(status -> searchIndexedNotes(user, query, filter, visibilityEnum, hits, pageable));
+        }
 
+        return readOnly().execute(status -> searchNotesByQuery(user, query, tag, visibilityEnum, pageable));
+    }
+
+    private Page<NoteListResponse> searchNotesByQuery(
+            User user, String query, String tag, Note.Visibility visibility, Pageable pageable) {
         Page<Note> notes = noteRepository.searchNotes(
                 user.getId(),
                 query,
                 tag,
-                visibilityEnum,
+                visibility,
                 pageable
         );
 
-        log.debug("Found {} notes", notes.getTotalElements());
+        if (log.isDebugEnabled()) {
+            log.debug("searchNotes userId={}, query={}, tag={}, visibility={}, page={}, size={}: {} notes",
+                      user.getId(), query, tag, visibility, pageable.getPageNumber(), pageable.getPageSize(),
+                      notes.getTotalElements());
+        }
 
         return notes.map(this::toListResponse);
     }
     
+    private Page<NoteListResponse> searchIndexedNotes(
+            User user, String query, TagFilter filter, Note.Visibility visibility, NoteIndex.Hits hits,
+            Pageable pageable) {
+        // A note deleted since it was indexed is left out of the page
+        Map<Long, Note> notes = noteRepository.findAllWithOwnerAndTagsByIdIn(hits.noteIds()).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+        List<NoteListResponse> content = hits.noteIds().stream()
+                .map(notes::get)
+                .filter(Objects::nonNull)
+                .map(this::toListResponse)
+                .toList();
+
+        if (log.isDebugEnabled()) {
+            log.debug("searchNotes userId={}, query={}, filter={}, visibility={}, page={}, size={}: {} notes",
+                      user.getId(), query, filter, visibility, pageable.getPageNumber(), pageable.getPageSize(),
+                      hits.total());
+        }
+
+        return new NoteSearchPage(content, pageable, hits.total(),
+                hits.facets() != null ? toFacetsDto(hits.facets()) : null);
+    }
+    
+    private static NoteFacetsDto toFacetsDto(Facets facets) {
+        Map<String, Integer> visibility = new LinkedHashMap<>();
+        facets.visibility().forEach((value, count) -> visibility.put(value.name(), count));
+        Map<String, Integer> updated = new LinkedHashMap<>();
+        facets.updated().forEach((range, count) -> updated.put(range.name(), count));
+        return NoteFacetsDto.builder()
+                .tags(facets.tags().stream()
+                        .map(tag -> TagCountDto.builder().label(tag.label()).count(tag.count()).build())
+                        .toList())
+                .visibility(visibility)
+                .updated(updated)
+                .build();
+    }
+    
+    private static TagFilter tagFilter(String tag, String tags) {
+        TagFilter single = tag != null && !tag.isEmpty() ? new TagFilter.Label(tag) : null;
+        if (tags == null || tags.isBlank()) {
+            return single;
+        }
+        TagFilter parsed = TagFilter.parse(tags);
+        return single != null ? new TagFilter.And(List.of(single, parsed)) : parsed;
+    }
+    
+    /** Search as you type on the titles of the user's own notes, typos allowed, see NoteIndex.suggest. */
+    public List<NoteSuggestionDto> suggestNotes(String userEmail, String query, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (query.length() > MAX_SUGGEST_QUERY_LENGTH) {
+            throw new BadRequestException("Query must be at most " + MAX_SUGGEST_QUERY_LENGTH + " characters");
+        }
+        if (query.isBlank()) {
+            return List.of();
+        }
+        User user = getUserByEmail(userEmail);
+        return noteIndex.suggest(user.getId(), query, limit).stream()
+                .map(suggestion -> NoteSuggestionDto.builder()
+                        .id(suggestion.noteId())
+                        .title(suggestion.title())
+                        .visibility(suggestion.visibility().name())
+                        .updatedAt(suggestion.updatedAt())
+                        .build())
+                .toList();
+    }
+    
+    @Transactional(readOnly = true)
+    public NoteFeedResponse getAccessibleNotes(String userEmail, String cursor, int size, boolean includePublic) {
+        if (size < 1 || size > 100) {
+            throw new BadRequestException("Page size must be between 1 and 100");
+        }
+        User user = getUserByEmail(userEmail);
+        NoteAccessService.Cursor after = cursor != null ? NoteAccessService.Cursor.decode(cursor) : null;
+
+        NoteAccessService.AccessiblePage page = noteAccessService.findAccessible(user.getId(), after, size, includePublic);
+        return NoteFeedResponse.builder()
+                .content(page.notes().stream().map(this::toListResponse).toList())
+                .nextCursor(page.next() != null ? page.next().encode() : null)
+                .build();
+    }
+    
     @Transactional(readOnly = true)
     public NoteResponse getNoteById(Long noteId, String userEmail) {
         User user = getUserByEmail(userEmail);
-        Note note = noteRepository.findById(noteId)
+        Note note = noteRepository.findWithContentById(noteId)
                 .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
         
         validateAccess(note, user);
@@ -76,7 +205,6 @@ public class NoteService {
         
         Note note = Note.builder()
                 .title(request.getTitle())
-                .contentMd(request.getContentMd())
                 .owner(user)
                 .visibility(Note.Visibility.PRIVATE)
                 .build();
@@ -86,9 +214,13 @@ public class NoteService {
                     .map(this::getOrCreateTag)
                     .collect(Collectors.toSet());
             note.setTags(tags);
+            tagIndex.tagsChanged(user.getId(), Set.of(), labelsOf(tags));
         }
         
+        noteContentService.setContent(note, request.getContentMd());
         note = noteRepository.save(note);
+        noteAccessService.grant(note, user, NoteAccess.Role.OWNER);
+        noteRevisionService.record(note, user.getId());
         return toDetailResponse(note);
     }
     
@@ -98,16 +230,24 @@ public class NoteService {
         Note note = noteRepository.findById(noteId)
                 .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
         
-        if (!note.getOwner().getId().equals(user.getId())) {
+        if (!noteAccessService.hasPermission(note, user, Share.Permission.WRITE)) {
             throw new ForbiddenException("You don't have permission to update this note");
         }
         
+        // Visibility decides who can read the note, that is sharing
+        if (request.getVisibility() != null
+                && !noteAccessService.hasPermission(note, user, Share.Permission.ADMIN)) {
+            throw new ForbiddenException("You don't have permission to change the visibility of this note");
+        }
+        
         if (request.getTitle() != null) {
             note.setTitle(request.getTitle());
         }
         
         if (request.getContentMd() != null) {
-            note.setContentMd(request.getContentMd());
+            // While the note is edited live, the new content goes through its session
+            noteContentService.setContent(note,
+                    collabService.replaceContent(noteId, user.getId(), request.getContentMd()));
         }
         
         if (request.getVisibility() != null) {
@@ -118,11 +258,17 @@ public class NoteService {
             Set<Tag> tags = request.getTags().stream()
                     .map(this::getOrCreateTag)
                     .collect(Collectors.toSet());
+            tagIndex.tagsChanged(note.getOwner().getId(), labelsOf(note.getTags()), labelsOf(tags));
             note.getTags().clear();
             note.getTags().addAll(tags);
         }
         
-        note = noteRepository.save(note);
+        // Flush so @UpdateTimestamp has run before copying updatedAt into note_access
+        note = noteRepository.saveAndFlush(note);
+        noteAccessService.noteUpdated(note);
+        if (request.getContentMd() != null) {
+            noteRevisionService.record(note, user.getId());
+        }
         return toDetailResponse(note);
     }
     
@@ -136,30 +282,97 @@ public class NoteService {
             throw new ForbiddenException("You don't have permission to delete this note");
         }
         
+        noteAccessService.noteDeleted(noteId);
+        attachmentService.noteDeleted(noteId);
+        tagIndex.tagsChanged(user.getId(), labelsOf(note.getTags()), Set.of());
         noteRepository.delete(note);
     }
     
+    @Transactional(readOnly = true)
+    public List<NoteRevisionDto> getRevisions(Long noteId, Integer before, int size, String userEmail) {
+        if (size < 1 || size > 100) {
+            throw new BadRequestException("Page size must be between 1 and 100");
+        }
+        User user = getUserByEmail(userEmail);
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        validateHistoryAccess(note, user);
+        
+        return noteRevisionService.list(noteId, before, size).stream()
+                .map(summary -> NoteRevisionDto.builder()
+                        .revision(summary.revision())
+                        .authorId(summary.authorId())
+                        .authorEmail(summary.authorEmail())
+                        .contentLength(summary.contentLength())
+                        .createdAt(summary.createdAt())
+                        .build())
+                .toList();
+    }
+    
+    @Transactional(readOnly = true)
+    public NoteRevisionDto getRevision(Long noteId, int revision, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        validateHistoryAccess(note, user);
+        
+        NoteRevisionService.Revision found = noteRevisionService.get(noteId, revision);
+        User author = found.revision().getAuthor();
+        return NoteRevisionDto.builder()
+                .revision(revision)
+                .authorId(author != null ? author.getId() : null)
+                .authorEmail(author != null ? author.getEmail() : null)
+                .contentLength(found.revision().getContentLength())
+                .createdAt(found.revision().getCreatedAt())
+                .contentMd(found.content())
+                .build();
+    }
+    
+    /** Server-sent events for the notes the user owns or can read, see push/NoteEventBus. */
+    public SseEmitter subscribeToChanges(String userEmail) {
+        User user = getUserByEmail(userEmail);
+        return noteEventBus.subscribe(user.getId());
+    }
+    
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
     private User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
     
     private Tag getOrCreateTag(String label) {
-        return tagRepository.findByLabel(label)
+        return tagRepository.lockByLabel(label)
+                .flatMap(tagRepository::findById)
                 .orElseGet(() -> tagRepository.save(Tag.builder().label(label).build()));
     }
     
+    private static Set<String> labelsOf(Set<Tag> tags) {
+        return tags.stream().map(Tag::getLabel).collect(Collectors.toSet());
+    }
+    
     private void validateAccess(Note note, User user) {
-        boolean isOwner = note.getOwner().getId().equals(user.getId());
-        boolean isShared = shareRepository.existsByNoteIdAndSharedWithUserId(
-                note.getId(), user.getId());
-        
-        if (!isOwner && !isShared && note.getVisibility() != Note.Visibility.PUBLIC) {
+        // Cheapest checks first, the cache is only consulted for notes owned by someone else
+        if (note.getOwner().getId().equals(user.getId()) || note.getVisibility() == Note.Visibility.PUBLIC) {
+            return;
+        }
+        if (!noteAccessCache.isSharedWith(note.getId(), user.getId())) {
             throw new ForbiddenException("You don't have access to this note");
         }
     }
     
-    private NoteListResponse toListResponse(Note note) {
+    // Not public with the note: its history holds what was written before it was published
+    private void validateHistoryAccess(Note note, User user) {
+        if (!noteAccessService.hasPermission(note, user, Share.Permission.READ)) {
+            throw new ForbiddenException("You don't have access to the history of this note");
+        }
+    }
+    
+    NoteListResponse toListResponse(Note note) {
         return NoteListResponse.builder()
                 .id(note.getId())
                 .title(note.getTitle())
@@ -172,7 +385,7 @@ public class NoteService {
                 .build();
     }
     
-    private NoteResponse toDetailResponse(Note note) {
+    NoteResponse toDetailResponse(Note note) {
         return NoteResponse.builder()
                 .id(note.getId())
                 .title(note.getTitle())
@@ -18,6 +18,7 @@ public class PublicLinkService {
     private final PublicLinkRepository publicLinkRepository;
     private final NoteRepository noteRepository;
     private final UserRepository userRepository;
+    private final NoteAccessService noteAccessService;
     
     @Transactional
     public PublicLinkDto createPublicLink(
@@ -31,7 +32,7 @@ public class PublicLinkService {
         Note note = noteRepository.findById(noteId)
                 .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
         
-        if (!note.getOwner().getId().equals(owner.getId())) {
+        if (!noteAccessService.hasPermission(note, owner, Share.Permission.ADMIN)) {
             throw new ForbiddenException("Vous n'avez pas la permission de créer un lien public");
         }
         
@@ -43,7 +44,8 @@ public class PublicLinkService {
         publicLink = publicLinkRepository.save(publicLink);
         
         note.setVisibility(Note.Visibility.PUBLIC);
-        noteRepository.save(note);
+        note = noteRepository.saveAndFlush(note);
+        noteAccessService.noteUpdated(note);
         
         return toDto(publicLink);
     }
@@ -81,7 +83,7 @@ public class PublicLinkService {
         PublicLink publicLink = publicLinkRepository.findById(linkId)
                 .orElseThrow(() -> new ResourceNotFoundException("Lien public non trouvé"));
 
-        if (!publicLink.getNote().getOwner().getId().equals(owner.getId())) {
+        if (!noteAccessService.hasPermission(publicLink.getNote(), owner, Share.Permission.ADMIN)) {
             throw new ForbiddenException("Vous n'avez pas la permission de supprimer ce lien");
         }
         
@@ -0,0 +1,135 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.entity.RefreshToken;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.exception.BadRequestException;
+import com.example.backend_spring.repository.RefreshTokenRepository;
+import com.example.backend_spring.repository.RefreshTokenRepositoryCustom.RotatedUser;
+import com.example.backend_spring.security.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. Each login starts a family; every refresh marks the presented
+ * token used and issues the next one of the family. Presenting a used (or revoked) token means it
+ * was copied, so the whole family is revoked and the legitimate holder has to log in again.
+ * Families revoked by this instance are also remembered in memory, so replays are refused without
+ * touching the database.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final Cache<UUID, Boolean> revokedFamilies;
+    private final Counter reuseDetected;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            JwtUtil jwtUtil,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.refresh-expiration}") long refreshExpiration,
+            @Value("${app.refresh-tokens.max-revoked-families:100000}") long maxRevokedFamilies) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+        // A family older than the refresh lifetime has no valid token left to refuse
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(maxRevokedFamilies)
+                .expireAfterWrite(Duration.ofMillis(refreshExpiration))
+                .build();
+        this.reuseDetected = Counter.builder("auth.refresh.reuse")
+                .description("Refresh tokens presented again after use, their family was revoked")
+                .register(meterRegistry);
+    }
+
+    /** Starts a new family for a fresh login. */
+    @Transactional
+    public String issue(User user) {
+        UUID tokenId = UUID.randomUUID();
+        UUID familyId = UUID.randomUUID();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(tokenId))
+                .user(user)
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(jwtUtil.getRefreshExpirationTime())))
+                .build());
+        return jwtUtil.generateRefreshToken(user.getEmail(), tokenId, familyId);
+    }
+
+    /** One signature check, then one statement that consumes the token and stores its successor. */
+    // The family revocation must survive the BadRequestException that reports it
+    @Transactional(noRollbackFor = BadRequestException.class)
+    public Rotation rotate(String refreshToken) {
+        Claims claims;
+        UUID familyId;
+        UUID tokenId;
+        try {
+            claims = jwtUtil.parseRefreshToken(refreshToken);
+            familyId = jwtUtil.extractFamilyId(claims);
+            tokenId = UUID.fromString(claims.getId());
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadRequestException("Invalid refresh token");
+        }
+        if (revokedFamilies.getIfPresent(familyId) != null) {
+            throw new BadRequestException("Invalid refresh token");
+        }
+
+        UUID nextTokenId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        RotatedUser user = refreshTokenRepository.rotate(hash(tokenId), hash(nextTokenId), now,
+                        now.plus(Duration.ofMillis(jwtUtil.getRefreshExpirationTime())))
+                .orElse(null);
+        if (user == null) {
+            // Signed by us and unexpired, yet not redeemable: already used, or revoked
+            reuseDetected.increment();
+            revokeFamily(familyId);
+            log.warn("Refresh token reuse for {}, family {} revoked", claims.getSubject(), familyId);
+            throw new BadRequestException("Invalid refresh token");
+        }
+        return new Rotation(user, jwtUtil.generateRefreshToken(user.email(), nextTokenId, familyId));
+    }
+
+    @Transactional
+    public void revokeFamily(UUID familyId) {
+        refreshTokenRepository.deleteByFamilyId(familyId);
+        revokedFamilies.put(familyId, Boolean.TRUE);
+    }
+
+    /** Logout from every device: one DELETE on the user_id index. */
+    @Transactional
+    public int revokeAll(Long userId) {
+        return refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    // 128 bits of SHA-256 are enough to look a token up, and fit the uuid column
+    static UUID hash(UUID tokenId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(tokenId.toString().getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Rotation(RotatedUser user, String refreshToken) {
+    }
+}
@@ -8,6 +8,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class ShareService {
@@ -15,22 +22,22 @@ public class ShareService {
     private final ShareRepository shareRepository;
     private final NoteRepository noteRepository;
     private final UserRepository userRepository;
+    private final UserGroupRepository userGroupRepository;
+    private final GroupMembershipRepository groupMembershipRepository;
+    private final NoteAccessService noteAccessService;
     
     @Transactional
-    public ShareDto shareWithUser(Long noteId, ShareWithUserRequest request, String ownerEmail) {
-        User owner = userRepository.findByEmail(ownerEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        Note note = noteRepository.findById(noteId)
-                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
-        
-        if (!note.getOwner().getId().equals(owner.getId())) {
-            throw new ForbiddenException("You don't have permission to share this note");
-        }
+    public ShareDto shareWithUser(Long noteId, ShareWithUserRequest request, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        Note note = getShareableNote(noteId, user);
         
         User sharedWithUser = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("User to share with not found"));
         
+        if (sharedWithUser.getId().equals(note.getOwner().getId())) {
+            throw new BadRequestException("The note already belongs to this user");
+        }
+        
         if (shareRepository.existsByNoteIdAndSharedWithUserId(noteId, sharedWithUser.getId())) {
             throw new BadRequestException("Note already shared with this user");
         }
@@ -38,34 +45,180 @@ public class ShareService {
         Share share = Share.builder()
                 .note(note)
                 .sharedWithUser(sharedWithUser)
-                .permission(Share.Permission.READ)
+                .permission(toPermission(request.getPermission()))
                 .build();
         
         share = shareRepository.save(share);
         
-        note.setVisibility(Note.Visibility.SHARED);
-        noteRepository.save(note);
+        note = markShared(note);
+        noteAccessService.grant(note, sharedWithUser, NoteAccess.Role.SHARED);
         
-        return ShareDto.builder()
-                .id(share.getId())
-                .noteId(note.getId())
-                .sharedWithEmail(sharedWithUser.getEmail())
-                .permission(share.getPermission().name())
+        return toDto(share);
+    }
+    
+    /** One share row for the whole group, members get access through their membership. */
+    @Transactional
+    public ShareDto shareWithGroup(Long noteId, ShareWithGroupRequest request, String userEmail) {
+        User user = getUserByEmail(userEmail);
+        Note note = getShareableNote(noteId, user);
+        
+        UserGroup group = userGroupRepository.findById(request.getGroupId())
+                .orElseThrow(() -> new ResourceNotFoundException("Group not found"));
+        
+        if (!groupMembershipRepository.existsByGroupIdAndUserId(group.getId(), user.getId())) {
+            throw new ForbiddenException("You can only share with groups you belong to");
+        }
+        
+        if (shareRepository.existsByNoteIdAndGroupId(noteId, group.getId())) {
+            throw new BadRequestException("Note already shared with this group");
+        }
+        
+        Share share = Share.builder()
+                .note(note)
+                .group(group)
+                .permission(toPermission(request.getPermission()))
                 .build();
+        
+        share = shareRepository.save(share);
+        
+        note = markShared(note);
+        noteAccessService.grantGroup(note, group);
+        
+        return toDto(share);
     }
     
+    /**
+     * Shares every note with every user in a fixed number of statements: one IN query per side,
+     * one lookup of the pairs already shared (skipped rather than rejected), JDBC batch inserts
+     * and a single visibility update. Same permission and user checks as shareWithUser.
+     */
     @Transactional
-    public void deleteShare(Long shareId, String ownerEmail) {
-        User owner = userRepository.findByEmail(ownerEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public BulkShareResponse shareInBulk(BulkShareRequest request, String userEmail) {
+        User caller = getUserByEmail(userEmail);
+        Share.Permission permission = toPermission(request.getPermission());
+        
+        Set<Long> noteIds = new LinkedHashSet<>(request.getNoteIds());
+        List<Note> notes = noteRepository.findAllById(noteIds);
+        if (notes.size() != noteIds.size()) {
+            throw new ResourceNotFoundException("Note not found");
+        }
+        if (noteAccessService.findShareableNoteIds(notes, caller).size() != notes.size()) {
+            throw new ForbiddenException("You don't have permission to share this note");
+        }
+        
+        Set<String> emails = new LinkedHashSet<>(request.getEmails());
+        List<User> users = userRepository.findByEmailIn(emails);
+        if (users.size() != emails.size()) {
+            Set<String> missing = new LinkedHashSet<>(emails);
+            users.forEach(user -> missing.remove(user.getEmail()));
+            throw new ResourceNotFoundException("Users to share with not found: " + String.join(", ", missing));
+        }
+        
+        Set<NoteAccess.Id> existing = shareRepository.findByNoteIdInAndSharedWithUserIdIn(
+                        noteIds, users.stream().map(User::getId).toList())
+                .stream()
+                .map(share -> new NoteAccess.Id(share.getSharedWithUser().getId(), share.getNote().getId()))
+                .collect(Collectors.toSet());
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Share> shares = new ArrayList<>();
+        List<NoteAccess> accessRows = new ArrayList<>();
+        List<Long> becameShared = new ArrayList<>();
+        for (Note note : notes) {
+            boolean visibilityChanges = note.getVisibility() != Note.Visibility.SHARED;
+            int before = shares.size();
+            for (User user : users) {
+                NoteAccess.Id pair = new NoteAccess.Id(user.getId(), note.getId());
+                if (user.getId().equals(note.getOwner().getId()) || existing.contains(pair)) {
+                    continue;
+                }
+                shares.add(Share.builder()
+                        .note(note)
+                        .sharedWithUser(user)
+                        .permission(permission)
+                        .build());
+                accessRows.add(NoteAccess.builder()
+                        .id(pair)
+                        .updatedAt(visibilityChanges ? now : note.getUpdatedAt())
+                        .role(NoteAccess.Role.SHARED)
+                        .build());
+            }
+            if (visibilityChanges && shares.size() > before) {
+                becameShared.add(note.getId());
+            }
+        }
+        
+        if (!shares.isEmpty()) {
+            shareRepository.insertBatch(shares);
+            if (!becameShared.isEmpty()) {
+                noteRepository.updateVisibility(becameShared, Note.Visibility.SHARED, now);
+                noteAccessService.notesUpdated(becameShared, now);
+            }
+            noteAccessService.grantAll(accessRows);
+        }
+        
+        return BulkShareResponse.builder()
+                .notes(notes.size())
+                .users(users.size())
+                .sharesCreated(shares.size())
+                .sharesSkipped(notes.size() * users.size() - shares.size())
+                .build();
+    }
+    
+    @Transactional
+    public void deleteShare(Long shareId, String userEmail) {
+        User user = getUserByEmail(userEmail);
         
         Share share = shareRepository.findById(shareId)
                 .orElseThrow(() -> new ResourceNotFoundException("Share not found"));
         
-        if (!share.getNote().getOwner().getId().equals(owner.getId())) {
+        if (!noteAccessService.hasPermission(share.getNote(), user, Share.Permission.ADMIN)) {
             throw new ForbiddenException("You don't have permission to delete this share");
         }
         
+        if (share.getGroup() != null) {
+            noteAccessService.revokeGroup(share.getNote().getId(), share.getGroup().getId());
+        } else {
+            noteAccessService.revoke(share.getNote().getId(), share.getSharedWithUser().getId());
+        }
         shareRepository.delete(share);
     }
+    
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+    
+    // Sharing is open to the owner and to users holding an ADMIN share
+    private Note getShareableNote(Long noteId, User user) {
+        Note note = noteRepository.findById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        
+        if (!noteAccessService.hasPermission(note, user, Share.Permission.ADMIN)) {
+            throw new ForbiddenException("You don't have permission to share this note");
+        }
+        return note;
+    }
+    
+    private Note markShared(Note note) {
+        note.setVisibility(Note.Visibility.SHARED);
+        note = noteRepository.saveAndFlush(note);
+        noteAccessService.noteUpdated(note);
+        return note;
+    }
+    
+    private static Share.Permission toPermission(String permission) {
+        return permission != null ? Share.Permission.valueOf(permission.toUpperCase()) : Share.Permission.READ;
+    }
+    
+    private ShareDto toDto(Share share) {
+        return ShareDto.builder()
+                .id(share.getId())
+                .noteId(share.getNote().getId())
+                .sharedWithEmail(share.getSharedWithUser() != null ? share.getSharedWithUser().getEmail() : null)
+                .groupId(share.getGroup() != null ? share.getGroup().getId() : null)
+                .groupName(share.getGroup() != null ? share.getGroup().getName() : null)
+                .permission(share.getPermission().name())
+                .build();
+    }
 }
@@ -0,0 +1,55 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.dto.tag.TagCountDto;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.exception.BadRequestException;
+import com.example.backend_spring.exception.ResourceNotFoundException;
+import com.example.backend_spring.repository.TagRepositoryCustom.TagCount;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.search.TagIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Tags of the current user's notes, answered from TagIndex. Not transactional on purpose: an
+ * index load must not run in a read-only transaction, which could send it to the replica.
+ */
+@Service
+@RequiredArgsConstructor
+public class TagService {
+
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_STATS = 1000;
+
+    private final UserRepository userRepository;
+    private final TagIndex tagIndex;
+
+    public List<TagCountDto> suggestTags(String prefix, int limit, String userEmail) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        User user = getUserByEmail(userEmail);
+        return toDtos(tagIndex.suggest(user.getId(), prefix, limit));
+    }
+
+    public List<TagCountDto> getTagStats(int limit, String userEmail) {
+        if (limit < 1 || limit > MAX_STATS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_STATS);
+        }
+        User user = getUserByEmail(userEmail);
+        return toDtos(tagIndex.top(user.getId(), limit));
+    }
+
+    private User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    private static List<TagCountDto> toDtos(List<TagCount> tags) {
+        return tags.stream()
+                .map(tag -> TagCountDto.builder().label(tag.label()).count(tag.count()).build())
+                .toList();
+    }
+}
@@ -0,0 +1,65 @@
+-- Initial schema, mirrors the JPA entities in com.example.backend_spring.entity
+
+CREATE TABLE users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE notes (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id    BIGINT       NOT NULL REFERENCES users (id),
+    title       VARCHAR(255) NOT NULL,
+    content_md  TEXT,
+    visibility  VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT ck_notes_visibility CHECK (visibility IN ('PRIVATE', 'SHARED', 'PUBLIC'))
+);
+
+CREATE TABLE tags (
+    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    label VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_tags_label UNIQUE (label)
+);
+
+CREATE TABLE note_tags (
+    note_id BIGINT NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    tag_id  BIGINT NOT NULL REFERENCES tags (id),
+    PRIMARY KEY (note_id, tag_id)
+);
+
+CREATE TABLE shares (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    note_id             BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    shared_with_user_id BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    permission          VARCHAR(255) NOT NULL,
+    -- ShareService refuses to share a note twice with the same user
+    CONSTRAINT uk_shares_note_user UNIQUE (note_id, shared_with_user_id)
+);
+
+CREATE TABLE public_links (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    note_id    BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    url_token  VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6),
+    CONSTRAINT uk_public_links_url_token UNIQUE (url_token)
+);
+
+-- NoteRepository.searchNotes: owner filter sorted by updated_at DESC
+CREATE INDEX idx_notes_owner_updated ON notes (owner_id, updated_at DESC);
+
+-- uk_shares_note_user covers lookups by note_id, this one covers "shared with me"
+CREATE INDEX idx_shares_shared_with_user ON shares (shared_with_user_id);
+
+-- The primary key covers note_id, tag filters go the other way
+CREATE INDEX idx_note_tags_tag ON note_tags (tag_id);
+
+CREATE INDEX idx_public_links_note ON public_links (note_id);
+
+-- LOWER(title) LIKE '%q%' in NoteRepository.searchNotes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_notes_title_trgm ON notes USING gin (LOWER(title) gin_trgm_ops);
@@ -0,0 +1,30 @@
+-- Denormalized read index: one row per note a user can read (owned or shared with them),
+-- maintained by NoteAccessService. Backs the keyset-paginated /api/v1/notes/accessible feed.
+
+CREATE TABLE note_access (
+    user_id    BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    note_id    BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    updated_at TIMESTAMP(6) NOT NULL,
+    role       VARCHAR(255) NOT NULL,
+    PRIMARY KEY (user_id, note_id),
+    CONSTRAINT ck_note_access_role CHECK (role IN ('OWNER', 'SHARED'))
+);
+
+-- Feed order: WHERE user_id = ? AND (updated_at, note_id) < (?, ?) ORDER BY updated_at DESC, note_id DESC
+CREATE INDEX idx_note_access_user_updated ON note_access (user_id, updated_at DESC, note_id DESC);
+
+-- Bulk updated_at refresh and revocation by note
+CREATE INDEX idx_note_access_note ON note_access (note_id);
+
+-- includePublic: public notes merged into the feed in the same order
+CREATE INDEX idx_notes_public_updated ON notes (updated_at DESC, id DESC) WHERE visibility = 'PUBLIC';
+
+INSERT INTO note_access (user_id, note_id, updated_at, role)
+SELECT n.owner_id, n.id, n.updated_at, 'OWNER'
+FROM notes n;
+
+INSERT INTO note_access (user_id, note_id, updated_at, role)
+SELECT s.shared_with_user_id, n.id, n.updated_at, 'SHARED'
+FROM shares s
+JOIN notes n ON n.id = s.note_id
+ON CONFLICT (user_id, note_id) DO NOTHING;
@@ -0,0 +1,39 @@
+-- Group sharing: a share targets either one user or one group, with READ, WRITE or ADMIN permission
+
+CREATE TABLE user_groups (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    owner_id   BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_user_groups_owner ON user_groups (owner_id);
+
+CREATE TABLE group_members (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id   BIGINT       NOT NULL REFERENCES user_groups (id) ON DELETE CASCADE,
+    user_id    BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_group_members_group_user UNIQUE (group_id, user_id)
+);
+
+-- Membership of one user, cached by NoteAccessCache
+CREATE INDEX idx_group_members_user ON group_members (user_id);
+
+ALTER TABLE shares ALTER COLUMN shared_with_user_id DROP NOT NULL;
+ALTER TABLE shares ADD COLUMN group_id BIGINT REFERENCES user_groups (id) ON DELETE CASCADE;
+ALTER TABLE shares ADD CONSTRAINT uk_shares_note_group UNIQUE (note_id, group_id);
+ALTER TABLE shares ADD CONSTRAINT ck_shares_target CHECK ((shared_with_user_id IS NULL) <> (group_id IS NULL));
+ALTER TABLE shares ADD CONSTRAINT ck_shares_permission CHECK (permission IN ('READ', 'WRITE', 'ADMIN'));
+CREATE INDEX idx_shares_group ON shares (group_id);
+
+-- note_access counterpart for groups, one row per (group, note) instead of per member
+CREATE TABLE note_group_access (
+    group_id   BIGINT       NOT NULL REFERENCES user_groups (id) ON DELETE CASCADE,
+    note_id    BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (group_id, note_id)
+);
+
+CREATE INDEX idx_note_group_access_group_updated ON note_group_access (group_id, updated_at DESC, note_id DESC);
+CREATE INDEX idx_note_group_access_note ON note_group_access (note_id);
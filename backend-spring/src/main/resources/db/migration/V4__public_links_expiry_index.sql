@@ -0,0 +1,2 @@
+-- MaintenanceScheduler: DELETE of public links past expires_at, links without expiry never qualify
+CREATE INDEX idx_public_links_expires ON public_links (expires_at) WHERE expires_at IS NOT NULL;
@@ -0,0 +1,10 @@
+-- Token buckets shared between instances when app.rate-limit.store=jdbc, see ratelimit/JdbcRateLimitStore.
+-- UNLOGGED: no WAL for a row updated on every auth request; a crash empties the table, which only resets the limits.
+-- No index on full_at so the updates stay HOT, the cleanup scans a table of recently seen clients only.
+CREATE UNLOGGED TABLE rate_limit_buckets (
+    bucket_key  TEXT             PRIMARY KEY,
+    tokens      DOUBLE PRECISION NOT NULL,
+    refilled_at TIMESTAMP(6)     NOT NULL,
+    full_at     TIMESTAMP(6)     NOT NULL,
+    allowed     BOOLEAN          NOT NULL
+);
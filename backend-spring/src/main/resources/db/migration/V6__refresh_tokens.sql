@@ -0,0 +1,15 @@
+-- Refresh token families, see service/RefreshTokenService. token_hash is the first 128 bits of SHA-256(jti).
+CREATE TABLE refresh_tokens (
+    token_hash UUID         PRIMARY KEY,
+    user_id    BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    family_id  UUID         NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    used_at    TIMESTAMP(6)
+);
+
+-- Logout from all devices
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens (user_id);
+-- Revocation of a family on reuse
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
+-- MaintenanceScheduler: DELETE of expired tokens
+CREATE INDEX idx_refresh_tokens_expires ON refresh_tokens (expires_at);
@@ -0,0 +1,18 @@
+-- Note history, see revision/NoteRevisionService. Every snapshot-every revisions (or when a delta
+-- would not be smaller) the deflated content is stored whole; in between, a deflated binary delta
+-- against the previous revision. Reading a revision replays at most one chain.
+CREATE TABLE note_revisions (
+    note_id           BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    revision          INT          NOT NULL,
+    snapshot_revision INT          NOT NULL,
+    author_id         BIGINT       REFERENCES users (id) ON DELETE SET NULL,
+    content_length    INT          NOT NULL,
+    data              BYTEA        NOT NULL,
+    created_at        TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (note_id, revision),
+    CONSTRAINT ck_note_revisions_chain CHECK (snapshot_revision BETWEEN 1 AND revision)
+);
+
+-- MaintenanceScheduler: the newest snapshot past the retention period, per note
+CREATE INDEX idx_note_revisions_snapshots ON note_revisions (note_id, created_at)
+    WHERE revision = snapshot_revision;
@@ -0,0 +1,28 @@
+-- Note bodies move out of the notes rows into a content-addressed table, see
+-- service/NoteContentService: list queries no longer read them, identical bodies are stored once.
+CREATE TABLE note_contents (
+    hash          UUID         PRIMARY KEY,
+    data          BYTEA        NOT NULL,
+    compressed    BOOLEAN      NOT NULL,
+    referenced_at TIMESTAMP(6) NOT NULL
+);
+
+ALTER TABLE notes ADD COLUMN content_hash UUID;
+
+-- Same key as NoteContent.hash: the first 128 bits of SHA-256 of the UTF-8 text. Existing bodies
+-- are copied uncompressed (TOAST still compresses them); the application deflates new ones.
+UPDATE notes
+SET content_hash = encode(substr(sha256(convert_to(content_md, 'UTF8')), 1, 16), 'hex')::uuid
+WHERE content_md IS NOT NULL;
+
+INSERT INTO note_contents (hash, data, compressed, referenced_at)
+SELECT DISTINCT ON (content_hash) content_hash, convert_to(content_md, 'UTF8'), false, LOCALTIMESTAMP
+FROM notes
+WHERE content_hash IS NOT NULL;
+
+ALTER TABLE notes ADD CONSTRAINT fk_notes_content FOREIGN KEY (content_hash) REFERENCES note_contents (hash);
+
+-- MaintenanceScheduler: NOT EXISTS check before deleting an unreferenced body
+CREATE INDEX idx_notes_content_hash ON notes (content_hash);
+
+ALTER TABLE notes DROP COLUMN content_md;
@@ -0,0 +1,15 @@
+-- Files attached to notes, see attachment/AttachmentService. The bytes live in the blob store
+-- (app.attachments.store) under storage_key; sha256 is the hex digest, served as the ETag.
+CREATE TABLE attachments (
+    id           BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    note_id      BIGINT       NOT NULL REFERENCES notes (id) ON DELETE CASCADE,
+    file_name    VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    size         BIGINT       NOT NULL,
+    sha256       VARCHAR(64)  NOT NULL,
+    storage_key  VARCHAR(255) NOT NULL UNIQUE,
+    uploaded_by  BIGINT       REFERENCES users (id) ON DELETE SET NULL,
+    created_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_attachments_note ON attachments (note_id);
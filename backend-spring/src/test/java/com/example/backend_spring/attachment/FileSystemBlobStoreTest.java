@@ -0,0 +1,75 @@
+package com.example.backend_spring.attachment;
+
+import com.example.backend_spring.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void writtenBlobReadsBackFromAnyPosition() throws Exception {
+        FileSystemBlobStore store = new FileSystemBlobStore(root);
+        byte[] data = new byte[200_000];
+        new Random(3).nextBytes(data);
+
+        BlobStore.StoredBlob blob = store.write(new ByteArrayInputStream(data), data.length);
+
+        assertThat(blob.size()).isEqualTo(data.length);
+        assertThat(blob.sha256()).isEqualTo(
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)));
+        assertThat(store.localFile(blob.key())).get().satisfies(file -> assertThat(file).hasBinaryContent(data));
+        try (SeekableByteChannel channel = store.open(blob.key())) {
+            ByteBuffer buffer = ByteBuffer.allocate(10);
+            channel.position(150_000).read(buffer);
+            assertThat(buffer.array()).containsExactly(Arrays.copyOfRange(data, 150_000, 150_010));
+        }
+    }
+
+    @Test
+    void oversizedBlobIsRefusedAndLeavesNothingBehind() throws Exception {
+        FileSystemBlobStore store = new FileSystemBlobStore(root);
+
+        assertThatThrownBy(() -> store.write(new ByteArrayInputStream(new byte[100_001]), 100_000))
+                .isInstanceOf(PayloadTooLargeException.class);
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void deletedBlobIsGone() throws Exception {
+        FileSystemBlobStore store = new FileSystemBlobStore(root);
+        BlobStore.StoredBlob blob = store.write(new ByteArrayInputStream(new byte[] {1, 2, 3}), 10);
+
+        store.delete(blob.key());
+        store.delete(blob.key());
+
+        assertThatThrownBy(() -> store.open(blob.key())).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void keysCannotLeaveTheRoot() {
+        FileSystemBlobStore store = new FileSystemBlobStore(root);
+
+        assertThatThrownBy(() -> store.open("../../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.backend_spring.collab;
+
+import com.example.backend_spring.dto.group.AddGroupMemberRequest;
+import com.example.backend_spring.dto.group.CreateGroupRequest;
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.share.ShareWithGroupRequest;
+import com.example.backend_spring.dto.share.ShareWithUserRequest;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.repository.UserGroupRepository;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.security.JwtUtil;
+import com.example.backend_spring.service.GroupService;
+import com.example.backend_spring.service.NoteService;
+import com.example.backend_spring.service.ShareService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Real WebSocket connections. Not @Transactional: the handshake and the session read committed
+ * shares, and revocations act after commit.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CollabIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserGroupRepository userGroupRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final StandardWebSocketClient client = new StandardWebSocketClient();
+    private final List<WebSocketSession> sessions = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+
+    private User owner;
+    private User reader;
+    private User writer;
+    private Long noteId;
+    private Long groupId;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        owner = user("collab-owner-" + run + "@example.com");
+        reader = user("collab-reader-" + run + "@example.com");
+        writer = user("collab-writer-" + run + "@example.com");
+
+        CreateNoteRequest note = new CreateNoteRequest();
+        note.setTitle("Edited together");
+        note.setContentMd("hello");
+        note.setTags(Set.of("collab"));
+        noteId = noteService.createNote(note, owner.getEmail()).getId();
+
+        ShareWithUserRequest readShare = new ShareWithUserRequest();
+        readShare.setEmail(reader.getEmail());
+        readShare.setPermission("READ");
+        shareService.shareWithUser(noteId, readShare, owner.getEmail());
+
+        CreateGroupRequest group = new CreateGroupRequest();
+        group.setName("Editors");
+        groupId = groupService.createGroup(group, owner.getEmail()).getId();
+        AddGroupMemberRequest member = new AddGroupMemberRequest();
+        member.setEmail(writer.getEmail());
+        groupService.addMember(groupId, member, owner.getEmail());
+        ShareWithGroupRequest writeShare = new ShareWithGroupRequest();
+        writeShare.setGroupId(groupId);
+        writeShare.setPermission("WRITE");
+        shareService.shareWithGroup(noteId, writeShare, owner.getEmail());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (WebSocketSession session : sessions) {
+            if (session.isOpen()) {
+                session.close();
+            }
+        }
+        noteService.deleteNote(noteId, owner.getEmail());
+        if (userGroupRepository.existsById(groupId)) {
+            groupService.deleteGroup(groupId, owner.getEmail());
+        }
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void handshake_AcceptsTheTokenInTheHeaderOrTheQuery() throws Exception {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateAccessToken(writer.getEmail()));
+        Client byHeader = connect(headers, collabUri());
+        Client byQuery = connect(new WebSocketHttpHeaders(),
+                URI.create(collabUri() + "?access_token=" + jwtUtil.generateAccessToken(reader.getEmail())));
+
+        JsonNode init = byHeader.next();
+        assertEquals("init", init.path("type").asText());
+        assertEquals("hello", init.path("content").asText());
+        assertTrue(init.path("canWrite").asBoolean());
+        assertFalse(byQuery.next().path("canWrite").asBoolean());
+    }
+
+    @Test
+    void handshake_RefusesMissingTokensAndOutsiders() {
+        User outsider = user("collab-outsider-" + UUID.randomUUID() + "@example.com");
+
+        assertThrows(ExecutionException.class, () -> connect(new WebSocketHttpHeaders(), collabUri()));
+        assertThrows(ExecutionException.class, () -> connect(new WebSocketHttpHeaders(),
+                URI.create(collabUri() + "?access_token=" + jwtUtil.generateAccessToken(outsider.getEmail()))));
+    }
+
+    @Test
+    void readOnlySession_RejectsOperations() throws Exception {
+        Client client = connect(reader);
+        int revision = client.next().path("revision").asInt();
+
+        client.session.sendMessage(new TextMessage(
+                "{\"type\":\"op\",\"revision\":" + revision + ",\"ops\":[5,\" world\"]}"));
+
+        JsonNode reply = client.next();
+        assertEquals("error", reply.path("type").asText());
+        assertTrue(client.session.isOpen());
+    }
+
+    @Test
+    void removalFromTheGroup_ClosesTheSession() throws Exception {
+        Client client = connect(writer);
+        client.next();
+
+        groupService.removeMember(groupId, writer.getId(), owner.getEmail());
+
+        assertEquals(CollabService.ACCESS_REVOKED.getCode(), client.closed.get(5, TimeUnit.SECONDS).getCode());
+    }
+
+    @Test
+    void deletingTheGroup_ClosesTheSessionsOfItsMembers() throws Exception {
+        Client member = connect(writer);
+        Client directReader = connect(reader);
+        member.next();
+        directReader.next();
+
+        groupService.deleteGroup(groupId, owner.getEmail());
+
+        assertEquals(CollabService.ACCESS_REVOKED.getCode(), member.closed.get(5, TimeUnit.SECONDS).getCode());
+        assertTrue(directReader.session.isOpen());
+    }
+
+    private URI collabUri() {
+        return URI.create("ws://localhost:" + port + "/api/v1/notes/" + noteId + "/collab");
+    }
+
+    private Client connect(User user) throws Exception {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateAccessToken(user.getEmail()));
+        return connect(headers, collabUri());
+    }
+
+    private Client connect(WebSocketHttpHeaders headers, URI uri) throws Exception {
+        Client handler = new Client();
+        handler.session = client.execute(handler, headers, uri).get(5, TimeUnit.SECONDS);
+        sessions.add(handler.session);
+        return handler;
+    }
+
+    private User user(String email) {
+        User user = userRepository.save(User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .build());
+        users.add(user);
+        return user;
+    }
+
+    private class Client extends TextWebSocketHandler {
+
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final CompletableFuture<CloseStatus> closed = new CompletableFuture<>();
+        private WebSocketSession session;
+
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            messages.add(message.getPayload());
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+            closed.complete(status);
+        }
+
+        JsonNode next() throws Exception {
+            String message = messages.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "No message within 5 seconds");
+            return objectMapper.readTree(message);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.backend_spring.collab;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TextOperationTest {
+
+    @Test
+    void parsesAndAppliesTheJsonForm() throws Exception {
+        TextOperation operation = TextOperation.fromJson(new ObjectMapper().readTree("[6, \"big \", -6, 5]"));
+
+        assertThat(operation.apply("hello brave world")).isEqualTo("hello big world");
+        assertThat(operation.components()).containsExactly(6, "big ", -6, 5);
+        assertThatThrownBy(() -> operation.apply("hello")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TextOperation.fromJson(new ObjectMapper().readTree("[0]")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentInsertsAtTheSamePositionConverge() {
+        TextOperation a = new TextOperation().retain(5).insert("A").retain(6);
+        TextOperation b = new TextOperation().retain(5).insert("B").retain(6);
+
+        TextOperation[] transformed = TextOperation.transform(a, b);
+
+        String document = "hello world";
+        assertThat(transformed[1].apply(a.apply(document))).isEqualTo("helloAB world");
+        assertThat(transformed[0].apply(b.apply(document))).isEqualTo("helloAB world");
+    }
+
+    @Test
+    void randomConcurrentOperationsConverge() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            String document = randomText(random, random.nextInt(30));
+            TextOperation a = randomOperation(random, document);
+            TextOperation b = randomOperation(random, document);
+
+            TextOperation[] transformed = TextOperation.transform(a, b);
+
+            assertThat(transformed[1].apply(a.apply(document)))
+                    .isEqualTo(transformed[0].apply(b.apply(document)));
+        }
+    }
+
+    @Test
+    void documentTransformsLateOperationsPastAcceptedOnes() {
+        CollabDocument document = new CollabDocument(1L, "abc", 10, 100);
+        document.submit(0, new TextOperation().insert("x").retain(3), 1L);
+
+        // Written against revision 0, before the "x" was seen
+        TextOperation applied = document.submit(0, new TextOperation().retain(3).insert("y"), 1L);
+
+        assertThat(applied.components()).isEqualTo(List.of(4, "y"));
+        assertThat(document.content()).isEqualTo("xabcy");
+        assertThat(document.revision()).isEqualTo(2);
+        assertThatThrownBy(() -> document.submit(3, new TextOperation().retain(5), 1L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void replaceKeepsCommonPrefixAndSuffix() {
+        TextOperation operation = TextOperation.replace("hello brave world", "hello new world");
+
+        assertThat(operation.components()).containsExactly(6, "new", -5, 6);
+        assertThat(operation.apply("hello brave world")).isEqualTo("hello new world");
+    }
+
+    private static TextOperation randomOperation(Random random, String document) {
+        TextOperation operation = new TextOperation();
+        int position = 0;
+        while (position < document.length()) {
+            int count = 1 + random.nextInt(Math.min(5, document.length() - position));
+            switch (random.nextInt(3)) {
+                case 0 -> operation.retain(count);
+                case 1 -> operation.delete(count);
+                default -> {
+                    operation.insert(randomText(random, 1 + random.nextInt(4)));
+                    continue;
+                }
+            }
+            position += count;
+        }
+        if (random.nextBoolean()) {
+            operation.insert(randomText(random, 1 + random.nextInt(4)));
+        }
+        return operation;
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.backend_spring.config;
+
+import com.example.backend_spring.service.NoteAccessCache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.datasource.replica.url=jdbc:h2:mem:replicadb",
+        "app.datasource.replica.driver-class-name=org.h2.Driver",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password="
+})
+@ActiveProfiles("test")
+class DataSourceConfigTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NoteAccessCache noteAccessCache;
+
+    @Test
+    void readOnlyTransaction_UsesReplica() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        String url = template.execute(status -> currentConnectionUrl());
+
+        assertTrue(url.contains("replicadb"), url);
+    }
+
+    @Test
+    void readWriteTransaction_UsesPrimary() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        String url = template.execute(status -> currentConnectionUrl());
+
+        assertTrue(url.contains("testdb"), url);
+    }
+
+    @Test
+    void accessCache_LoadsOnPrimaryUnderReadOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        // The replica database has no tables: reading it would fail
+        Boolean shared = template.execute(status -> noteAccessCache.isSharedWith(1L, 1L));
+
+        assertFalse(shared);
+    }
+
+    private String currentConnectionUrl() {
+        return entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getURL());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.dto.link.CreatePublicLinkRequest;
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.share.ShareWithUserRequest;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.security.JwtUtil;
+import com.example.backend_spring.service.NoteService;
+import com.example.backend_spring.service.PublicLinkService;
+import com.example.backend_spring.service.ShareService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class AttachmentIntegrationTest {
+
+    private static final String CONTENT = "hello attachment world";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private PublicLinkService publicLinkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private User reader;
+    private Long noteId;
+    private Long attachmentId;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        owner = user("attachment-owner@example.com");
+        reader = user("attachment-reader@example.com");
+        CreateNoteRequest note = new CreateNoteRequest();
+        note.setTitle("With a file");
+        note.setContentMd("see attached");
+        note.setTags(Set.of("files"));
+        noteId = noteService.createNote(note, owner.getEmail()).getId();
+
+        ShareWithUserRequest share = new ShareWithUserRequest();
+        share.setEmail(reader.getEmail());
+        share.setPermission("READ");
+        shareService.shareWithUser(noteId, share, owner.getEmail());
+
+        String body = mockMvc.perform(upload(owner))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size").value(CONTENT.length()))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode attachment = objectMapper.readTree(body);
+        attachmentId = attachment.path("id").asLong();
+        etag = "\"" + attachment.path("sha256").asText() + "\"";
+    }
+
+    @Test
+    void upload_RequiresWritePermission() throws Exception {
+        mockMvc.perform(upload(reader))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void download_IsRevalidatedWithTheETag() throws Exception {
+        mockMvc.perform(download(reader))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(CONTENT.length())))
+                .andExpect(content().string(CONTENT));
+
+        mockMvc.perform(download(reader).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void download_SendsASingleRange() throws Exception {
+        mockMvc.perform(download(reader).header(HttpHeaders.RANGE, "bytes=6-15"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 6-15/" + CONTENT.length()))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(content().string("attachment"));
+    }
+
+    @Test
+    void download_RefusesARangePastTheEnd() throws Exception {
+        mockMvc.perform(download(reader).header(HttpHeaders.RANGE, "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length()));
+    }
+
+    @Test
+    void download_SendsTheWholeFileWhenIfRangeIsStale() throws Exception {
+        mockMvc.perform(download(reader)
+                        .header(HttpHeaders.RANGE, "bytes=6-15")
+                        .header(HttpHeaders.IF_RANGE, "\"an-older-version\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(CONTENT));
+
+        mockMvc.perform(download(reader)
+                        .header(HttpHeaders.RANGE, "bytes=6-15")
+                        .header(HttpHeaders.IF_RANGE, etag))
+                .andExpect(status().isPartialContent());
+    }
+
+    @Test
+    void head_SendsTheHeadersWithoutTheBody() throws Exception {
+        mockMvc.perform(head("/api/v1/notes/" + noteId + "/attachments/" + attachmentId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer(reader)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(CONTENT.length())))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void publicLink_DownloadsWithoutAuthentication() throws Exception {
+        String token = publicLinkService.createPublicLink(noteId, new CreatePublicLinkRequest(), owner.getEmail())
+                .getUrlToken();
+
+        mockMvc.perform(get("/p/" + token + "/attachments/" + attachmentId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(CONTENT));
+        mockMvc.perform(get("/p/not-a-token/attachments/" + attachmentId))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder upload(User user) {
+        return post("/api/v1/notes/" + noteId + "/attachments")
+                .param("fileName", "hello.txt")
+                .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MockHttpServletRequestBuilder download(User user) {
+        return get("/api/v1/notes/" + noteId + "/attachments/" + attachmentId)
+                .header(HttpHeaders.AUTHORIZATION, bearer(user));
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtUtil.generateAccessToken(user.getEmail());
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .build());
+    }
+}
@@ -11,11 +11,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -102,6 +104,30 @@ class AuthControllerIntegrationTest {
                 .andExpect(jsonPath("$.user.email").value("user@example.com"));
     }
 
+    @Test
+    void login_LegacyBcryptHash_IsRehashedWithItsId() throws Exception {
+        // Arrange: stored before hashes were prefixed with {bcrypt}
+        User user = User.builder()
+                .email("legacy@example.com")
+                .passwordHash(new BCryptPasswordEncoder().encode("password123"))
+                .build();
+        userRepository.save(user);
+
+        LoginRequest request = new LoginRequest();
+        request.setEmail("legacy@example.com");
+        request.setPassword("password123");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        String passwordHash = userRepository.findByEmail("legacy@example.com").orElseThrow().getPasswordHash();
+        assertTrue(passwordHash.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches("password123", passwordHash));
+    }
+
     @Test
     void login_InvalidCredentials_ReturnsUnauthorized() throws Exception {
         // Arrange
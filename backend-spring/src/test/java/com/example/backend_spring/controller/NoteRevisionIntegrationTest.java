@@ -0,0 +1,121 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.note.UpdateNoteRequest;
+import com.example.backend_spring.dto.share.ShareWithUserRequest;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.security.JwtUtil;
+import com.example.backend_spring.service.NoteService;
+import com.example.backend_spring.service.ShareService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.revisions.coalesce-window=0s")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class NoteRevisionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private Long noteId;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("history-owner@example.com");
+        CreateNoteRequest create = new CreateNoteRequest();
+        create.setTitle("Published later");
+        create.setContentMd("draft written while private");
+        create.setTags(Set.of("history"));
+        noteId = noteService.createNote(create, owner.getEmail()).getId();
+
+        UpdateNoteRequest publish = new UpdateNoteRequest();
+        publish.setContentMd("published version");
+        publish.setVisibility("PUBLIC");
+        noteService.updateNote(noteId, publish, owner.getEmail());
+        entityManager.flush();
+    }
+
+    @Test
+    void owner_ReadsTheHistory() throws Exception {
+        as(owner, "/api/v1/notes/" + noteId + "/revisions")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].revision").value(2))
+                .andExpect(jsonPath("$[1].authorEmail").value(owner.getEmail()));
+        as(owner, "/api/v1/notes/" + noteId + "/revisions/1")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contentMd").value("draft written while private"));
+    }
+
+    @Test
+    void publicNote_DoesNotPublishItsHistory() throws Exception {
+        User stranger = user("history-stranger@example.com");
+
+        as(stranger, "/api/v1/notes/" + noteId)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contentMd").value("published version"));
+        as(stranger, "/api/v1/notes/" + noteId + "/revisions")
+                .andExpect(status().isForbidden());
+        as(stranger, "/api/v1/notes/" + noteId + "/revisions/1")
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void sharedReader_ReadsTheHistory() throws Exception {
+        User reader = user("history-reader@example.com");
+        ShareWithUserRequest share = new ShareWithUserRequest();
+        share.setEmail(reader.getEmail());
+        share.setPermission("READ");
+        shareService.shareWithUser(noteId, share, owner.getEmail());
+
+        as(reader, "/api/v1/notes/" + noteId + "/revisions/1")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contentMd").value("draft written while private"));
+    }
+
+    private ResultActions as(User user, String path) throws Exception {
+        return mockMvc.perform(get(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateAccessToken(user.getEmail())));
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .build());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.note.UpdateNoteRequest;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.security.JwtUtil;
+import com.example.backend_spring.service.NoteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not @Transactional: NoteIndex is refreshed once changes commit, on a thread of its own, so the
+ * searches below wait for it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class NoteSearchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final List<Long> noteIds = new ArrayList<>();
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .email("search-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("hash")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        noteIds.forEach(noteId -> noteService.deleteNote(noteId, owner.getEmail()));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void tagFilter_SeesCreatedAndRetaggedNotesOnceCommitted() throws Exception {
+        Long planning = note("Planning", Set.of("work"));
+        // Loads the owner's notes into the index, later changes are applied to it in place
+        search("work")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].title", containsInAnyOrder("Planning")));
+
+        note("Report", Set.of("work", "urgent"));
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> search("work")
+                .andExpect(jsonPath("$.content[*].title", containsInAnyOrder("Planning", "Report"))));
+
+        UpdateNoteRequest retag = new UpdateNoteRequest();
+        retag.setTags(Set.of("archived"));
+        noteService.updateNote(planning, retag, owner.getEmail());
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> search("archived")
+                .andExpect(jsonPath("$.content[*].title", containsInAnyOrder("Planning"))));
+        search("work AND NOT archived")
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[*].title", containsInAnyOrder("Report")));
+    }
+
+    @Test
+    void facets_AreSerializedNextToThePage() throws Exception {
+        note("Report", Set.of("work", "urgent"));
+        Long published = note("Release notes", Set.of("work"));
+        UpdateNoteRequest publish = new UpdateNoteRequest();
+        publish.setVisibility("PUBLIC");
+        noteService.updateNote(published, publish, owner.getEmail());
+
+        search("work", true)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.facets.tags.length()").value(2))
+                .andExpect(jsonPath("$.facets.tags[0].label").value("work"))
+                .andExpect(jsonPath("$.facets.tags[0].count").value(2))
+                .andExpect(jsonPath("$.facets.tags[1].label").value("urgent"))
+                .andExpect(jsonPath("$.facets.tags[1].count").value(1))
+                // Every value is listed, with 0 when no note has it
+                .andExpect(jsonPath("$.facets.visibility.PRIVATE").value(1))
+                .andExpect(jsonPath("$.facets.visibility.SHARED").value(0))
+                .andExpect(jsonPath("$.facets.visibility.PUBLIC").value(1))
+                .andExpect(jsonPath("$.facets.updated.DAY").value(2))
+                .andExpect(jsonPath("$.facets.updated.WEEK").value(0))
+                .andExpect(jsonPath("$.facets.updated.MONTH").value(0))
+                .andExpect(jsonPath("$.facets.updated.YEAR").value(0))
+                .andExpect(jsonPath("$.facets.updated.OLDER").value(0));
+
+        search("work", false)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.facets").doesNotExist());
+    }
+
+    private ResultActions search(String tags) throws Exception {
+        return search(tags, false);
+    }
+
+    private ResultActions search(String tags, boolean facets) throws Exception {
+        return mockMvc.perform(get("/api/v1/notes")
+                .param("tags", tags)
+                .param("facets", String.valueOf(facets))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateAccessToken(owner.getEmail())));
+    }
+
+    private Long note(String title, Set<String> tags) {
+        CreateNoteRequest request = new CreateNoteRequest();
+        request.setTitle(title);
+        request.setContentMd("content of " + title);
+        request.setTags(tags);
+        Long noteId = noteService.createNote(request, owner.getEmail()).getId();
+        noteIds.add(noteId);
+        return noteId;
+    }
+}
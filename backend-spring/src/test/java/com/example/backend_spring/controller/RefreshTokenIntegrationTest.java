@@ -0,0 +1,164 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.dto.auth.LoginRequest;
+import com.example.backend_spring.dto.auth.RefreshTokenRequest;
+import com.example.backend_spring.dto.auth.RegisterRequest;
+import com.example.backend_spring.repository.RefreshTokenRepository;
+import com.example.backend_spring.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not @Transactional: every request commits, as in production, so the rotate statement sees the
+ * tokens issued by the previous request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RefreshTokenIntegrationTest {
+
+    private static final String EMAIL = "refresh@example.com";
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private JsonNode registered;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(EMAIL);
+        request.setPassword(PASSWORD);
+        registered = body(mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> userRepository.findByEmail(EMAIL).ifPresent(user -> {
+            refreshTokenRepository.deleteByUserId(user.getId());
+            userRepository.delete(user);
+        }));
+    }
+
+    @Test
+    void refresh_TokenIsSingleUseAndChains() throws Exception {
+        JsonNode rotated = body(refresh(refreshToken(registered)).andExpect(status().isOk()));
+
+        assertNotEquals(refreshToken(registered), refreshToken(rotated));
+        assertEquals(EMAIL, rotated.path("user").path("email").asText());
+        assertEquals(registered.path("user").path("id").asLong(), rotated.path("user").path("id").asLong());
+        refresh(refreshToken(rotated)).andExpect(status().isOk());
+    }
+
+    @Test
+    void refresh_ReuseRevokesTheWholeFamily() throws Exception {
+        JsonNode otherDevice = login();
+        JsonNode rotated = body(refresh(refreshToken(registered)).andExpect(status().isOk()));
+
+        refresh(refreshToken(registered)).andExpect(status().isBadRequest());
+
+        // The successor issued to whoever used the token first is gone too
+        refresh(refreshToken(rotated)).andExpect(status().isBadRequest());
+        assertEquals(1, tokenCount());
+        refresh(refreshToken(otherDevice)).andExpect(status().isOk());
+    }
+
+    @Test
+    void refresh_RefusesAnAccessToken() throws Exception {
+        refresh(registered.path("accessToken").asText())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void bearer_RefusesARefreshToken() throws Exception {
+        mockMvc.perform(get("/api/v1/tags")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken(registered)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/tags")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + registered.path("accessToken").asText()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void logoutAll_RevokesEveryDevice() throws Exception {
+        JsonNode otherDevice = login();
+
+        mockMvc.perform(post("/api/v1/auth/logout-all")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + registered.path("accessToken").asText()))
+                .andExpect(status().isNoContent());
+
+        assertEquals(0, tokenCount());
+        refresh(refreshToken(registered)).andExpect(status().isBadRequest());
+        refresh(refreshToken(otherDevice)).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode login() throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(EMAIL);
+        request.setPassword(PASSWORD);
+        return body(mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk()));
+    }
+
+    private ResultActions refresh(String token) throws Exception {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(token);
+        return mockMvc.perform(post("/api/v1/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private JsonNode body(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+
+    private static String refreshToken(JsonNode response) {
+        return response.path("refreshToken").asText();
+    }
+
+    private int tokenCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens t JOIN users u ON u.id = t.user_id WHERE u.email = ?",
+                Integer.class, EMAIL);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.backend_spring.controller;
+
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.share.ShareWithUserRequest;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.security.JwtUtil;
+import com.example.backend_spring.service.NoteService;
+import com.example.backend_spring.service.ShareService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ShareBulkIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User alice;
+    private User bob;
+    private Long sharedNoteId;
+    private Long privateNoteId;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("bulk-owner@example.com");
+        alice = user("bulk-alice@example.com");
+        bob = user("bulk-bob@example.com");
+        sharedNoteId = note("Already shared with Alice");
+        privateNoteId = note("Still private");
+
+        ShareWithUserRequest share = new ShareWithUserRequest();
+        share.setEmail(alice.getEmail());
+        share.setPermission("WRITE");
+        shareService.shareWithUser(sharedNoteId, share, owner.getEmail());
+        entityManager.flush();
+    }
+
+    @Test
+    void shareInBulk_SkipsExistingSharesAndTheOwner() throws Exception {
+        shareInBulk(List.of(sharedNoteId, privateNoteId),
+                List.of(alice.getEmail(), bob.getEmail(), owner.getEmail()), "READ")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes").value(2))
+                .andExpect(jsonPath("$.users").value(3))
+                .andExpect(jsonPath("$.sharesCreated").value(3))
+                .andExpect(jsonPath("$.sharesSkipped").value(3));
+        entityManager.flush();
+
+        // Alice keeps her single WRITE share, the owner gets none
+        assertEquals(List.of("WRITE"), permissions(sharedNoteId, alice));
+        assertEquals(List.of("READ"), permissions(sharedNoteId, bob));
+        assertEquals(List.of("READ"), permissions(privateNoteId, alice));
+        assertEquals(List.of("READ"), permissions(privateNoteId, bob));
+        assertEquals(List.of(), permissions(privateNoteId, owner));
+
+        assertEquals("SHARED", visibility(privateNoteId));
+        assertEquals("SHARED", access(privateNoteId, alice));
+        assertEquals("SHARED", access(privateNoteId, bob));
+        assertEquals("SHARED", access(sharedNoteId, bob));
+        assertEquals("OWNER", access(privateNoteId, owner));
+    }
+
+    @Test
+    void shareInBulk_ReportsUnknownEmailsAndWritesNothing() throws Exception {
+        shareInBulk(List.of(privateNoteId), List.of(bob.getEmail(), "bulk-ghost@example.com"), null)
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(containsString("bulk-ghost@example.com")))
+                .andExpect(jsonPath("$.message").value(not(containsString(bob.getEmail()))));
+        entityManager.flush();
+
+        assertEquals(List.of(), permissions(privateNoteId, bob));
+        assertEquals("PRIVATE", visibility(privateNoteId));
+        assertNull(access(privateNoteId, bob));
+    }
+
+    @Test
+    void shareInBulk_RequiresAdminOnEveryNote() throws Exception {
+        shareInBulk(List.of(sharedNoteId), List.of(bob.getEmail()), null, alice)
+                .andExpect(status().isForbidden());
+    }
+
+    private ResultActions shareInBulk(List<Long> noteIds, List<String> emails, String permission) throws Exception {
+        return shareInBulk(noteIds, emails, permission, owner);
+    }
+
+    private ResultActions shareInBulk(List<Long> noteIds, List<String> emails, String permission, User caller)
+            throws Exception {
+        Map<String, Object> body = permission != null
+                ? Map.of("noteIds", noteIds, "emails", emails, "permission", permission)
+                : Map.of("noteIds", noteIds, "emails", emails);
+        return mockMvc.perform(post("/api/v1/notes/share/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateAccessToken(caller.getEmail()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)));
+    }
+
+    private List<String> permissions(Long noteId, User user) {
+        return jdbcTemplate.queryForList(
+                "SELECT permission FROM shares WHERE note_id = ? AND shared_with_user_id = ?",
+                String.class, noteId, user.getId());
+    }
+
+    private String visibility(Long noteId) {
+        return jdbcTemplate.queryForObject("SELECT visibility FROM notes WHERE id = ?", String.class, noteId);
+    }
+
+    private String access(Long noteId, User user) {
+        List<String> roles = jdbcTemplate.queryForList(
+                "SELECT role FROM note_access WHERE note_id = ? AND user_id = ?", String.class, noteId, user.getId());
+        return roles.isEmpty() ? null : roles.get(0);
+    }
+
+    private Long note(String title) {
+        CreateNoteRequest request = new CreateNoteRequest();
+        request.setTitle(title);
+        request.setContentMd("content");
+        request.setTags(Set.of("bulk"));
+        return noteService.createNote(request, owner.getEmail()).getId();
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .build());
+    }
+}
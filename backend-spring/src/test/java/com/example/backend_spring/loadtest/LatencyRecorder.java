@@ -0,0 +1,51 @@
+package com.example.backend_spring.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latencies (in microseconds) for one scenario. Each driver thread owns its own
+ * recorder, they are merged once the run is over so recording never contends.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    void record(long micros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = micros;
+    }
+
+    void recordError() {
+        errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.samples[i]);
+        }
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /** Percentile in milliseconds, nearest-rank method. */
+    double percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * count) - 1;
+        return sorted[Math.max(rank, 0)] / 1000.0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.backend_spring.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP driver: each thread plays one user at a time and fires the next request
+ * as soon as the previous one completes.
+ */
+class LoadDriver {
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String[] SEARCH_TERMS = {"note", "meeting", "idea", "draft", "todo"};
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<SeededUser> users;
+    private final List<String> publicTokens;
+    private final String password;
+
+    LoadDriver(String baseUrl, List<SeededUser> users, List<String> publicTokens, String password) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.publicTokens = publicTokens;
+        this.password = password;
+    }
+
+    Map<LoadScenario, LatencyRecorder> run(int threads, Duration duration) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + duration.toNanos();
+        try {
+            List<Future<Map<LoadScenario, LatencyRecorder>>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> runThread(seed, deadline)));
+            }
+
+            Map<LoadScenario, LatencyRecorder> merged = newRecorders();
+            for (Future<Map<LoadScenario, LatencyRecorder>> future : futures) {
+                future.get().forEach((scenario, recorder) -> merged.get(scenario).merge(recorder));
+            }
+            return merged;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    String login(String email) throws Exception {
+        HttpResponse<String> response = send(json("/api/v1/auth/login", "POST",
+                "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}", null));
+        Matcher matcher = ACCESS_TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed for " + email + ": " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+
+    private Map<LoadScenario, LatencyRecorder> runThread(long seed, long deadline) throws Exception {
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<LoadScenario, LatencyRecorder> recorders = newRecorders();
+        int totalWeight = LoadScenario.totalWeight();
+
+        while (System.nanoTime() < deadline) {
+            SeededUser user = users.get(random.nextInt(users.size()));
+            LoadScenario scenario = LoadScenario.pick(random.nextInt(totalWeight));
+            HttpRequest request = buildRequest(scenario, user, random);
+
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = send(request);
+                long micros = (System.nanoTime() - start) / 1000;
+                if (response.statusCode() >= 400) {
+                    recorders.get(scenario).recordError();
+                } else {
+                    recorders.get(scenario).record(micros);
+                }
+            } catch (Exception e) {
+                recorders.get(scenario).recordError();
+            }
+        }
+        return recorders;
+    }
+
+    private HttpRequest buildRequest(LoadScenario scenario, SeededUser user, SplittableRandom random) {
+        long noteId = user.noteIds()[random.nextInt(user.noteIds().length)];
+        return switch (scenario) {
+            case LOGIN -> json("/api/v1/auth/login", "POST",
+                    "{\"email\":\"" + user.email() + "\",\"password\":\"" + password + "\"}", null);
+            case LIST -> get("/api/v1/notes?page=0&size=20", user.token());
+            case SEARCH -> get("/api/v1/notes?query=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]
+                    + "&size=20", user.token());
+            case OPEN_NOTE -> get("/api/v1/notes/" + noteId, user.token());
+            case AUTOSAVE -> json("/api/v1/notes/" + noteId, "PUT",
+                    "{\"contentMd\":\"# Autosave " + random.nextInt() + "\\n" + "lorem ipsum ".repeat(50) + "\"}",
+                    user.token());
+            case PUBLIC_VIEW -> publicTokens.isEmpty()
+                    ? get("/api/v1/notes?page=0&size=20", user.token())
+                    : get("/p/" + publicTokens.get(random.nextInt(publicTokens.size())), null);
+        };
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest json(String path, String method, String body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<LoadScenario, LatencyRecorder> newRecorders() {
+        Map<LoadScenario, LatencyRecorder> recorders = new EnumMap<>(LoadScenario.class);
+        for (LoadScenario scenario : LoadScenario.values()) {
+            recorders.put(scenario, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    record SeededUser(String email, long[] noteIds, String token) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.backend_spring.loadtest;
+
+/**
+ * Requests issued by the load driver, with their share of the traffic mix.
+ */
+enum LoadScenario {
+    LOGIN(5),
+    LIST(35),
+    SEARCH(20),
+    OPEN_NOTE(20),
+    AUTOSAVE(10),
+    PUBLIC_VIEW(10);
+
+    private final int weight;
+
+    LoadScenario(int weight) {
+        this.weight = weight;
+    }
+
+    static LoadScenario pick(int roll) {
+        int cumulative = 0;
+        for (LoadScenario scenario : values()) {
+            cumulative += scenario.weight;
+            if (roll < cumulative) {
+                return scenario;
+            }
+        }
+        return LIST;
+    }
+
+    static int totalWeight() {
+        int total = 0;
+        for (LoadScenario scenario : values()) {
+            total += scenario.weight;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.backend_spring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test against the embedded stack (Tomcat + H2), seeded by SyntheticDataGenerator.
+ * Excluded from the normal build.
+ * Run with: ./mvnw test -Ploadtest [-Dloadtest.users=20 -Dloadtest.notesPerUser=100
+ * -Dloadtest.threads=8 -Dloadtest.durationSeconds=30 -Dloadtest.warmupSeconds=5]
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.backend_spring=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.springframework.web=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@ActiveProfiles("test")
+class LoadTest {
+
+    private static final String PASSWORD = "password123";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void runLoad() throws Exception {
+        int userCount = Integer.getInteger("loadtest.users", 20);
+        int notesPerUser = Integer.getInteger("loadtest.notesPerUser", 100);
+        int threads = Integer.getInteger("loadtest.threads", 8);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 30));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmupSeconds", 5));
+
+        SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(dataSource,
+                SyntheticDataGenerator.Settings.defaults()
+                        .emailPrefix("load")
+                        // One hash for everyone, BCrypt would otherwise dominate the seeding time
+                        .passwordHash(passwordEncoder.encode(PASSWORD))
+                        .users(userCount)
+                        .notes((long) userCount * notesPerUser)
+                        .powerUsers(1)
+                        .powerUserNotes(notesPerUser * 10)
+                        .tags(200)
+                        .wideShareFanout(Math.min(50, userCount - 1))
+                        .publicLinkRatio(0.05)
+                        .build())
+                .generate();
+
+        String baseUrl = "http://localhost:" + port;
+        LoadDriver loginDriver = new LoadDriver(baseUrl, List.of(), dataset.publicTokenSample(), PASSWORD);
+        List<LoadDriver.SeededUser> users = new ArrayList<>();
+        for (int i = 0; i < dataset.emails().length; i++) {
+            long firstNoteId = dataset.firstNoteIds()[i];
+            long[] noteIds = LongStream.range(firstNoteId, firstNoteId + dataset.noteCounts()[i]).toArray();
+            if (noteIds.length > 0) {
+                users.add(new LoadDriver.SeededUser(dataset.emails()[i], noteIds, loginDriver.login(dataset.emails()[i])));
+            }
+        }
+
+        LoadDriver driver = new LoadDriver(baseUrl, users, dataset.publicTokenSample(), PASSWORD);
+        driver.run(threads, warmup);
+        Map<LoadScenario, LatencyRecorder> results = driver.run(threads, duration);
+
+        Map<String, Object> report = report(results, duration, userCount, notesPerUser, threads);
+        Path output = Path.of("target", "loadtest", "report-" + System.currentTimeMillis() + ".json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        System.out.println("Load test report written to " + output.toAbsolutePath());
+
+        int total = results.values().stream().mapToInt(LatencyRecorder::count).sum();
+        assertTrue(total > 0, "No successful request during the run");
+    }
+
+    private Map<String, Object> report(
+            Map<LoadScenario, LatencyRecorder> results,
+            Duration duration,
+            int userCount,
+            int notesPerUser,
+            int threads) {
+
+        double seconds = duration.toMillis() / 1000.0;
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        int total = 0;
+
+        System.out.printf("%-12s %8s %7s %9s %9s %9s %9s%n", "scenario", "requests", "errors", "rps", "p50 ms", "p95 ms", "p99 ms");
+        for (Map.Entry<LoadScenario, LatencyRecorder> entry : results.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            total += recorder.count();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", recorder.count());
+            stats.put("errors", recorder.errors());
+            stats.put("rps", recorder.count() / seconds);
+            stats.put("p50Ms", recorder.percentile(50));
+            stats.put("p95Ms", recorder.percentile(95));
+            stats.put("p99Ms", recorder.percentile(99));
+            scenarios.put(entry.getKey().name(), stats);
+            System.out.printf("%-12s %8d %7d %9.1f %9.2f %9.2f %9.2f%n", entry.getKey(), recorder.count(),
+                    recorder.errors(), recorder.count() / seconds, recorder.percentile(50),
+                    recorder.percentile(95), recorder.percentile(99));
+        }
+        System.out.printf("%-12s %8d %7s %9.1f%n", "TOTAL", total, "", total / seconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", userCount);
+        report.put("notesPerUser", notesPerUser);
+        report.put("threads", threads);
+        report.put("durationSeconds", seconds);
+        report.put("totalRps", total / seconds);
+        report.put("scenarios", scenarios);
+        return report;
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.backend_spring.loadtest;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.NoteContent;
+import lombok.Builder;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded, reproducible generator of large datasets for benchmarks and load tests.
+ * Writes straight into users, tags, notes, note_tags, shares, note_access and public_links with
+ * COPY (PostgreSQL) or JDBC batches (H2), bypassing JPA entirely.
+ * <p>
+ * Standalone against PostgreSQL:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.example.backend_spring.loadtest.SyntheticDataGenerator \
+ *   -Dexec.args="jdbc:postgresql://localhost:5432/notesdb notesuser notespass 10000000"
+ * </pre>
+ */
+public class SyntheticDataGenerator {
+
+    private static final String[] WORDS = {
+            "meeting", "project", "idea", "draft", "review", "plan", "budget", "design", "release",
+            "roadmap", "retro", "sprint", "client", "research", "notes", "todo", "summary", "backlog",
+            "incident", "recipe", "travel", "reading", "journal", "api", "database", "migration"
+    };
+    // Note.contentMd is limited to 50000 characters
+    private static final int MAX_CONTENT_LENGTH = 50_000;
+    private static final int NOTES_PER_CHUNK = 5_000;
+
+    private final DataSource dataSource;
+    private final Settings settings;
+
+    public SyntheticDataGenerator(DataSource dataSource, Settings settings) {
+        this.dataSource = dataSource;
+        this.settings = settings;
+    }
+
+    @Builder(toBuilder = true)
+    public record Settings(
+            long seed,
+            String emailPrefix,
+            String passwordHash,
+            int users,
+            long notes,
+            int powerUsers,
+            int powerUserNotes,
+            int tags,
+            double tagZipfExponent,
+            int maxTagsPerNote,
+            double shareRatio,
+            double wideShareRatio,
+            int wideShareFanout,
+            double publicLinkRatio,
+            double largeBodyRatio,
+            int batchSize) {
+
+        public static SettingsBuilder defaults() {
+            return Settings.builder()
+                    .seed(42)
+                    .emailPrefix("user")
+                    .users(1_000)
+                    .notes(100_000)
+                    .powerUsers(2)
+                    .powerUserNotes(10_000)
+                    .tags(2_000)
+                    .tagZipfExponent(1.1)
+                    .maxTagsPerNote(5)
+                    .shareRatio(0.05)
+                    .wideShareRatio(0.001)
+                    .wideShareFanout(200)
+                    .publicLinkRatio(0.02)
+                    .largeBodyRatio(0.01)
+                    .batchSize(1_000);
+        }
+    }
+
+    /**
+     * What was written: user i has id firstUserId + i, email prefix-i@example.com and owns
+     * noteCounts[i] notes with consecutive ids starting at firstNoteIds[i].
+     */
+    public record Dataset(
+            long firstUserId,
+            String[] emails,
+            long[] firstNoteIds,
+            int[] noteCounts,
+            List<String> publicTokenSample) {
+    }
+
+    public Dataset generate() throws SQLException {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        String passwordHash = settings.passwordHash() != null
+                ? settings.passwordHash()
+                : new BCryptPasswordEncoder().encode("password123");
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long firstUserId = nextId(connection, "users");
+                long firstTagId = nextId(connection, "tags");
+                long firstNoteId = nextId(connection, "notes");
+                long firstShareId = nextId(connection, "shares");
+                long firstLinkId = nextId(connection, "public_links");
+
+                String[] emails = writeUsers(connection, firstUserId, passwordHash);
+                writeTags(connection, firstTagId);
+
+                int[] noteCounts = distributeNotes(random);
+                long[] firstNoteIds = new long[settings.users()];
+                List<String> tokens = new ArrayList<>();
+                long[] counters = writeNotes(connection, random, firstUserId, firstTagId, firstNoteId,
+                        firstShareId, firstLinkId, noteCounts, firstNoteIds, tokens);
+
+                restartIdentity(connection, "users", firstUserId + settings.users());
+                restartIdentity(connection, "tags", firstTagId + settings.tags());
+                restartIdentity(connection, "notes", counters[0]);
+                restartIdentity(connection, "shares", counters[1]);
+                restartIdentity(connection, "public_links", counters[2]);
+
+                connection.commit();
+                return new Dataset(firstUserId, emails, firstNoteIds, noteCounts, tokens);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private String[] writeUsers(Connection connection, long firstUserId, String passwordHash) throws SQLException {
+        String[] emails = new String[settings.users()];
+        LocalDateTime now = LocalDateTime.now();
+        try (TableWriter writer = TableWriter.open(connection, settings.batchSize(), "users",
+                "id", "email", "password_hash", "created_at")) {
+            for (int i = 0; i < settings.users(); i++) {
+                emails[i] = settings.emailPrefix() + "-" + i + "@example.com";
+                writer.row(firstUserId + i, emails[i], passwordHash, now.minusDays(i % 730));
+            }
+        }
+        return emails;
+    }
+
+    private void writeTags(Connection connection, long firstTagId) throws SQLException {
+        try (TableWriter writer = TableWriter.open(connection, settings.batchSize(), "tags", "id", "label")) {
+            for (int i = 0; i < settings.tags(); i++) {
+                // Rank 0 is the most popular tag, suffix keeps labels unique across runs
+                writer.row(firstTagId + i, WORDS[i % WORDS.length] + "-" + settings.emailPrefix() + "-" + i);
+            }
+        }
+    }
+
+    /** Power users get powerUserNotes each, the rest is spread evenly over the others. */
+    private int[] distributeNotes(SplittableRandom random) {
+        int[] counts = new int[settings.users()];
+        int powerUsers = Math.min(settings.powerUsers(), settings.users());
+        long remaining = settings.notes();
+        for (int i = 0; i < powerUsers && remaining > 0; i++) {
+            counts[i] = (int) Math.min(settings.powerUserNotes(), remaining);
+            remaining -= counts[i];
+        }
+        int regularUsers = settings.users() - powerUsers;
+        if (regularUsers == 0) {
+            counts[0] += (int) remaining;
+            return counts;
+        }
+        for (int i = powerUsers; i < settings.users(); i++) {
+            counts[i] = (int) (remaining / regularUsers);
+        }
+        for (long extra = remaining % regularUsers; extra > 0; extra--) {
+            counts[powerUsers + random.nextInt(regularUsers)]++;
+        }
+        return counts;
+    }
+
+    private long[] writeNotes(
+            Connection connection,
+            SplittableRandom random,
+            long firstUserId,
+            long firstTagId,
+            long noteId,
+            long shareId,
+            long linkId,
+            int[] noteCounts,
+            long[] firstNoteIds,
+            List<String> tokens) throws SQLException {
+
+        ZipfSampler tagSampler = new ZipfSampler(settings.tags(), settings.tagZipfExponent());
+        String corpus = markdownCorpus(new SplittableRandom(settings.seed() ^ 0x5DEECE66DL));
+        LocalDateTime now = LocalDateTime.now();
+        Set<Integer> picked = new HashSet<>();
+
+        Chunk chunk = new Chunk();
+        for (int owner = 0; owner < settings.users(); owner++) {
+            firstNoteIds[owner] = noteId;
+            for (int n = 0; n < noteCounts[owner]; n++, noteId++) {
+                LocalDateTime createdAt = now.minusMinutes(random.nextLong(60L * 24 * 730));
+                LocalDateTime updatedAt = createdAt.plusMinutes(random.nextLong(
+                        Math.max(1, Duration.between(createdAt, now).toMinutes())));
+
+                Note.Visibility visibility = Note.Visibility.PRIVATE;
+
+                int shareCount = shareCount(random);
+                if (shareCount > 0 && settings.users() > 1) {
+                    picked.clear();
+                    for (int attempt = 0; picked.size() < shareCount && attempt < shareCount * 3; attempt++) {
+                        int target = random.nextInt(settings.users());
+                        if (target != owner && picked.add(target)) {
+                            chunk.shares.add(new Object[]{shareId++, noteId, firstUserId + target, "READ"});
+                            chunk.access.add(new Object[]{firstUserId + target, noteId, updatedAt, "SHARED"});
+                        }
+                    }
+                    visibility = Note.Visibility.SHARED;
+                }
+
+                if (random.nextDouble() < settings.publicLinkRatio()) {
+                    String token = token(random);
+                    chunk.links.add(new Object[]{linkId++, noteId, token, updatedAt,
+                            random.nextBoolean() ? null : now.plusDays(30)});
+                    if (tokens.size() < 1_000) {
+                        tokens.add(token);
+                    }
+                    visibility = Note.Visibility.PUBLIC;
+                }
+
+                NoteContent content = NoteContent.of(body(random, corpus));
+                chunk.contents.add(new Object[]{content.getHash(), content.getData(), true, now});
+                chunk.notes.add(new Object[]{noteId, firstUserId + owner, title(random, n), content.getHash(),
+                        visibility.name(), createdAt, updatedAt});
+                chunk.access.add(new Object[]{firstUserId + owner, noteId, updatedAt, "OWNER"});
+
+                picked.clear();
+                for (int t = random.nextInt(settings.maxTagsPerNote() + 1); t > 0; t--) {
+                    int tag = tagSampler.next(random);
+                    if (picked.add(tag)) {
+                        chunk.noteTags.add(new Object[]{noteId, firstTagId + tag});
+                    }
+                }
+
+                if (chunk.notes.size() == NOTES_PER_CHUNK) {
+                    chunk.writeTo(connection, settings.batchSize());
+                }
+            }
+        }
+        chunk.writeTo(connection, settings.batchSize());
+        return new long[]{noteId, shareId, linkId};
+    }
+
+    /**
+     * Rows of the last NOTES_PER_CHUNK notes. A connection runs one COPY at a time and the
+     * child tables reference notes, so each table is written in turn, parents first.
+     */
+    private static final class Chunk {
+
+        private final List<Object[]> contents = new ArrayList<>(NOTES_PER_CHUNK);
+        private final List<Object[]> notes = new ArrayList<>(NOTES_PER_CHUNK);
+        private final List<Object[]> noteTags = new ArrayList<>();
+        private final List<Object[]> shares = new ArrayList<>();
+        private final List<Object[]> access = new ArrayList<>();
+        private final List<Object[]> links = new ArrayList<>();
+
+        void writeTo(Connection connection, int batchSize) throws SQLException {
+            // Bodies are stored once per hash, like NoteContentService does: a body may come up
+            // again, in this chunk, an earlier one or an earlier run on the same database
+            if (!contents.isEmpty()) {
+                try (TableWriter writer = TableWriter.openSkippingExisting(connection, batchSize, "note_contents",
+                        "hash", "hash", "data", "compressed", "referenced_at")) {
+                    for (Object[] row : contents) {
+                        writer.row(row);
+                    }
+                }
+                contents.clear();
+            }
+            write(connection, batchSize, notes, "notes",
+                    "id", "owner_id", "title", "content_hash", "visibility", "created_at", "updated_at");
+            write(connection, batchSize, noteTags, "note_tags", "note_id", "tag_id");
+            write(connection, batchSize, shares, "shares", "id", "note_id", "shared_with_user_id", "permission");
+            write(connection, batchSize, access, "note_access", "user_id", "note_id", "updated_at", "role");
+            write(connection, batchSize, links, "public_links", "id", "note_id", "url_token", "created_at", "expires_at");
+        }
+
+        private static void write(Connection connection, int batchSize, List<Object[]> rows, String table,
+                                  String... columns) throws SQLException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            try (TableWriter writer = TableWriter.open(connection, batchSize, table, columns)) {
+                for (Object[] row : rows) {
+                    writer.row(row);
+                }
+            }
+            rows.clear();
+        }
+    }
+
+    private int shareCount(SplittableRandom random) {
+        double roll = random.nextDouble();
+        if (roll < settings.wideShareRatio()) {
+            return settings.wideShareFanout();
+        }
+        if (roll < settings.wideShareRatio() + settings.shareRatio()) {
+            return 1 + random.nextInt(3);
+        }
+        return 0;
+    }
+
+    private static String title(SplittableRandom random, int n) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + n;
+    }
+
+    /** Mostly short bodies (log-normal, median ~1k chars), a few close to the 50k limit. */
+    private String body(SplittableRandom random, String corpus) {
+        int length;
+        if (random.nextDouble() < settings.largeBodyRatio()) {
+            length = MAX_CONTENT_LENGTH - random.nextInt(5_000);
+        } else {
+            double gaussian = gaussian(random);
+            length = (int) Math.min(MAX_CONTENT_LENGTH, Math.exp(7.0 + 1.0 * gaussian));
+        }
+        int start = random.nextInt(corpus.length() - MAX_CONTENT_LENGTH);
+        return corpus.substring(start, start + Math.max(length, 1));
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static String token(SplittableRandom random) {
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE);
+    }
+
+    /** Pre-rendered Markdown, bodies are slices of it so generating 10M of them stays cheap. */
+    private static String markdownCorpus(SplittableRandom random) {
+        StringBuilder corpus = new StringBuilder(4 * MAX_CONTENT_LENGTH);
+        while (corpus.length() < 4 * MAX_CONTENT_LENGTH) {
+            switch (random.nextInt(5)) {
+                case 0 -> corpus.append("## ").append(sentence(random, 4)).append("\n\n");
+                case 1 -> {
+                    for (int i = random.nextInt(2, 6); i > 0; i--) {
+                        corpus.append("- ").append(sentence(random, 6)).append('\n');
+                    }
+                    corpus.append('\n');
+                }
+                case 2 -> corpus.append("```\n").append(sentence(random, 8)).append("\n```\n\n");
+                default -> corpus.append(sentence(random, 40)).append(" **")
+                        .append(WORDS[random.nextInt(WORDS.length)]).append("**.\n\n");
+            }
+        }
+        return corpus.toString();
+    }
+
+    private static String sentence(SplittableRandom random, int maxWords) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = random.nextInt(1, maxWords + 1); i > 0; i--) {
+            if (!sentence.isEmpty()) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void restartIdentity(Connection connection, String table, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: SyntheticDataGenerator <jdbc-url> <user> <password> <notes> [users] [seed]");
+            System.exit(1);
+        }
+        long notes = Long.parseLong(args[3]);
+        Settings settings = Settings.defaults()
+                .notes(notes)
+                .users(args.length > 4 ? Integer.parseInt(args[4]) : (int) Math.max(10, notes / 100))
+                .powerUserNotes((int) Math.min(100_000, notes / 10))
+                .seed(args.length > 5 ? Long.parseLong(args[5]) : 42)
+                .emailPrefix("gen" + System.currentTimeMillis())
+                .build();
+
+        long start = System.nanoTime();
+        Dataset dataset = new SyntheticDataGenerator(new DriverManagerDataSource(args[0], args[1], args[2]), settings)
+                .generate();
+        System.out.printf("Generated %d users and %d notes in %.1f s%n", dataset.emails().length,
+                Arrays.stream(dataset.noteCounts()).asLongStream().sum(), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.backend_spring.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HexFormat;
+
+/**
+ * Streams rows into one table: COPY FROM STDIN on PostgreSQL, JDBC batches elsewhere (H2).
+ */
+abstract class TableWriter implements AutoCloseable {
+
+    static TableWriter open(Connection connection, int batchSize, String table, String... columns)
+            throws SQLException {
+        if (connection.isWrapperFor(PGConnection.class)) {
+            return new CopyWriter(connection.unwrap(PGConnection.class), table, columns);
+        }
+        return new BatchWriter(connection, batchSize, "INSERT INTO " + table + " (" + String.join(", ", columns)
+                + ") VALUES (" + placeholders(columns) + ")");
+    }
+
+    /**
+     * Like open, except that rows whose key is already in the table, or was written before, are
+     * skipped: on PostgreSQL they are copied to a temporary table first, then inserted from it.
+     */
+    static TableWriter openSkippingExisting(Connection connection, int batchSize, String table, String key,
+                                            String... columns) throws SQLException {
+        if (connection.isWrapperFor(PGConnection.class)) {
+            return new StagedCopyWriter(connection, table, key, columns);
+        }
+        return new BatchWriter(connection, batchSize, "MERGE INTO " + table + " (" + String.join(", ", columns)
+                + ") KEY (" + key + ") VALUES (" + placeholders(columns) + ")");
+    }
+
+    private static String placeholders(String... columns) {
+        return String.join(", ", Collections.nCopies(columns.length, "?"));
+    }
+
+    abstract void row(Object... values) throws SQLException;
+
+    @Override
+    public abstract void close() throws SQLException;
+
+    private static final class CopyWriter extends TableWriter {
+
+        private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+        private static final int FLUSH_BYTES = 1 << 20;
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 64 * 1024);
+
+        private CopyWriter(PGConnection connection, String table, String... columns) throws SQLException {
+            this.copyIn = connection.getCopyAPI().copyIn(
+                    "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN");
+        }
+
+        @Override
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                appendValue(values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_BYTES) {
+                flush();
+            }
+        }
+
+        private void appendValue(Object value) {
+            if (value == null) {
+                buffer.append("\\N");
+            } else if (value instanceof LocalDateTime timestamp) {
+                buffer.append(TIMESTAMP.format(timestamp));
+            } else if (value instanceof byte[] bytes) {
+                // bytea hex format, its backslash escaped for the text format
+                buffer.append("\\\\x").append(HexFormat.of().formatHex(bytes));
+            } else if (value instanceof String text) {
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    switch (c) {
+                        case '\\' -> buffer.append("\\\\");
+                        case '\t' -> buffer.append("\\t");
+                        case '\n' -> buffer.append("\\n");
+                        case '\r' -> buffer.append("\\r");
+                        default -> buffer.append(c);
+                    }
+                }
+            } else {
+                buffer.append(value);
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+    }
+
+    // COPY has no ON CONFLICT clause
+    private static final class StagedCopyWriter extends TableWriter {
+
+        private final Connection connection;
+        private final String staging;
+        private final String insert;
+        private final CopyWriter copy;
+
+        private StagedCopyWriter(Connection connection, String table, String key, String... columns)
+                throws SQLException {
+            this.connection = connection;
+            this.staging = table + "_staging";
+            String list = String.join(", ", columns);
+            this.insert = "INSERT INTO " + table + " (" + list + ") SELECT " + list + " FROM " + staging
+                    + " ON CONFLICT (" + key + ") DO NOTHING";
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + staging
+                        + " (LIKE " + table + ") ON COMMIT DROP");
+            }
+            this.copy = new CopyWriter(connection.unwrap(PGConnection.class), staging, columns);
+        }
+
+        @Override
+        void row(Object... values) throws SQLException {
+            copy.row(values);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            copy.close();
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(insert);
+                statement.executeUpdate("TRUNCATE " + staging);
+            }
+        }
+    }
+
+    private static final class BatchWriter extends TableWriter {
+
+        private final PreparedStatement statement;
+        private final int batchSize;
+        private int pending;
+
+        private BatchWriter(Connection connection, int batchSize, String sql) throws SQLException {
+            this.statement = connection.prepareStatement(sql);
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i] instanceof LocalDateTime timestamp ? Timestamp.valueOf(timestamp) : values[i];
+                statement.setObject(i + 1, value);
+            }
+            statement.addBatch();
+            if (++pending == batchSize) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.backend_spring.maintenance;
+
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.note.UpdateNoteRequest;
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.PublicLink;
+import com.example.backend_spring.entity.RefreshToken;
+import com.example.backend_spring.entity.Tag;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.repository.NoteRepository;
+import com.example.backend_spring.repository.PublicLinkRepository;
+import com.example.backend_spring.repository.RefreshTokenRepository;
+import com.example.backend_spring.repository.TagRepository;
+import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.service.NoteService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.maintenance.enabled=true",
+        "app.maintenance.initial-delay=PT1H",
+        "app.revisions.snapshot-every=2",
+        "app.revisions.coalesce-window=0s"
+})
+@ActiveProfiles("test")
+class MaintenanceSchedulerTest {
+
+    @Autowired
+    private MaintenanceScheduler maintenanceScheduler;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private PublicLinkRepository publicLinkRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @Transactional
+    void purgeOrphanTags_KeepsTagsInUse() {
+        User owner = user("tags@example.com");
+        note(owner, "Tagged note", "content", Set.of("kept"));
+        tagRepository.save(Tag.builder().label("orphan").build());
+        entityManager.flush();
+
+        maintenanceScheduler.purgeOrphanTags();
+
+        assertEquals(1, countTags("kept"));
+        assertEquals(0, countTags("orphan"));
+    }
+
+    @Test
+    void purgeOrphanTags_SkipsTagLockedByATransactionAttachingIt() throws Exception {
+        // Committed, so the transaction below and the purge both see it
+        tagRepository.save(Tag.builder().label("being-attached").build());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> attaching = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            tagRepository.lockByLabel("being-attached").orElseThrow();
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            maintenanceScheduler.purgeOrphanTags();
+        } finally {
+            release.countDown();
+            attaching.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(1, countTags("being-attached"));
+
+        maintenanceScheduler.purgeOrphanTags();
+
+        assertEquals(0, countTags("being-attached"));
+    }
+
+    @Test
+    @Transactional
+    void purgeExpiredPublicLinks_KeepsLinksWithoutExpiryOrNotExpired() {
+        Note note = note(user("links@example.com"), "Linked note", "content", Set.of("links"));
+        PublicLink expired = link(note, "expired-token", LocalDateTime.now().minusDays(1));
+        PublicLink valid = link(note, "valid-token", LocalDateTime.now().plusDays(1));
+        PublicLink permanent = link(note, "permanent-token", null);
+        entityManager.flush();
+
+        maintenanceScheduler.purgeExpiredPublicLinks();
+
+        assertFalse(publicLinkRepository.existsById(expired.getId()));
+        assertTrue(publicLinkRepository.existsById(valid.getId()));
+        assertTrue(publicLinkRepository.existsById(permanent.getId()));
+    }
+
+    @Test
+    @Transactional
+    void purgeExpiredRefreshTokens_KeepsTokensThatCanStillBePresented() {
+        User user = user("tokens@example.com");
+        UUID family = UUID.randomUUID();
+        RefreshToken expired = token(user, family, LocalDateTime.now().minusMinutes(1), LocalDateTime.now().minusDays(1));
+        RefreshToken usedButValid = token(user, family, LocalDateTime.now().plusDays(1), LocalDateTime.now());
+        entityManager.flush();
+
+        maintenanceScheduler.purgeExpiredRefreshTokens();
+
+        assertFalse(refreshTokenRepository.existsById(expired.getTokenHash()));
+        assertTrue(refreshTokenRepository.existsById(usedButValid.getTokenHash()));
+    }
+
+    @Test
+    @Transactional
+    void purgeExpiredNoteRevisions_KeepsEverythingFromTheNewestExpiredSnapshot() {
+        Note note = note(user("revisions@example.com"), "Revised note", "version 1", Set.of("history"));
+        for (int version = 2; version <= 6; version++) {
+            update(note, "version " + version + " ".repeat(version * 50));
+        }
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE note_revisions SET created_at = ? WHERE note_id = ?",
+                LocalDateTime.now().minusDays(365), note.getId());
+        Integer keepFrom = jdbcTemplate.queryForObject(
+                "SELECT MAX(revision) FROM note_revisions WHERE note_id = ? AND revision = snapshot_revision",
+                Integer.class, note.getId());
+
+        maintenanceScheduler.purgeExpiredNoteRevisions();
+
+        assertEquals(keepFrom, jdbcTemplate.queryForObject(
+                "SELECT MIN(revision) FROM note_revisions WHERE note_id = ?", Integer.class, note.getId()));
+        assertEquals(6, jdbcTemplate.queryForObject(
+                "SELECT MAX(revision) FROM note_revisions WHERE note_id = ?", Integer.class, note.getId()));
+    }
+
+    @Test
+    @Transactional
+    void purgeOrphanNoteContents_WaitsForTheGracePeriod() {
+        Note note = note(user("contents@example.com"), "Edited note", "first body", Set.of("contents"));
+        UUID firstBody = contentHash(note);
+        update(note, "second body");
+        entityManager.flush();
+
+        maintenanceScheduler.purgeOrphanNoteContents();
+        assertEquals(1, countContents(firstBody));
+
+        jdbcTemplate.update("UPDATE note_contents SET referenced_at = ? WHERE hash = ?",
+                LocalDateTime.now().minusDays(1), firstBody);
+        maintenanceScheduler.purgeOrphanNoteContents();
+
+        assertEquals(0, countContents(firstBody));
+        assertEquals(1, countContents(contentHash(note)));
+    }
+
+    @Test
+    @Transactional
+    void noteContents_ReuseRefreshesReferencedAtOnlyPastHalfTheGracePeriod() {
+        Note note = note(user("reuse@example.com"), "Reused body", "reused body", Set.of("contents"));
+        UUID reused = contentHash(note);
+        update(note, "other body");
+        entityManager.flush();
+
+        LocalDateTime recent = LocalDateTime.now().minusMinutes(10).withNano(0);
+        jdbcTemplate.update("UPDATE note_contents SET referenced_at = ? WHERE hash = ?", recent, reused);
+        update(note, "reused body");
+        entityManager.flush();
+        assertEquals(recent, referencedAt(reused));
+
+        update(note, "other body");
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE note_contents SET referenced_at = ? WHERE hash = ?",
+                LocalDateTime.now().minusMinutes(40), reused);
+        update(note, "reused body");
+        entityManager.flush();
+        assertTrue(referencedAt(reused).isAfter(LocalDateTime.now().minusMinutes(1)));
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .build());
+    }
+
+    private Note note(User owner, String title, String content, Set<String> tags) {
+        CreateNoteRequest request = new CreateNoteRequest();
+        request.setTitle(title);
+        request.setContentMd(content);
+        request.setTags(tags);
+        return noteRepository.findById(noteService.createNote(request, owner.getEmail()).getId()).orElseThrow();
+    }
+
+    private void update(Note note, String content) {
+        UpdateNoteRequest request = new UpdateNoteRequest();
+        request.setContentMd(content);
+        noteService.updateNote(note.getId(), request, note.getOwner().getEmail());
+    }
+
+    private PublicLink link(Note note, String token, LocalDateTime expiresAt) {
+        return publicLinkRepository.save(PublicLink.builder()
+                .note(note)
+                .urlToken(token)
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    private RefreshToken token(User user, UUID family, LocalDateTime expiresAt, LocalDateTime usedAt) {
+        return refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(UUID.randomUUID())
+                .user(user)
+                .familyId(family)
+                .expiresAt(expiresAt)
+                .usedAt(usedAt)
+                .build());
+    }
+
+    private UUID contentHash(Note note) {
+        return jdbcTemplate.queryForObject("SELECT content_hash FROM notes WHERE id = ?", UUID.class, note.getId());
+    }
+
+    private LocalDateTime referencedAt(UUID hash) {
+        return jdbcTemplate.queryForObject("SELECT referenced_at FROM note_contents WHERE hash = ?",
+                LocalDateTime.class, hash);
+    }
+
+    private int countContents(UUID hash) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM note_contents WHERE hash = ?", Integer.class, hash);
+    }
+
+    private int countTags(String label) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tags WHERE label = ?", Integer.class, label);
+    }
+}
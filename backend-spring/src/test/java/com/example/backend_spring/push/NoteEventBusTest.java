@@ -0,0 +1,134 @@
+package com.example.backend_spring.push;
+
+import com.example.backend_spring.entity.NoteAccess;
+import com.example.backend_spring.entity.NoteGroupAccess;
+import com.example.backend_spring.repository.GroupMembershipRepository;
+import com.example.backend_spring.repository.NoteAccessRepository;
+import com.example.backend_spring.repository.NoteGroupAccessRepository;
+import com.example.backend_spring.service.NoteChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteEventBusTest {
+
+    @Mock
+    private NoteAccessRepository noteAccessRepository;
+
+    @Mock
+    private NoteGroupAccessRepository noteGroupAccessRepository;
+
+    @Mock
+    private GroupMembershipRepository groupMembershipRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NoteEventBus noteEventBus;
+
+    @BeforeEach
+    void setUp() {
+        // 2 streams per user, no heartbeat during the test
+        noteEventBus = new NoteEventBus(noteAccessRepository, noteGroupAccessRepository, groupMembershipRepository,
+                meterRegistry, 100, 2, 100, Duration.ofMinutes(30), Duration.ofHours(1), 2, 100) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        noteEventBus.shutdown();
+    }
+
+    @Test
+    void startsEveryStreamWithAResync() {
+        assertThat(connect(1L).sent).containsExactly("resync");
+    }
+
+    @Test
+    void closesTheOldestStreamsOfAUserPastTheLimit() {
+        RecordingEmitter oldest = subscribe(1L);
+        RecordingEmitter second = connect(1L);
+        RecordingEmitter newest = connect(1L);
+
+        assertThat(oldest.completed).isTrue();
+        assertThat(second.completed).isFalse();
+        assertThat(meterRegistry.get("push.connections").gauge().value()).isEqualTo(2);
+
+        noteEventBus.onNoteChanged(NoteChangedEvent.forUsers(NoteChangedEvent.Type.SHARED, List.of(10L), List.of(1L)));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(second.sent).contains("SHARED 10");
+            assertThat(newest.sent).contains("SHARED 10");
+        });
+        assertThat(oldest.sent).doesNotContain("SHARED 10");
+    }
+
+    @Test
+    void pushesDeletionsToTheReadersCapturedBeforehand() {
+        when(groupMembershipRepository.findUserIdsByGroupId(7L)).thenReturn(List.of(2L));
+        RecordingEmitter owner = connect(1L);
+        RecordingEmitter groupMember = connect(2L);
+        RecordingEmitter outsider = connect(3L);
+
+        // The access rows are deleted with the note: the event carries its readers
+        noteEventBus.onNoteChanged(new NoteChangedEvent(NoteChangedEvent.Type.DELETED, List.of(5L),
+                List.of(1L), List.of(7L)));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(owner.sent).contains("DELETED 5");
+            assertThat(groupMember.sent).contains("DELETED 5");
+        });
+        assertThat(outsider.sent).doesNotContain("DELETED 5");
+        verifyNoInteractions(noteAccessRepository, noteGroupAccessRepository);
+    }
+
+    @Test
+    void looksUpTheReadersOfUpdatedNotes() {
+        when(noteAccessRepository.findIdsByNoteIdIn(List.of(5L))).thenReturn(List.of(new NoteAccess.Id(1L, 5L)));
+        when(noteGroupAccessRepository.findIdsByNoteIdIn(List.of(5L)))
+                .thenReturn(List.of(new NoteGroupAccess.Id(7L, 5L)));
+        when(groupMembershipRepository.findUserIdsByGroupId(7L)).thenReturn(List.of(2L));
+        RecordingEmitter reader = connect(1L);
+        RecordingEmitter groupMember = connect(2L);
+
+        noteEventBus.onNoteChanged(NoteChangedEvent.forReaders(NoteChangedEvent.Type.UPDATED, List.of(5L)));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(reader.sent).contains("UPDATED 5");
+            assertThat(groupMember.sent).contains("UPDATED 5");
+        });
+    }
+
+    @Test
+    void skipsTheLookupWhenNobodyIsConnected() {
+        noteEventBus.onNoteChanged(NoteChangedEvent.forReaders(NoteChangedEvent.Type.UPDATED, List.of(5L)));
+
+        verifyNoInteractions(noteAccessRepository, noteGroupAccessRepository, groupMembershipRepository);
+    }
+
+    private RecordingEmitter subscribe(Long userId) {
+        return (RecordingEmitter) noteEventBus.subscribe(userId);
+    }
+
+    // Changes offered before the opening resync is sent are folded into it
+    private RecordingEmitter connect(Long userId) {
+        RecordingEmitter emitter = subscribe(userId);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(emitter.sent).contains("resync"));
+        return emitter;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.backend_spring.push;
+
+import com.example.backend_spring.dto.note.NoteEventDto;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records what is sent as "resync", "ping" or "TYPE noteId" instead of writing it, and runs the
+ * completion callbacks on complete() as the servlet container would.
+ */
+class RecordingEmitter extends SseEmitter {
+
+    final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<Runnable> completionCallbacks = new CopyOnWriteArrayList<>();
+    volatile boolean completed;
+    volatile boolean failing;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+        if (failing) {
+            throw new IOException("Broken pipe");
+        }
+        for (DataWithMediaType part : builder.build()) {
+            Object data = part.getData();
+            if (data instanceof NoteEventDto event) {
+                sent.add(event.getType() + " " + event.getNoteId());
+                return;
+            }
+            if (data.toString().contains("event:resync")) {
+                sent.add("resync");
+                return;
+            }
+            if (data.toString().startsWith(":ping")) {
+                sent.add("ping");
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onCompletion(Runnable callback) {
+        super.onCompletion(callback);
+        completionCallbacks.add(callback);
+    }
+
+    @Override
+    public void complete() {
+        completed = true;
+        completionCallbacks.forEach(Runnable::run);
+    }
+}
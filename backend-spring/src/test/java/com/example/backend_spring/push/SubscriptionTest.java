@@ -0,0 +1,77 @@
+package com.example.backend_spring.push;
+
+import com.example.backend_spring.dto.note.NoteEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubscriptionTest {
+
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final Counter resyncs = new SimpleMeterRegistry().counter("push.resync");
+    private final Subscription subscription = new Subscription(1L, emitter, 3, resyncs);
+
+    @Test
+    void coalescesChangesToANoteIntoItsLatestEvent() {
+        assertThat(subscription.offer(event("UPDATED", 1))).isTrue();
+        // A drain is already scheduled
+        assertThat(subscription.offer(event("UPDATED", 2))).isFalse();
+        assertThat(subscription.offer(event("UPDATED", 1))).isFalse();
+        assertThat(subscription.offer(event("DELETED", 2))).isFalse();
+
+        assertThat(subscription.drain()).isTrue();
+
+        assertThat(emitter.sent).containsExactly("UPDATED 1", "DELETED 2");
+        assertThat(subscription.offer(event("UPDATED", 3))).isTrue();
+    }
+
+    @Test
+    void switchesToResyncPastMaxPending() {
+        for (long noteId = 1; noteId <= 4; noteId++) {
+            subscription.offer(event("UPDATED", noteId));
+        }
+        // Nothing is queued behind a pending resync
+        subscription.offer(event("UPDATED", 5));
+
+        subscription.drain();
+
+        assertThat(emitter.sent).containsExactly("resync");
+        assertThat(resyncs.count()).isEqualTo(1);
+
+        subscription.offer(event("UPDATED", 6));
+        subscription.drain();
+        assertThat(emitter.sent).containsExactly("resync", "UPDATED 6");
+    }
+
+    @Test
+    void pingsOnlyWhenNothingElseIsSent() {
+        subscription.heartbeat();
+        subscription.offer(event("CREATED", 1));
+        subscription.drain();
+
+        subscription.heartbeat();
+        subscription.drain();
+
+        assertThat(emitter.sent).containsExactly("CREATED 1", "ping");
+    }
+
+    @Test
+    void closesOnceTheClientIsGone() {
+        emitter.failing = true;
+        subscription.offer(event("UPDATED", 1));
+
+        assertThat(subscription.drain()).isFalse();
+
+        assertThat(subscription.offer(event("UPDATED", 2))).isFalse();
+        assertThat(subscription.heartbeat()).isFalse();
+        assertThat(emitter.sent).isEqualTo(List.of());
+    }
+
+    private static NoteEventDto event(String type, long noteId) {
+        return new NoteEventDto(type, noteId);
+    }
+}
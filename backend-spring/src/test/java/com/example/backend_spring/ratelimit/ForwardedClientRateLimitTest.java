@@ -0,0 +1,52 @@
+package com.example.backend_spring.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Through a real Tomcat, as behind nginx: the test client connects from loopback, a trusted proxy,
+ * and passes the client address in X-Forwarded-For.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.forward-headers-strategy=native",
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.store=memory",
+        "app.rate-limit.auth-ip.capacity=2",
+        "app.rate-limit.auth-ip.period=PT1M"
+})
+@ActiveProfiles("test")
+class ForwardedClientRateLimitTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void keysBucketsOnTheForwardedClient() {
+        assertNotEquals(429, refresh("203.0.113.1").getStatusCode().value());
+        assertNotEquals(429, refresh("203.0.113.1").getStatusCode().value());
+
+        ResponseEntity<String> rejected = refresh("203.0.113.1");
+
+        assertEquals(429, rejected.getStatusCode().value());
+        assertEquals("30", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotEquals(429, refresh("203.0.113.2").getStatusCode().value());
+    }
+
+    private ResponseEntity<String> refresh(String clientIp) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", clientIp);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.exchange("/api/v1/auth/refresh", HttpMethod.POST,
+                new HttpEntity<>("{\"refreshToken\":\"unknown\"}", headers), String.class);
+    }
+}
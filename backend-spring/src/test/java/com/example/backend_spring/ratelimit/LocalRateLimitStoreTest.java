@@ -0,0 +1,58 @@
+package com.example.backend_spring.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimitStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LocalRateLimitStore store = new LocalRateLimitStore(1000, clock::get);
+    private final RateLimitPolicy policy = new RateLimitPolicy("test", 3, Duration.ofSeconds(3));
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, store.tryConsume("a", policy));
+        }
+
+        long wait = store.tryConsume("a", policy);
+
+        assertTrue(wait > 0 && wait <= 1000, "wait was " + wait);
+    }
+
+    @Test
+    void refillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("a", policy);
+        }
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertEquals(0, store.tryConsume("a", policy));
+        assertTrue(store.tryConsume("a", policy) > 0);
+    }
+
+    @Test
+    void neverRefillsAboveCapacity() {
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, store.tryConsume("a", policy));
+        }
+        assertTrue(store.tryConsume("a", policy) > 0);
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("a", policy);
+        }
+
+        assertTrue(store.tryConsume("a", policy) > 0);
+        assertEquals(0, store.tryConsume("b", policy));
+    }
+}
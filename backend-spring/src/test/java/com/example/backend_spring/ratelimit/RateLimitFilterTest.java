@@ -0,0 +1,130 @@
+package com.example.backend_spring.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new LocalRateLimitStore(1000), objectMapper, new SimpleMeterRegistry(), true,
+            3, Duration.ofMinutes(1),
+            2, Duration.ofMinutes(5),
+            2, Duration.ofMinutes(1));
+    private final List<ServletRequest> forwarded = new ArrayList<>();
+
+    @Test
+    void limitsLoginPerEmailWhateverTheIp() throws Exception {
+        assertEquals(200, send(login("10.0.0.1", "Alice@Example.com")).getStatus());
+        assertEquals(200, send(login("10.0.0.2", " alice@example.com")).getStatus());
+
+        assertEquals(429, send(login("10.0.0.3", "alice@example.com")).getStatus());
+        assertEquals(200, send(login("10.0.0.3", "bob@example.com")).getStatus());
+        assertEquals(3, forwarded.size());
+    }
+
+    @Test
+    void replaysTheBodyReadForTheEmail() throws Exception {
+        String body = "{\"email\":\"alice@example.com\",\"password\":\"secret\"}";
+
+        send(login("10.0.0.1", "alice@example.com"));
+
+        ServletRequest request = forwarded.get(0);
+        assertEquals(body, StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals(body, request.getReader().readLine());
+    }
+
+    @Test
+    void replayedBodyNotifiesReadListeners() throws Exception {
+        send(login("10.0.0.1", "alice@example.com"));
+        ServletInputStream in = forwarded.get(0).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                while (in.isReady() && !in.isFinished()) {
+                    read.write(in.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertEquals(List.of("data", "done"), events);
+        assertTrue(read.toString(StandardCharsets.UTF_8).contains("alice@example.com"));
+    }
+
+    @Test
+    void rejectsWithRetryAfterAndAnErrorBody() throws Exception {
+        send(publicLink("10.0.0.1"));
+        send(publicLink("10.0.0.1"));
+
+        MockHttpServletResponse rejected = send(publicLink("10.0.0.1"));
+
+        assertEquals(429, rejected.getStatus());
+        // 2 tokens per minute: the next one comes in 30 seconds
+        assertEquals("30", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("TOO_MANY_REQUESTS", objectMapper.readTree(rejected.getContentAsByteArray()).path("code").asText());
+        assertEquals(2, forwarded.size());
+        assertEquals(200, send(publicLink("10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void leavesOtherPathsAlone() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/notes");
+            request.setServletPath("/api/v1/notes");
+            assertEquals(200, send(request).getStatus());
+        }
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> forwarded.add(req));
+        return response;
+    }
+
+    private static MockHttpServletRequest login(String ip, String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.setServletPath("/api/v1/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"email\":\"" + email + "\",\"password\":\"secret\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest publicLink(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/p/token");
+        request.setServletPath("/p/token");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+}
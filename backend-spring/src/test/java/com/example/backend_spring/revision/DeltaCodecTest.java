@@ -0,0 +1,66 @@
+package com.example.backend_spring.revision;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeltaCodecTest {
+
+    @Test
+    void smallEditOfALargeNoteGivesASmallDelta() {
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(7);
+        while (text.length() < 40000) {
+            text.append("Line ").append(random.nextInt(1_000_000)).append(" of the note, with some é and 漢字.\n");
+        }
+        String base = text.toString();
+        String edited = base.substring(0, 20000) + "inserted sentence " + base.substring(20050);
+
+        byte[] delta = DeltaCodec.diff(base, edited);
+
+        assertThat(DeltaCodec.apply(base, delta)).isEqualTo(edited);
+        assertThat(delta.length).isLessThan(100);
+        assertThat(delta.length).isLessThan(DeltaCodec.snapshot(edited).length / 50);
+    }
+
+    @Test
+    void randomEditsRoundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String base = randomText(random, random.nextInt(400));
+            StringBuilder target = new StringBuilder(base);
+            for (int edits = random.nextInt(5); edits > 0; edits--) {
+                int at = random.nextInt(target.length() + 1);
+                if (random.nextBoolean() && at < target.length()) {
+                    target.delete(at, Math.min(target.length(), at + random.nextInt(40)));
+                } else {
+                    target.insert(at, randomText(random, random.nextInt(40)));
+                }
+            }
+
+            assertThat(DeltaCodec.apply(base, DeltaCodec.diff(base, target.toString()))).isEqualTo(target.toString());
+        }
+    }
+
+    @Test
+    void snapshotsRoundTripAndCorruptDataIsRefused() {
+        assertThat(DeltaCodec.restore(DeltaCodec.snapshot(""))).isEmpty();
+        assertThat(DeltaCodec.restore(DeltaCodec.snapshot("# Title\n\nbody"))).isEqualTo("# Title\n\nbody");
+
+        byte[] delta = DeltaCodec.diff("0123456789abcdefghij", "0123456789abcdefghij!");
+        assertThatThrownBy(() -> DeltaCodec.apply("short", delta)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static String randomText(Random random, int length) {
+        // A small alphabet, so the texts repeat blocks and multi-byte characters cross block borders
+        String alphabet = "ab c\néß";
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.backend_spring.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteBitmapTest {
+
+    @Test
+    void setOperationsMatchBitSetOnSparseAndDenseGroups() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            // Densities on both sides of the array/bitset threshold, over several groups
+            BitSet expectedA = randomSet(random, 200_000, random.nextDouble() * 0.2);
+            BitSet expectedB = randomSet(random, 200_000, random.nextDouble() * 0.2);
+            NoteBitmap a = toBitmap(expectedA);
+            NoteBitmap b = toBitmap(expectedB);
+
+            BitSet and = (BitSet) expectedA.clone();
+            and.and(expectedB);
+            BitSet or = (BitSet) expectedA.clone();
+            or.or(expectedB);
+            BitSet andNot = (BitSet) expectedA.clone();
+            andNot.andNot(expectedB);
+
+            assertSame(a.and(b), and);
+            assertSame(a.or(b), or);
+            assertSame(a.andNot(b), andNot);
+            assertSame(a, expectedA);
+            assertSame(b, expectedB);
+        }
+    }
+
+    @Test
+    void removeShrinksDenseGroupsBackAndDropsEmptyOnes() {
+        NoteBitmap bitmap = new NoteBitmap();
+        BitSet expected = new BitSet();
+        for (int value = 0; value < 10_000; value++) {
+            bitmap.add(value);
+            expected.set(value);
+        }
+        bitmap.add(1 << 20);
+        for (int value = 0; value < 10_000; value += 2) {
+            bitmap.remove(value);
+            expected.clear(value);
+        }
+        bitmap.remove(1 << 20);
+        bitmap.remove(1 << 20);
+
+        assertSame(bitmap, expected);
+        assertThat(bitmap.contains(1 << 20)).isFalse();
+        assertThat(NoteBitmap.of(3, 1, 2).and(NoteBitmap.of(7)).isEmpty()).isTrue();
+    }
+
+    private static BitSet randomSet(Random random, int range, double density) {
+        BitSet set = new BitSet(range);
+        for (int value = 0; value < range; value++) {
+            if (random.nextDouble() < density) {
+                set.set(value);
+            }
+        }
+        return set;
+    }
+
+    private static NoteBitmap toBitmap(BitSet set) {
+        NoteBitmap bitmap = new NoteBitmap();
+        set.stream().forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static void assertSame(NoteBitmap bitmap, BitSet expected) {
+        BitSet values = new BitSet();
+        bitmap.forEach(values::set);
+        assertThat(values).isEqualTo(expected);
+        assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+    }
+}
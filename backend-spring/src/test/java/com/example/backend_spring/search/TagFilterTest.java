@@ -0,0 +1,99 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.exception.BadRequestException;
+import com.example.backend_spring.repository.NoteRepositoryCustom.IndexedNote;
+import com.example.backend_spring.repository.TagRepositoryCustom.TagCount;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class TagFilterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final UserNotes notes = UserNotes.of(List.of(
+            note(1, "Budget", Note.Visibility.PRIVATE, 1, "work", "urgent"),
+            note(2, "Standup", Note.Visibility.SHARED, 2, "work", "today"),
+            note(3, "Old budget", Note.Visibility.PRIVATE, 3, "work", "archived", "urgent"),
+            note(4, "Groceries", Note.Visibility.PUBLIC, 4, "home", "today"),
+            note(5, "Reading list", Note.Visibility.PRIVATE, 5, "to read")));
+
+    @Test
+    void parsesPrecedenceImplicitAndAndQuotedLabels() {
+        assertThat(TagFilter.parse("a OR b c")).isEqualTo(new TagFilter.Or(List.of(
+                new TagFilter.Label("a"),
+                new TagFilter.And(List.of(new TagFilter.Label("b"), new TagFilter.Label("c"))))));
+        assertThat(TagFilter.parse("-(x OR \"to \\\"read\\\"\") and")).isEqualTo(new TagFilter.And(List.of(
+                new TagFilter.Not(new TagFilter.Or(List.of(
+                        new TagFilter.Label("x"), new TagFilter.Label("to \"read\"")))),
+                new TagFilter.Label("and"))));
+
+        for (String invalid : List.of("", "a AND", "(a", "a)", "OR a", "NOT", "\"unclosed", "\"\"")) {
+            assertThatThrownBy(() -> TagFilter.parse(invalid)).isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Test
+    void filtersNewestFirstWithVisibilityAndTitle() {
+        assertThat(ids("work AND NOT archived", null, null)).containsExactly(2L, 1L);
+        assertThat(ids("(urgent OR today) -home", null, null)).containsExactly(3L, 2L, 1L);
+        assertThat(ids("NOT work", null, null)).containsExactly(5L, 4L);
+        assertThat(ids("\"to read\" OR missing", null, null)).containsExactly(5L);
+        assertThat(ids("today", null, Note.Visibility.PUBLIC)).containsExactly(4L);
+        assertThat(ids("work", "BUDGET", null)).containsExactly(3L, 1L);
+
+        NoteIndex.Hits page = notes.search(TagFilter.parse("work OR today"), null, null, 1, 2, null);
+        assertThat(page.noteIds()).containsExactly(3L, 2L);
+        assertThat(page.total()).isEqualTo(4);
+    }
+
+    @Test
+    void facetsCountAllMatchesNotJustThePage() {
+        // Notes 3 and 4 were updated at most a day before, 1 and 2 just over
+        NoteIndex.Hits hits = notes.search(TagFilter.parse("work OR today"), null, null, 0, 1,
+                NOW.plusMinutes(3).plusDays(1));
+
+        assertThat(hits.noteIds()).containsExactly(4L);
+        assertThat(hits.facets().tags()).containsExactly(
+                new TagCount("work", 3),
+                new TagCount("today", 2),
+                new TagCount("urgent", 2),
+                new TagCount("archived", 1),
+                new TagCount("home", 1));
+        assertThat(hits.facets().visibility()).containsExactly(
+                entry(Note.Visibility.PRIVATE, 2), entry(Note.Visibility.SHARED, 1), entry(Note.Visibility.PUBLIC, 1));
+        assertThat(hits.facets().updated()).containsExactly(
+                entry(Facets.UpdatedRange.DAY, 2), entry(Facets.UpdatedRange.WEEK, 2),
+                entry(Facets.UpdatedRange.MONTH, 0), entry(Facets.UpdatedRange.YEAR, 0),
+                entry(Facets.UpdatedRange.OLDER, 0));
+        assertThat(notes.search(null, null, null, 0, 1, null).facets()).isNull();
+    }
+
+    @Test
+    void putAndRemoveKeepBitmapsInStep() {
+        notes.put(note(2, "Standup", Note.Visibility.SHARED, 6, "archived"));
+        notes.put(note(1, "Budget", Note.Visibility.PRIVATE, 0, "stale"));
+        notes.remove(3);
+        notes.put(note(7, "Plan", Note.Visibility.PRIVATE, 7, "work"));
+
+        assertThat(ids("work", null, null)).containsExactly(7L, 1L);
+        assertThat(ids("archived", null, Note.Visibility.SHARED)).containsExactly(2L);
+        assertThat(ids("stale", null, null)).isEmpty();
+        assertThat(notes.size()).isEqualTo(5);
+    }
+
+    private List<Long> ids(String filter, String titleQuery, Note.Visibility visibility) {
+        return notes.search(TagFilter.parse(filter), titleQuery, visibility, 0, 10, null).noteIds();
+    }
+
+    private static IndexedNote note(long id, String title, Note.Visibility visibility, int minutes,
+                                    String... labels) {
+        return new IndexedNote(id, 1L, title, visibility, NOW.plusMinutes(minutes), List.of(labels));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.repository.NoteRepositoryCustom.IndexedNote;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TitleSearchTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final UserNotes notes = UserNotes.of(List.of(
+            note(1, "Budget prévisionnel 2026", 1),
+            note(2, "Réunion budget", 2),
+            note(3, "Recette des crêpes", 3),
+            note(4, "Liste de courses", 4),
+            note(5, "Budgétisation équipe", 5)));
+
+    @Test
+    void foldsCaseAndAccentsIntoWords() {
+        assertThat(TitleTerms.words("Crêpes, ÉTÉ & co-op 2026")).containsExactly("crepes", "ete", "co", "op", "2026");
+    }
+
+    @Test
+    void countsEditsWithSwapsAndPrefixes() {
+        assertThat(TitleTerms.distance("budget", "budget", 2, false)).isZero();
+        assertThat(TitleTerms.distance("bugdet", "budget", 2, false)).isEqualTo(1);
+        assertThat(TitleTerms.distance("bdgt", "budget", 2, false)).isEqualTo(2);
+        assertThat(TitleTerms.distance("bdt", "budget", 2, false)).isEqualTo(3);
+        assertThat(TitleTerms.distance("bud", "budgetisation", 1, true)).isZero();
+        assertThat(TitleTerms.distance("bdu", "budgetisation", 1, true)).isEqualTo(1);
+        assertThat(TitleTerms.distance("xyz", "budgetisation", 1, true)).isEqualTo(2);
+    }
+
+    @Test
+    void suggestsClosestMatchesFirstThenNewest() {
+        assertThat(ids("budg")).containsExactly(5L, 2L, 1L);
+        // A whole word once followed by a separator: "budgetisation" is too long to be close
+        assertThat(ids("budget ")).containsExactly(2L, 1L);
+        assertThat(ids("bugdet ")).containsExactly(2L, 1L);
+        assertThat(ids("bugdet")).containsExactly(5L, 2L, 1L);
+        assertThat(ids("reunion bud")).containsExactly(2L);
+        assertThat(ids("recete crepe")).containsExactly(3L);
+        assertThat(ids("courses zzz")).isEmpty();
+        assertThat(ids(" - ")).isEmpty();
+
+        // Exact before newer but an edit away
+        notes.put(note(6, "Recettes", 7));
+        assertThat(ids("recette ")).containsExactly(3L, 6L);
+
+        assertThat(notes.suggest("budg", 2)).extracting(NoteIndex.Suggestion::title)
+                .containsExactly("Budgétisation équipe", "Réunion budget");
+        assertThat(notes.suggest("liste", 1).get(0).updatedAt()).isEqualTo(NOW.plusMinutes(4));
+    }
+
+    @Test
+    void followsTitleChanges() {
+        notes.put(note(4, "Liste de cadeaux", 6));
+        notes.remove(2);
+
+        assertThat(ids("courses")).isEmpty();
+        assertThat(ids("cadeau")).containsExactly(4L);
+        assertThat(ids("reunion")).isEmpty();
+        assertThat(ids("budget ")).containsExactly(1L);
+    }
+
+    private List<Long> ids(String query) {
+        return notes.suggest(query, 10).stream().map(NoteIndex.Suggestion::noteId).toList();
+    }
+
+    private static IndexedNote note(long id, String title, int minutes) {
+        return new IndexedNote(id, 1L, title, Note.Visibility.PRIVATE, NOW.plusMinutes(minutes), List.of("notes"));
+    }
+}
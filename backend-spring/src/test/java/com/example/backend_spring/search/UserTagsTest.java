@@ -0,0 +1,56 @@
+package com.example.backend_spring.search;
+
+import com.example.backend_spring.repository.TagRepositoryCustom.TagCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserTagsTest {
+
+    private final UserTags tags = UserTags.of(List.of(
+            new TagCount("work", 12),
+            new TagCount("Workout", 3),
+            new TagCount("world", 7),
+            new TagCount("WORK", 1),
+            new TagCount("home", 20),
+            new TagCount("wiki", 7)), 0);
+
+    @Test
+    void prefixMatchesIgnoringCaseMostUsedFirst() {
+        assertThat(tags.withPrefix("Wor", 10)).containsExactly(
+                new TagCount("work", 12),
+                new TagCount("world", 7),
+                new TagCount("Workout", 3),
+                new TagCount("WORK", 1));
+        assertThat(tags.withPrefix("work", 2)).containsExactly(
+                new TagCount("work", 12),
+                new TagCount("Workout", 3));
+        assertThat(tags.withPrefix("x", 10)).isEmpty();
+    }
+
+    @Test
+    void emptyPrefixIsTheTagCloud() {
+        assertThat(tags.withPrefix("", 3)).isEqualTo(tags.top(3)).containsExactly(
+                new TagCount("home", 20),
+                new TagCount("work", 12),
+                new TagCount("wiki", 7));
+    }
+
+    @Test
+    void deltaChangesCountsAndDropsUnusedLabels() {
+        UserTags changed = tags.apply(Map.of("home", -20, "wiki", 1, "writing", 1));
+
+        assertThat(changed.top(10)).containsExactly(
+                new TagCount("work", 12),
+                new TagCount("wiki", 8),
+                new TagCount("world", 7),
+                new TagCount("Workout", 3),
+                new TagCount("WORK", 1),
+                new TagCount("writing", 1));
+        assertThat(changed.withPrefix("h", 10)).isEmpty();
+        assertThat(tags.top(1)).containsExactly(new TagCount("home", 20));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.dto.group.AddGroupMemberRequest;
+import com.example.backend_spring.dto.group.CreateGroupRequest;
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.note.UpdateNoteRequest;
+import com.example.backend_spring.dto.share.ShareWithGroupRequest;
+import com.example.backend_spring.dto.share.ShareWithUserRequest;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.exception.ForbiddenException;
+import com.example.backend_spring.repository.NoteRepository;
+import com.example.backend_spring.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each step is committed: the cache is invalidated after commit. Every check before a change
+ * loads the entry that the change must then drop.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class NoteAccessCacheIntegrationTest {
+
+    @Autowired
+    private NoteAccessCache noteAccessCache;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    private User owner;
+    private User reader;
+    private Long noteId;
+    private Long groupId;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        owner = user("cache-owner-" + run + "@example.com");
+        reader = user("cache-reader-" + run + "@example.com");
+        CreateNoteRequest note = new CreateNoteRequest();
+        note.setTitle("Cached access");
+        note.setContentMd("first");
+        note.setTags(Set.of("cache"));
+        noteId = noteService.createNote(note, owner.getEmail()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (noteRepository.existsById(noteId)) {
+            noteService.deleteNote(noteId, owner.getEmail());
+        }
+        if (groupId != null) {
+            groupService.deleteGroup(groupId, owner.getEmail());
+        }
+        userRepository.deleteAll(List.of(owner, reader));
+    }
+
+    @Test
+    void directShare_IsSeenOnceSharedAndOnceUnshared() {
+        assertFalse(noteAccessCache.isSharedWith(noteId, reader.getId()));
+        assertThrows(ForbiddenException.class, () -> noteService.getNoteById(noteId, reader.getEmail()));
+
+        Long shareId = shareWithReader();
+        assertTrue(noteAccessCache.isSharedWith(noteId, reader.getId()));
+
+        UpdateNoteRequest update = new UpdateNoteRequest();
+        update.setContentMd("second");
+        noteService.updateNote(noteId, update, owner.getEmail());
+        assertTrue(noteAccessCache.isSharedWith(noteId, reader.getId()));
+        assertEquals("second", noteService.getNoteById(noteId, reader.getEmail()).getContentMd());
+
+        shareService.deleteShare(shareId, owner.getEmail());
+        assertFalse(noteAccessCache.isSharedWith(noteId, reader.getId()));
+        assertThrows(ForbiddenException.class, () -> noteService.getNoteById(noteId, reader.getEmail()));
+    }
+
+    @Test
+    void groupShare_IsSeenOnceSharedAndOnceTheMemberIsRemoved() {
+        CreateGroupRequest group = new CreateGroupRequest();
+        group.setName("Readers");
+        groupId = groupService.createGroup(group, owner.getEmail()).getId();
+        AddGroupMemberRequest member = new AddGroupMemberRequest();
+        member.setEmail(reader.getEmail());
+        groupService.addMember(groupId, member, owner.getEmail());
+        assertFalse(noteAccessCache.isSharedWith(noteId, reader.getId()));
+
+        ShareWithGroupRequest share = new ShareWithGroupRequest();
+        share.setGroupId(groupId);
+        share.setPermission("READ");
+        shareService.shareWithGroup(noteId, share, owner.getEmail());
+        assertTrue(noteAccessCache.isSharedWith(noteId, reader.getId()));
+
+        groupService.removeMember(groupId, reader.getId(), owner.getEmail());
+        assertFalse(noteAccessCache.isSharedWith(noteId, reader.getId()));
+    }
+
+    @Test
+    void deletedNote_IsDroppedFromItsReadersEntries() {
+        shareWithReader();
+        assertTrue(noteAccessCache.isSharedWith(noteId, reader.getId()));
+
+        noteService.deleteNote(noteId, owner.getEmail());
+
+        assertFalse(noteAccessCache.isSharedWith(noteId, reader.getId()));
+    }
+
+    private Long shareWithReader() {
+        ShareWithUserRequest share = new ShareWithUserRequest();
+        share.setEmail(reader.getEmail());
+        share.setPermission("READ");
+        return shareService.shareWithUser(noteId, share, owner.getEmail()).getId();
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .build());
+    }
+}
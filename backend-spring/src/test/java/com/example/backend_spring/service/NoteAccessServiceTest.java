@@ -0,0 +1,131 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.NoteAccess;
+import com.example.backend_spring.entity.NoteGroupAccess;
+import com.example.backend_spring.exception.BadRequestException;
+import com.example.backend_spring.repository.NoteAccessRepository;
+import com.example.backend_spring.repository.NoteGroupAccessRepository;
+import com.example.backend_spring.repository.NoteRepository;
+import com.example.backend_spring.repository.ShareRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteAccessServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long GROUP_ID = 3L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock
+    private NoteAccessRepository noteAccessRepository;
+
+    @Mock
+    private NoteGroupAccessRepository noteGroupAccessRepository;
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private ShareRepository shareRepository;
+
+    @Mock
+    private NoteAccessCache noteAccessCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private NoteAccessService noteAccessService;
+
+    @BeforeEach
+    void setUp() {
+        when(noteAccessCache.groupIdsOf(USER_ID)).thenReturn(new long[]{GROUP_ID});
+        // Note 10 is shared directly and with the group, both rows at minute 5
+        when(noteAccessRepository.findFirstPage(USER_ID, Limit.of(3)))
+                .thenReturn(List.of(access(10, 5), access(7, 3)));
+        when(noteGroupAccessRepository.findFirstPage(List.of(GROUP_ID), Limit.of(3)))
+                .thenReturn(List.of(groupAccess(10, 5), groupAccess(8, 4)));
+        when(noteRepository.findAllWithOwnerAndTagsByIdIn(any())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().map(id -> note(id, 0)).toList());
+    }
+
+    @Test
+    void mergesSourcesNewestFirstWithoutDuplicates() {
+        NoteAccessService.AccessiblePage page = noteAccessService.findAccessible(USER_ID, null, 2, false);
+
+        assertThat(page.notes()).extracting(Note::getId).containsExactly(10L, 8L);
+        assertThat(page.next()).isEqualTo(new NoteAccessService.Cursor(NOW.plusMinutes(4), 8L));
+        verify(noteRepository, never()).findPublicFirstPage(anyLong(), any());
+    }
+
+    @Test
+    void includesPublicNotesOfOtherUsers() {
+        when(noteRepository.findPublicFirstPage(USER_ID, Limit.of(3))).thenReturn(List.of(note(9, 6)));
+
+        NoteAccessService.AccessiblePage page = noteAccessService.findAccessible(USER_ID, null, 2, true);
+
+        assertThat(page.notes()).extracting(Note::getId).containsExactly(9L, 10L);
+        assertThat(page.next()).isEqualTo(new NoteAccessService.Cursor(NOW.plusMinutes(5), 10L));
+    }
+
+    @Test
+    void nextCursorIsTheIndexKeyAndRoundTrips() {
+        // The notes row moved on (minute 0 here) while the index rows still hold minute 5 and 4
+        NoteAccessService.AccessiblePage first = noteAccessService.findAccessible(USER_ID, null, 2, false);
+        NoteAccessService.Cursor after = NoteAccessService.Cursor.decode(first.next().encode());
+        assertThat(after).isEqualTo(first.next());
+
+        when(noteAccessRepository.findPageAfter(USER_ID, NOW.plusMinutes(4), 8L, Limit.of(3)))
+                .thenReturn(List.of(access(7, 3)));
+        when(noteGroupAccessRepository.findPageAfter(List.of(GROUP_ID), NOW.plusMinutes(4), 8L, Limit.of(3)))
+                .thenReturn(List.of());
+
+        NoteAccessService.AccessiblePage second = noteAccessService.findAccessible(USER_ID, after, 2, false);
+
+        assertThat(second.notes()).extracting(Note::getId).containsExactly(7L);
+        assertThat(second.next()).isNull();
+        assertThatThrownBy(() -> NoteAccessService.Cursor.decode("not-a-cursor"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static NoteAccess access(long noteId, int minutes) {
+        return NoteAccess.builder()
+                .id(new NoteAccess.Id(USER_ID, noteId))
+                .updatedAt(NOW.plusMinutes(minutes))
+                .role(NoteAccess.Role.SHARED)
+                .build();
+    }
+
+    private static NoteGroupAccess groupAccess(long noteId, int minutes) {
+        return NoteGroupAccess.builder()
+                .id(new NoteGroupAccess.Id(GROUP_ID, noteId))
+                .updatedAt(NOW.plusMinutes(minutes))
+                .build();
+    }
+
+    private static Note note(long id, int minutes) {
+        return Note.builder()
+                .id(id)
+                .title("Note " + id)
+                .updatedAt(NOW.plusMinutes(minutes))
+                .build();
+    }
+}
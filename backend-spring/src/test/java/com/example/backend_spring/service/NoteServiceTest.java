@@ -1,5 +1,6 @@
 package com.example.backend_spring.service;
 
+import com.example.backend_spring.attachment.AttachmentService;
 import com.example.backend_spring.dto.note.CreateNoteRequest;
 import com.example.backend_spring.dto.note.NoteResponse;
 import com.example.backend_spring.entity.Note;
@@ -10,6 +11,9 @@ import com.example.backend_spring.repository.NoteRepository;
 import com.example.backend_spring.repository.ShareRepository;
 import com.example.backend_spring.repository.TagRepository;
 import com.example.backend_spring.repository.UserRepository;
+import com.example.backend_spring.revision.NoteRevisionService;
+import com.example.backend_spring.search.NoteIndex;
+import com.example.backend_spring.search.TagIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,6 +45,27 @@ class NoteServiceTest {
     @Mock
     private ShareRepository shareRepository;
 
+    @Mock
+    private NoteAccessService noteAccessService;
+
+    @Mock
+    private NoteAccessCache noteAccessCache;
+
+    @Mock
+    private NoteRevisionService noteRevisionService;
+
+    @Mock
+    private NoteContentService noteContentService;
+
+    @Mock
+    private AttachmentService attachmentService;
+
+    @Mock
+    private TagIndex tagIndex;
+
+    @Mock
+    private NoteIndex noteIndex;
+
     @InjectMocks
     private NoteService noteService;
 
@@ -81,7 +106,7 @@ class NoteServiceTest {
 
         when(userRepository.findByEmail("test@example.com"))
                 .thenReturn(Optional.of(testUser));
-        when(tagRepository.findByLabel(anyString()))
+        when(tagRepository.lockByLabel(anyString()))
                 .thenReturn(Optional.empty());
         when(tagRepository.save(any(Tag.class)))
                 .thenReturn(testTag);
@@ -99,7 +124,7 @@ class NoteServiceTest {
     @Test
     void getNoteById_NotFound_ThrowsException() {
         // Arrange
-        when(noteRepository.findById(999L)).thenReturn(Optional.empty());
+        when(noteRepository.findWithContentById(999L)).thenReturn(Optional.empty());
         when(userRepository.findByEmail("test@example.com"))
                 .thenReturn(Optional.of(testUser));
 
@@ -0,0 +1,175 @@
+package com.example.backend_spring.service;
+
+import com.example.backend_spring.dto.group.AddGroupMemberRequest;
+import com.example.backend_spring.dto.group.CreateGroupRequest;
+import com.example.backend_spring.dto.note.CreateNoteRequest;
+import com.example.backend_spring.dto.share.ShareWithGroupRequest;
+import com.example.backend_spring.dto.share.ShareWithUserRequest;
+import com.example.backend_spring.entity.Note;
+import com.example.backend_spring.entity.Share;
+import com.example.backend_spring.entity.User;
+import com.example.backend_spring.entity.UserGroup;
+import com.example.backend_spring.exception.ForbiddenException;
+import com.example.backend_spring.repository.NoteRepository;
+import com.example.backend_spring.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SharePermissionIntegrationTest {
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private NoteAccessService noteAccessService;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User groupMember;
+    private User writer;
+    private User outsider;
+    private Note note;
+    private Long teamId;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("owner@example.com");
+        groupMember = user("member@example.com");
+        writer = user("writer@example.com");
+        outsider = user("outsider@example.com");
+
+        note = note("Shared note");
+        teamId = group("Team", groupMember);
+        shareWithGroup(note, teamId);
+        shareService.shareWithUser(note.getId(), userShare(writer, "WRITE"), owner.getEmail());
+    }
+
+    @Test
+    void permissionLevels_IncludeLowerOnes() {
+        assertTrue(Share.Permission.ADMIN.includes(Share.Permission.WRITE));
+        assertTrue(Share.Permission.ADMIN.includes(Share.Permission.READ));
+        assertTrue(Share.Permission.WRITE.includes(Share.Permission.READ));
+        assertTrue(Share.Permission.READ.includes(Share.Permission.READ));
+        assertFalse(Share.Permission.READ.includes(Share.Permission.WRITE));
+        assertFalse(Share.Permission.WRITE.includes(Share.Permission.ADMIN));
+    }
+
+    @Test
+    void hasPermission_ResolvesDirectAndGroupShares() {
+        assertTrue(noteAccessService.hasPermission(note, owner, Share.Permission.ADMIN));
+
+        assertTrue(noteAccessService.hasPermission(note, writer, Share.Permission.WRITE));
+        assertFalse(noteAccessService.hasPermission(note, writer, Share.Permission.ADMIN));
+
+        assertTrue(noteAccessService.hasPermission(note, groupMember, Share.Permission.READ));
+        assertFalse(noteAccessService.hasPermission(note, groupMember, Share.Permission.WRITE));
+
+        assertFalse(noteAccessService.hasPermission(note, outsider, Share.Permission.READ));
+    }
+
+    @Test
+    void hasPermission_TakesTheHighestOfDirectAndGroupShares() {
+        shareService.shareWithUser(note.getId(), userShare(groupMember, "ADMIN"), owner.getEmail());
+
+        assertTrue(noteAccessService.hasPermission(note, groupMember, Share.Permission.ADMIN));
+    }
+
+    @Test
+    void sharing_RequiresAdmin() {
+        assertThrows(ForbiddenException.class, () ->
+                shareService.shareWithUser(note.getId(), userShare(outsider, "READ"), writer.getEmail()));
+        assertEquals(Set.of(), noteAccessService.findShareableNoteIds(Set.of(note), writer));
+
+        shareService.shareWithUser(note.getId(), userShare(groupMember, "ADMIN"), owner.getEmail());
+
+        assertEquals(Set.of(note.getId()), noteAccessService.findShareableNoteIds(Set.of(note), groupMember));
+        assertDoesNotThrow(() ->
+                shareService.shareWithUser(note.getId(), userShare(outsider, "READ"), groupMember.getEmail()));
+    }
+
+    @Test
+    void findAccessible_CountsANoteSharedWithSeveralGroupsOnce() {
+        Long otherTeamId = group("Other team", groupMember);
+        Note second = note("Second note");
+        Note third = note("Third note");
+        for (Note shared : List.of(second, third)) {
+            shareWithGroup(shared, teamId);
+            shareWithGroup(shared, otherTeamId);
+        }
+
+        NoteAccessService.AccessiblePage first = noteAccessService.findAccessible(groupMember.getId(), null, 2, false);
+
+        assertEquals(List.of(third.getId(), second.getId()), first.notes().stream().map(Note::getId).toList());
+        assertNotNull(first.next());
+        NoteAccessService.AccessiblePage last = noteAccessService.findAccessible(groupMember.getId(), first.next(), 2, false);
+        assertEquals(List.of(note.getId()), last.notes().stream().map(Note::getId).toList());
+        assertNull(last.next());
+    }
+
+    @Test
+    void builder_InitializesMembers() {
+        assertNotNull(UserGroup.builder().name("Team").build().getMembers());
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .passwordHash("hash")
+                .build());
+    }
+
+    private Note note(String title) {
+        CreateNoteRequest request = new CreateNoteRequest();
+        request.setTitle(title);
+        request.setContentMd("content");
+        request.setTags(Set.of("team"));
+        return noteRepository.findById(noteService.createNote(request, owner.getEmail()).getId()).orElseThrow();
+    }
+
+    private Long group(String name, User member) {
+        CreateGroupRequest groupRequest = new CreateGroupRequest();
+        groupRequest.setName(name);
+        Long groupId = groupService.createGroup(groupRequest, owner.getEmail()).getId();
+        AddGroupMemberRequest memberRequest = new AddGroupMemberRequest();
+        memberRequest.setEmail(member.getEmail());
+        groupService.addMember(groupId, memberRequest, owner.getEmail());
+        return groupId;
+    }
+
+    private void shareWithGroup(Note shared, Long groupId) {
+        ShareWithGroupRequest request = new ShareWithGroupRequest();
+        request.setGroupId(groupId);
+        request.setPermission("READ");
+        shareService.shareWithGroup(shared.getId(), request, owner.getEmail());
+    }
+
+    private static ShareWithUserRequest userShare(User user, String permission) {
+        ShareWithUserRequest request = new ShareWithUserRequest();
+        request.setEmail(user.getEmail());
+        request.setPermission(permission);
+        return request;
+    }
+}
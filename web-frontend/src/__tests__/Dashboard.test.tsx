@@ -1,12 +1,14 @@
 import { describe, it, expect, vi, beforeEach } from 'vitest';
-import { render, screen } from '@testing-library/react';
+import { render, screen, fireEvent } from '@testing-library/react';
 import { BrowserRouter } from 'react-router-dom';
 import Dashboard from '../pages/Dashboard';
 import { useAuthStore } from '../store/authStore';
 import { useNotesStore } from '../store/notesStore';
+import { notesApi } from '../lib/api';
 
 vi.mock('../store/authStore');
 vi.mock('../store/notesStore');
+vi.mock('../lib/api');
 
 describe('Dashboard Component', () => {
   beforeEach(() => {
@@ -98,4 +100,40 @@ describe('Dashboard Component', () => {
 
     expect(screen.getByText('Aucune note')).toBeInTheDocument();
   });
-});
\ No newline at end of file
+
+  it('suggests matching titles while typing', async () => {
+    vi.mocked(useNotesStore).mockReturnValue({
+      notes: [],
+      fetchNotes: vi.fn(),
+      isLoading: false,
+      searchQuery: '',
+      selectedVisibility: '',
+      setSearchQuery: vi.fn(),
+      setSelectedVisibility: vi.fn(),
+      clearFilters: vi.fn(),
+      currentPage: 0,
+      totalPages: 0,
+    } as any);
+    vi.mocked(notesApi.suggest).mockResolvedValue([
+      {
+        id: 2,
+        title: 'Réunion budget',
+        visibility: 'PRIVATE',
+        updatedAt: '2024-01-01T12:00:00',
+      },
+    ]);
+
+    render(
+      <BrowserRouter>
+        <Dashboard />
+      </BrowserRouter>
+    );
+
+    fireEvent.change(screen.getByPlaceholderText('Rechercher une note...'), {
+      target: { value: 'bugdet' },
+    });
+
+    expect(await screen.findByText('Réunion budget')).toBeInTheDocument();
+    expect(notesApi.suggest).toHaveBeenCalledWith('bugdet');
+  });
+});
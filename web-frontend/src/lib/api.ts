@@ -5,6 +5,7 @@ import type {
   RegisterRequest,
   Note,
   NoteListItem,
+  NoteSuggestion,
   CreateNoteRequest,
   UpdateNoteRequest,
   PaginatedResponse,
@@ -78,6 +79,13 @@ export const notesApi = {
     return response.data;
   },
 
+  suggest: async (query: string, limit = 8): Promise<NoteSuggestion[]> => {
+    const response = await api.get<NoteSuggestion[]>('/v1/notes/suggest', {
+      params: { query, limit },
+    });
+    return response.data;
+  },
+
   getById: async (id: number): Promise<Note> => {
     const response = await api.get<Note>(`/v1/notes/${id}`);
     return response.data;
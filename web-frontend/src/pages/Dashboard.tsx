@@ -2,6 +2,8 @@ import { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useAuthStore } from '../store/authStore';
 import { useNotesStore } from '../store/notesStore';
+import { notesApi } from '../lib/api';
+import type { NoteSuggestion } from '../types';
 import { PlusCircle, Search, LogOut, FileText } from 'lucide-react';
 import toast from 'react-hot-toast';
 
@@ -25,13 +27,36 @@ export default function Dashboard() {
   } = useNotesStore();
 
   const [localSearch, setLocalSearch] = useState(searchQuery);
+  const [suggestions, setSuggestions] = useState<NoteSuggestion[]>([]);
 
   useEffect(() => {
     fetchNotes();
   }, []);
 
+  // Recherche instantanée sur les titres, une fois la frappe arrêtée
+  useEffect(() => {
+    if (!localSearch.trim()) {
+      setSuggestions([]);
+      return;
+    }
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const result = await notesApi.suggest(localSearch);
+        if (!cancelled) setSuggestions(result);
+      } catch (error) {
+        if (!cancelled) setSuggestions([]);
+      }
+    }, 150);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [localSearch]);
+
   const handleSearch = (e: React.FormEvent) => {
     e.preventDefault();
+    setSuggestions([]);
     setSearchQuery(localSearch);
   };
 
@@ -101,6 +126,24 @@ export default function Dashboard() {
                   onChange={(e) => setLocalSearch(e.target.value)}
                   className="w-full pl-10 pr-4 py-2 border border-gray-300 rounded-md focus:ring-2 focus:ring-blue-500 focus:border-transparent"
                 />
+                {suggestions.length > 0 && (
+                  <ul className="absolute z-10 mt-1 w-full bg-white border border-gray-200 rounded-md shadow-lg">
+                    {suggestions.map((suggestion) => (
+                      <li key={suggestion.id}>
+                        <button
+                          type="button"
+                          onClick={() => navigate(`/notes/${suggestion.id}`)}
+                          className="w-full flex justify-between gap-4 px-4 py-2 text-left hover:bg-gray-50"
+                        >
+                          <span className="truncate text-gray-900">{suggestion.title}</span>
+                          <span className="text-sm text-gray-500 whitespace-nowrap">
+                            {new Date(suggestion.updatedAt).toLocaleDateString('fr-FR')}
+                          </span>
+                        </button>
+                      </li>
+                    ))}
+                  </ul>
+                )}
               </div>
             </div>
             
@@ -45,6 +45,13 @@ export interface NoteListItem {
   updatedAt: string;
 }
 
+export interface NoteSuggestion {
+  id: number;
+  title: string;
+  visibility: 'PRIVATE' | 'SHARED' | 'PUBLIC';
+  updatedAt: string;
+}
+
 export interface CreateNoteRequest {
   title: string;
   contentMd: string;